@@ -18,7 +18,12 @@ CREATE TABLE IF NOT EXISTS suppliers (
     history TEXT,
     address VARCHAR(500),
     email VARCHAR(100),
-    phone VARCHAR(20)
+    phone VARCHAR(20),
+    change_version BIGINT,
+    INDEX idx_suppliers_name (name),
+    INDEX idx_suppliers_email (email),
+    INDEX idx_suppliers_phone (phone),
+    INDEX idx_suppliers_change_version (change_version)
 );
 
 -- Create products table
@@ -31,7 +36,12 @@ CREATE TABLE IF NOT EXISTS products (
     qty INT NOT NULL DEFAULT 0,
     description TEXT,
     supplier_id BIGINT,
-    FOREIGN KEY (supplier_id) REFERENCES suppliers(id)
+    change_version BIGINT,
+    FOREIGN KEY (supplier_id) REFERENCES suppliers(id),
+    INDEX idx_products_category_id (category, id),
+    INDEX idx_products_supplier_id (supplier_id, id),
+    INDEX idx_products_qty (qty),
+    INDEX idx_products_change_version (change_version)
 );
 
 -- Create transactions table
@@ -48,9 +58,67 @@ CREATE TABLE IF NOT EXISTS transactions (
     expiry_date DATETIME,
     manufacturing_date DATETIME,
     FOREIGN KEY (product_id) REFERENCES products(id),
-    FOREIGN KEY (user_id) REFERENCES users(id)
+    FOREIGN KEY (user_id) REFERENCES users(id),
+    -- One index per query path; the trailing id serves keyset pagination (id > ? ORDER BY id)
+    INDEX idx_transactions_product_id (product_id, id),
+    INDEX idx_transactions_user_id (user_id, id),
+    INDEX idx_transactions_type_id (type, id),
+    INDEX idx_transactions_date_id (date, id),
+    INDEX idx_transactions_product_date_id (product_id, date, id),
+    INDEX idx_transactions_batch_number_id (batch_number, id),
+    INDEX idx_transactions_lot_number_id (lot_number, id)
 );
 
+-- Create daily stock flow rollup (per product, transaction type and day)
+CREATE TABLE IF NOT EXISTS daily_stock_flow (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    type ENUM('STOCK_IN', 'STOCK_OUT', 'PURCHASE', 'SALE', 'RETURN', 'ADJUSTMENT') NOT NULL,
+    flow_day DATE NOT NULL,
+    total_qty BIGINT NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    UNIQUE KEY uk_daily_stock_flow (product_id, type, flow_day)
+);
+
+-- Append-only stock ledger: products.qty is the sum of a product's deltas
+CREATE TABLE IF NOT EXISTS stock_ledger (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    delta INT NOT NULL,
+    reason ENUM('OPENING', 'TRANSACTION', 'ADJUSTMENT', 'REVERSAL') NOT NULL,
+    recorded_at DATETIME(6) NOT NULL,
+    INDEX idx_stock_ledger_product_id (product_id, id)
+);
+
+-- Per product quantity after every ledger entry up to last_entry_id
+CREATE TABLE IF NOT EXISTS stock_snapshots (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    last_entry_id BIGINT NOT NULL,
+    qty BIGINT NOT NULL,
+    as_of DATETIME(6) NOT NULL,
+    taken_at DATETIME(6) NOT NULL,
+    INDEX idx_stock_snapshots_product_entry (product_id, last_entry_id),
+    INDEX idx_stock_snapshots_product_as_of (product_id, as_of)
+);
+
+-- ID generators: Hibernate allocates IDs in blocks of 50 from these (MySQL has no
+-- sequences, so each is a one-row table). They start above the seed rows below.
+CREATE TABLE IF NOT EXISTS users_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS suppliers_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS products_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS transactions_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS daily_stock_flow_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS stock_ledger_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS stock_snapshots_seq (next_val BIGINT);
+INSERT INTO users_seq SELECT 1001 WHERE NOT EXISTS (SELECT * FROM users_seq);
+INSERT INTO suppliers_seq SELECT 1001 WHERE NOT EXISTS (SELECT * FROM suppliers_seq);
+INSERT INTO products_seq SELECT 1001 WHERE NOT EXISTS (SELECT * FROM products_seq);
+INSERT INTO transactions_seq SELECT 1001 WHERE NOT EXISTS (SELECT * FROM transactions_seq);
+INSERT INTO daily_stock_flow_seq SELECT 1001 WHERE NOT EXISTS (SELECT * FROM daily_stock_flow_seq);
+INSERT INTO stock_ledger_seq SELECT 1 WHERE NOT EXISTS (SELECT * FROM stock_ledger_seq);
+INSERT INTO stock_snapshots_seq SELECT 1 WHERE NOT EXISTS (SELECT * FROM stock_snapshots_seq);
+
 -- Insert default admin user (password: admin123)
 INSERT INTO users (username, password, role) VALUES 
 ('admin', '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iKyVhHxONpO/7cGjO8Q5Q5Q5Q5Q5', 'ADMIN')
@@ -0,0 +1,666 @@
+package com.arya.inventory.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.arya.inventory.config.JwtAuthenticationFilter;
+import com.arya.inventory.dto.KeysetPage;
+import com.arya.inventory.dto.ProductResponse;
+import com.arya.inventory.dto.TransactionResponse;
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.StockLedgerEntry;
+import com.arya.inventory.entity.Supplier;
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.entity.User;
+import com.arya.inventory.journal.DatabaseSnapshot;
+import com.arya.inventory.journal.JournalCodec;
+import com.arya.inventory.journal.JournalReplayer;
+import com.arya.inventory.journal.SnapshotManager;
+import com.arya.inventory.journal.StockJournal;
+import com.arya.inventory.service.ProductService;
+import com.arya.inventory.service.TransactionService;
+import com.arya.inventory.util.Cbor;
+import com.arya.inventory.util.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Times the service and serialization hot paths against the synthetic dataset.
+// Run with --spring.profiles.active=bench; each benchmark gets a warmup period and then
+// a few fixed-length iterations, reported as mean ops/s and microseconds per op.
+@Component
+@Profile("bench")
+@Order(Integer.MAX_VALUE)
+public class BenchmarkRunner implements CommandLineRunner {
+    
+    private static final Logger log = LoggerFactory.getLogger(BenchmarkRunner.class);
+    
+    @Autowired
+    private SyntheticDataGenerator dataGenerator;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ApplicationContext applicationContext;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private SnapshotManager snapshotManager;
+    
+    @Autowired
+    private Environment environment;
+    
+    @Value("${bench.warmup-seconds:2}")
+    private int warmupSeconds;
+    
+    @Value("${bench.iteration-seconds:2}")
+    private int iterationSeconds;
+    
+    @Value("${bench.iterations:5}")
+    private int iterations;
+    
+    @Value("${bench.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${bench.list-size:500}")
+    private int listSize;
+    
+    // Comma-separated benchmark names to run; empty runs all of them
+    @Value("${bench.include:}")
+    private List<String> include;
+    
+    @Value("${bench.journal-entries:10000000}")
+    private long journalEntries;
+    
+    // Also write the recovered records into the database, as startup replay does
+    @Value("${bench.journal-replay:false}")
+    private boolean journalReplay;
+    
+    // Link speed for the transfer times in the wire.sizes report
+    @Value("${bench.link-mbps:10}")
+    private double linkMbps;
+    
+    // Mixed load for load.mixed: clients streaming the whole export next to quick stock lookups
+    @Value("${bench.load-seconds:30}")
+    private int loadSeconds;
+    
+    @Value("${bench.load-report-clients:40}")
+    private int loadReportClients;
+    
+    @Value("${bench.load-lookup-clients:10}")
+    private int loadLookupClients;
+    
+    @Value("${bench.exit:true}")
+    private boolean exitWhenDone;
+    
+    private final Random random = new Random(7);
+    
+    @Override
+    public void run(String... args) throws Exception {
+        long started = System.nanoTime();
+        SyntheticDataGenerator.Dataset dataset = dataGenerator.generate();
+        log.info("Generated {} products and {} users in {} ms", dataset.getProducts().size(),
+                dataset.getUsers().size(), (System.nanoTime() - started) / 1_000_000);
+        
+        List<Product> products = dataset.getProducts();
+        List<User> users = dataset.getUsers();
+        User user = users.get(0);
+        String token = jwtUtil.generateToken(user);
+        
+        List<Result> results = new ArrayList<>();
+        
+        benchmark(results, "transaction.create", () -> {
+            Transaction transaction = new Transaction();
+            transaction.setProduct(products.get(random.nextInt(products.size())));
+            transaction.setUser(users.get(random.nextInt(users.size())));
+            transaction.setQty(1);
+            transaction.setType(Transaction.TransactionType.STOCK_IN);
+            transactionService.createTransaction(transaction);
+        });
+        
+        // One op is a whole batch; multiply by bench.batch-size for rows/s
+        benchmark(results, "transaction.batch", () -> {
+            List<Transaction> batch = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                Transaction transaction = new Transaction();
+                transaction.setProduct(products.get(random.nextInt(products.size())));
+                transaction.setUser(users.get(random.nextInt(users.size())));
+                transaction.setQty(1);
+                transaction.setType(Transaction.TransactionType.STOCK_IN);
+                batch.add(transaction);
+            }
+            transactionService.createTransactions(batch);
+        });
+        
+        benchmark(results, "product.updateStock", () ->
+                productService.updateStock(products.get(random.nextInt(products.size())).getId(), 1));
+        
+        benchmark(results, "jwt.generate", () -> jwtUtil.generateToken(user));
+        
+        benchmark(results, "jwt.validate", () -> jwtUtil.validateToken(token, user));
+        
+        HttpServletRequest request = request("Bearer " + token);
+        HttpServletResponse response = stub(HttpServletResponse.class, new HashMap<>());
+        FilterChain chain = (req, res) -> { };
+        benchmark(results, "jwt.filter", () -> {
+            try {
+                jwtAuthenticationFilter.doFilter(request, response, chain);
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        });
+        
+        List<Product> productList = detachedProducts(products, listSize);
+        List<Transaction> transactionList = detachedTransactions(productList, users);
+        List<ProductResponse> productResponses = productList.stream().map(ProductResponse::from).toList();
+        List<TransactionResponse> transactionResponses = transactionList.stream().map(TransactionResponse::from).toList();
+        benchmark(results, "json.products", () -> objectMapper.writeValueAsBytes(productResponses));
+        benchmark(results, "json.transactions", () -> objectMapper.writeValueAsBytes(transactionResponses));
+        // The server's on-the-fly compression of a list response
+        benchmark(results, "json.products.gzip", () ->
+                gzip(objectMapper.writeValueAsBytes(productResponses), Deflater.DEFAULT_COMPRESSION));
+        
+        // CBOR against JSON, encoded as the server writes a list and decoded into entities as the
+        // Swing client reads one
+        ObjectMapper clientMapper = new ObjectMapper().findAndRegisterModules();
+        byte[] productJson = objectMapper.writeValueAsBytes(productResponses);
+        byte[] transactionJson = objectMapper.writeValueAsBytes(transactionResponses);
+        byte[] productCbor = Cbor.writeValueAsBytes(objectMapper, productResponses);
+        byte[] transactionCbor = Cbor.writeValueAsBytes(objectMapper, transactionResponses);
+        benchmark(results, "cbor.products", () -> Cbor.writeValueAsBytes(objectMapper, productResponses));
+        benchmark(results, "cbor.transactions", () -> Cbor.writeValueAsBytes(objectMapper, transactionResponses));
+        benchmark(results, "json.products.decode", () -> clientMapper.readValue(productJson, Product[].class));
+        benchmark(results, "cbor.products.decode", () ->
+                Cbor.readValue(clientMapper, new ByteArrayInputStream(productCbor), Product[].class));
+        benchmark(results, "json.transactions.decode", () -> clientMapper.readValue(transactionJson, Transaction[].class));
+        benchmark(results, "cbor.transactions.decode", () ->
+                Cbor.readValue(clientMapper, new ByteArrayInputStream(transactionCbor), Transaction[].class));
+        if (include.isEmpty() || include.contains("payload.sizes")) {
+            log.info("Payload sizes for {} rows: products {} bytes JSON, {} bytes CBOR; transactions {} bytes JSON, {} bytes CBOR",
+                    listSize, productJson.length, productCbor.length, transactionJson.length, transactionCbor.length);
+        }
+        
+        wireSizes(products);
+        
+        snapshotRestore(results);
+        journalRecovery(results, products);
+        mixedLoad(products, token);
+        
+        StringBuilder report = new StringBuilder(String.format("%n%-22s %14s %12s %12s%n",
+                "Benchmark", "ops/s", "+/- ops/s", "us/op"));
+        for (Result result : results) {
+            report.append(String.format("%-22s %14.1f %12.1f %12.2f%n",
+                    result.name, result.meanOpsPerSecond, result.stdDevOpsPerSecond, 1_000_000 / result.meanOpsPerSecond));
+        }
+        log.info("Benchmark results (warmup {}s, {} x {}s):{}", warmupSeconds, iterations, iterationSeconds, report);
+        
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+    
+    private void benchmark(List<Result> results, String name, Operation operation) throws Exception {
+        if (!include.isEmpty() && !include.contains(name)) {
+            return;
+        }
+        measure(operation, warmupSeconds);
+        double[] opsPerSecond = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            opsPerSecond[i] = measure(operation, iterationSeconds);
+        }
+        
+        double mean = 0;
+        for (double value : opsPerSecond) {
+            mean += value;
+        }
+        mean /= iterations;
+        double variance = 0;
+        for (double value : opsPerSecond) {
+            variance += (value - mean) * (value - mean);
+        }
+        double stdDev = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+        results.add(new Result(name, mean, stdDev));
+        log.info("{}: {} ops/s", name, String.format("%.1f", mean));
+    }
+    
+    // One pass: dumps the synthetic dataset to a snapshot file, then restores it into a second,
+    // empty in-memory database with the same schema, which is the startup cost of
+    // inventory.snapshot.restore apart from Spring and Hibernate themselves
+    private void snapshotRestore(List<Result> results) throws Exception {
+        if (!include.isEmpty() && !include.contains("snapshot.restore")) {
+            return;
+        }
+        Path file = Files.createTempFile("inventory-snapshot", ".bin");
+        try {
+            long started = System.nanoTime();
+            long rows;
+            List<String> schema = new ArrayList<>();
+            try (Connection connection = dataSource.getConnection()) {
+                rows = DatabaseSnapshot.write(connection, file);
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery("SCRIPT NODATA")) {
+                    while (rs.next()) {
+                        schema.add(rs.getString(1));
+                    }
+                }
+            }
+            double dumpSeconds = (System.nanoTime() - started) / 1e9;
+            results.add(new Result("snapshot.dump", rows / dumpSeconds, 0));
+            
+            // The database lives as long as this connection
+            try (Connection target = DriverManager.getConnection("jdbc:h2:mem:snapshot-bench", "sa", "")) {
+                try (Statement statement = target.createStatement()) {
+                    for (String sql : schema) {
+                        statement.execute(sql);
+                    }
+                }
+                started = System.nanoTime();
+                long restored = snapshotManager.restore(target, file);
+                double restoreSeconds = (System.nanoTime() - started) / 1e9;
+                results.add(new Result("snapshot.restore", restored / restoreSeconds, 0));
+                log.info("snapshot: {} rows, {} MB, dumped in {} s, restored in {} s", rows, Files.size(file) / (1024 * 1024),
+                        String.format("%.2f", dumpSeconds), String.format("%.2f", restoreSeconds));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    // One pass rather than timed iterations: writes bench.journal-entries ledger records the
+    // way the journal receives stock movements (a sync per 100 records, as if from concurrent
+    // committers), then times reopening it, which reads, verifies and decodes every record
+    private void journalRecovery(List<Result> results, List<Product> products) throws Exception {
+        if (!include.isEmpty() && !include.contains("journal.recovery")) {
+            return;
+        }
+        Path directory = Files.createTempDirectory("stock-journal-bench");
+        try {
+            StockLedgerEntry entry = new StockLedgerEntry(null, 0, StockLedgerEntry.Reason.TRANSACTION, LocalDateTime.now());
+            long started = System.nanoTime();
+            try (StockJournal journal = StockJournal.open(directory, 64 * 1024 * 1024, true, payload -> { })) {
+                long position = 0;
+                for (long i = 0; i < journalEntries; i++) {
+                    // Ids far above the synthetic dataset's, in case the records are replayed
+                    entry.setId(1_000_000_000L + i);
+                    entry.setProductId(products.get((int) (i % products.size())).getId());
+                    entry.setDelta(1 + (int) (i % 50));
+                    position = journal.append(JournalCodec.encodeInsert(entry));
+                    if (i % 100 == 99) {
+                        journal.awaitDurable(position);
+                    }
+                }
+                journal.awaitDurable(position);
+            }
+            double appendSeconds = (System.nanoTime() - started) / 1e9;
+            results.add(new Result("journal.append", journalEntries / appendSeconds, 0));
+            
+            long[] decoded = new long[1];
+            started = System.nanoTime();
+            if (journalReplay) {
+                try (Connection connection = dataSource.getConnection()) {
+                    JournalReplayer replayer = new JournalReplayer(connection, 1000);
+                    StockJournal.open(directory, 64 * 1024 * 1024, false, replayer).close();
+                    replayer.finish();
+                    decoded[0] = replayer.getRecords();
+                }
+            } else {
+                StockJournal.open(directory, 64 * 1024 * 1024, false, payload -> {
+                    JournalCodec.decode(payload);
+                    decoded[0]++;
+                }).close();
+            }
+            double recoverySeconds = (System.nanoTime() - started) / 1e9;
+            results.add(new Result(journalReplay ? "journal.replay" : "journal.recover", decoded[0] / recoverySeconds, 0));
+            log.info("journal: {} records appended in {} s, {} recovered in {} s", journalEntries,
+                    String.format("%.2f", appendSeconds), decoded[0], String.format("%.2f", recoverySeconds));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+    
+    // One pass: response sizes without and with compression, and their transfer time over a
+    // bench.link-mbps link, for the web UI's files and for reading the whole catalog through
+    // /api/products a page of KeysetPage.MAX_LIMIT at a time. Files are gzipped at the highest
+    // level, as they are served; API pages at the default level, as the server compresses them.
+    private void wireSizes(List<Product> products) throws Exception {
+        if (!include.isEmpty() && !include.contains("wire.sizes")) {
+            return;
+        }
+        StringBuilder report = new StringBuilder(String.format("%n%-26s %12s %12s %8s %10s %10s%n",
+                "Response", "bytes", "gzip bytes", "ratio", "ms", "gzip ms"));
+        long[] totals = new long[2];
+        for (String file : new String[] {"index.html", "js/app.js", "css/style.css"}) {
+            byte[] raw = new ClassPathResource("static/" + file).getContentAsByteArray();
+            appendWireSize(report, file, raw.length, gzip(raw, Deflater.BEST_COMPRESSION).length, totals);
+        }
+        
+        List<Product> catalog = detachedProducts(products, products.size());
+        long raw = 0;
+        long compressed = 0;
+        int pages = 0;
+        for (int from = 0; from < catalog.size(); from += KeysetPage.MAX_LIMIT) {
+            List<ProductResponse> page = catalog.subList(from, Math.min(from + KeysetPage.MAX_LIMIT, catalog.size()))
+                    .stream().map(ProductResponse::from).toList();
+            byte[] json = objectMapper.writeValueAsBytes(page);
+            raw += json.length;
+            compressed += gzip(json, Deflater.DEFAULT_COMPRESSION).length;
+            pages++;
+        }
+        appendWireSize(report, "/api/products x " + pages, raw, compressed, totals);
+        appendWireSize(report, "total", totals[0], totals[1], null);
+        log.info("Wire sizes for {} products at {} Mbit/s:{}", catalog.size(), linkMbps, report);
+    }
+    
+    // One pass over HTTP against this instance, which must run a web server
+    // (--spring.main.web-application-type=servlet). Reports latency percentiles of stock lookups
+    // while report clients hold long exports open; run it once with platform threads and once
+    // with spring.threads.virtual.enabled=true (which adds the database bulkhead) to compare.
+    private void mixedLoad(List<Product> products, String token) throws Exception {
+        if (!include.contains("load.mixed")) {
+            return;
+        }
+        String port = environment.getProperty("local.server.port");
+        if (port == null) {
+            log.warn("load.mixed needs a web server: run with --spring.main.web-application-type=servlet");
+            return;
+        }
+        String base = "http://localhost:" + port;
+        String export = base + "/api/transactions/export?format=csv&startDate=2000-01-01T00:00:00&endDate="
+                + LocalDateTime.now().plusDays(1).withNano(0);
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        long deadline = System.nanoTime() + loadSeconds * 1_000_000_000L;
+        
+        ExecutorService clients = Executors.newFixedThreadPool(loadReportClients + loadLookupClients);
+        try {
+            List<Future<LoadResult>> reports = new ArrayList<>();
+            for (int i = 0; i < loadReportClients; i++) {
+                Random clientRandom = new Random(i);
+                reports.add(clients.submit(() -> drive(client, token, deadline, List.of(export), clientRandom)));
+            }
+            List<String> productUris = products.stream().map(p -> base + "/api/products/" + p.getId()).toList();
+            List<Future<LoadResult>> lookups = new ArrayList<>();
+            for (int i = 0; i < loadLookupClients; i++) {
+                Random clientRandom = new Random(i);
+                lookups.add(clients.submit(() -> drive(client, token, deadline, productUris, clientRandom)));
+            }
+            String threads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+                    ? "virtual threads with bulkhead"
+                    : "platform threads, max " + environment.getProperty("server.tomcat.threads.max", "200");
+            log.info("load.mixed, {}, {} s: lookups {}; reports {}", threads, loadSeconds,
+                    LoadResult.merge(lookups), LoadResult.merge(reports));
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+    
+    // Sends requests to random picks from uris back to back until the deadline, timing each
+    // to its last byte
+    private LoadResult drive(HttpClient client, String token, long deadline, List<String> uris, Random random)
+            throws InterruptedException {
+        LoadResult result = new LoadResult();
+        while (System.nanoTime() < deadline) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(uris.get(random.nextInt(uris.size()))))
+                    .header("Authorization", "Bearer " + token)
+                    .build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                result.add(System.nanoTime() - start, response.statusCode() == 200);
+            } catch (IOException e) {
+                result.add(System.nanoTime() - start, false);
+            }
+        }
+        return result;
+    }
+    
+    private void appendWireSize(StringBuilder report, String name, long raw, long compressed, long[] totals) {
+        double bytesPerMilli = linkMbps * 1_000_000 / 8 / 1000;
+        report.append(String.format("%-26s %12d %12d %7.1fx %10.1f %10.1f%n", name, raw, compressed,
+                (double) raw / compressed, raw / bytesPerMilli, compressed / bytesPerMilli));
+        if (totals != null) {
+            totals[0] += raw;
+            totals[1] += compressed;
+        }
+    }
+    
+    private static byte[] gzip(byte[] data, int level) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private double measure(Operation operation, int seconds) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long start = System.nanoTime();
+        long ops = 0;
+        long now;
+        do {
+            operation.run();
+            ops++;
+            now = System.nanoTime();
+        } while (now < deadline);
+        return ops * 1_000_000_000.0 / (now - start);
+    }
+    
+    // Detached entities with their associations already populated, so serialization cost
+    // is measured without touching the database
+    private List<Product> detachedProducts(List<Product> products, int count) {
+        List<Product> list = new ArrayList<>(count);
+        for (int i = 0; i < count && i < products.size(); i++) {
+            Product source = products.get(i);
+            Product product = new Product();
+            product.setId(source.getId());
+            product.setName(source.getName());
+            product.setSku(source.getSku());
+            product.setCategory(source.getCategory());
+            product.setPrice(source.getPrice());
+            product.setQty(source.getQty());
+            product.setDescription(source.getDescription());
+            if (source.getSupplier() != null) {
+                Supplier supplier = new Supplier();
+                supplier.setId(source.getSupplier().getId());
+                supplier.setName(source.getSupplier().getName());
+                supplier.setEmail(source.getSupplier().getEmail());
+                product.setSupplier(supplier);
+            }
+            list.add(product);
+        }
+        return list;
+    }
+    
+    private List<Transaction> detachedTransactions(List<Product> products, List<User> users) {
+        List<Transaction> list = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            User source = users.get(i % users.size());
+            User user = new User();
+            user.setId(source.getId());
+            user.setUsername(source.getUsername());
+            user.setRole(source.getRole());
+            
+            Transaction transaction = new Transaction();
+            transaction.setId((long) i + 1);
+            transaction.setProduct(products.get(i % products.size()));
+            transaction.setUser(user);
+            transaction.setQty(1 + i % 50);
+            transaction.setType(Transaction.TransactionType.values()[i % Transaction.TransactionType.values().length]);
+            transaction.setDate(LocalDateTime.now().minusMinutes(i));
+            transaction.setBatchNumber("B" + i % 1000);
+            transaction.setLotNumber("L" + i % 5000);
+            list.add(transaction);
+        }
+        return list;
+    }
+    
+    // Just enough of HttpServletRequest for the JWT filter; everything else answers null/false/0
+    private HttpServletRequest request(String authorization) {
+        Map<String, Object> attributes = new HashMap<>();
+        HttpServletRequest request = stub(HttpServletRequest.class, attributes);
+        return (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {HttpServletRequest.class}, (proxy, method, methodArgs) -> {
+                    if (method.getName().equals("getHeader") && "Authorization".equalsIgnoreCase((String) methodArgs[0])) {
+                        return authorization;
+                    }
+                    return method.invoke(request, methodArgs);
+                });
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Object> attributes) {
+        return (T) Proxy.newProxyInstance(BenchmarkRunner.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getAttribute":
+                            return attributes.get((String) args[0]);
+                        case "setAttribute":
+                            attributes.put((String) args[0], args[1]);
+                            return null;
+                        case "removeAttribute":
+                            attributes.remove((String) args[0]);
+                            return null;
+                        case "getDispatcherType":
+                            return DispatcherType.REQUEST;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return type.getSimpleName() + " stub";
+                        default:
+                            Class<?> returnType = method.getReturnType();
+                            if (returnType == boolean.class) {
+                                return false;
+                            }
+                            if (returnType == int.class) {
+                                return 0;
+                            }
+                            if (returnType == long.class) {
+                                return 0L;
+                            }
+                            return null;
+                    }
+                });
+    }
+    
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws Exception;
+    }
+    
+    private static class Result {
+        private final String name;
+        private final double meanOpsPerSecond;
+        private final double stdDevOpsPerSecond;
+        
+        Result(String name, double meanOpsPerSecond, double stdDevOpsPerSecond) {
+            this.name = name;
+            this.meanOpsPerSecond = meanOpsPerSecond;
+            this.stdDevOpsPerSecond = stdDevOpsPerSecond;
+        }
+    }
+    
+    private static class LoadResult {
+        private final List<Long> latencies = new ArrayList<>();
+        private int failed;
+        
+        void add(long nanos, boolean ok) {
+            latencies.add(nanos);
+            if (!ok) {
+                failed++;
+            }
+        }
+        
+        static LoadResult merge(List<Future<LoadResult>> futures) throws Exception {
+            LoadResult merged = new LoadResult();
+            for (Future<LoadResult> future : futures) {
+                LoadResult result = future.get();
+                merged.latencies.addAll(result.latencies);
+                merged.failed += result.failed;
+            }
+            merged.latencies.sort(null);
+            return merged;
+        }
+        
+        private double percentileMillis(double quantile) {
+            int index = (int) Math.ceil(quantile * latencies.size()) - 1;
+            return latencies.get(Math.max(index, 0)) / 1e6;
+        }
+        
+        @Override
+        public String toString() {
+            if (latencies.isEmpty()) {
+                return "none completed";
+            }
+            return String.format("%d requests, %d failed, p50 %.1f ms, p99 %.1f ms, max %.1f ms", latencies.size(),
+                    failed, percentileMillis(0.5), percentileMillis(0.99), percentileMillis(1));
+        }
+    }
+}
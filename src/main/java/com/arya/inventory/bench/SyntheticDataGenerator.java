@@ -0,0 +1,184 @@
+package com.arya.inventory.bench;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.Supplier;
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.entity.User;
+import com.arya.inventory.repository.ProductRepository;
+import com.arya.inventory.repository.SupplierRepository;
+import com.arya.inventory.repository.TransactionRepository;
+import com.arya.inventory.repository.UserRepository;
+import com.arya.inventory.service.StockFlowService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Fills the embedded database with a reproducible dataset for the benchmark profile.
+// Sizes come from bench.* properties; the same seed always yields the same rows.
+@Component
+@Profile("bench")
+public class SyntheticDataGenerator {
+    
+    private static final String[] CATEGORIES = {
+        "Electronics", "Furniture", "Stationery", "Tools", "Garden", "Kitchen", "Apparel", "Toys"
+    };
+    
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+    
+    private static final int CHUNK_SIZE = 1000;
+    
+    @Autowired
+    private SupplierRepository supplierRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private StockFlowService stockFlowService;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${bench.seed:42}")
+    private long seed;
+    
+    @Value("${bench.suppliers:100}")
+    private int supplierCount;
+    
+    @Value("${bench.products:10000}")
+    private int productCount;
+    
+    @Value("${bench.users:50}")
+    private int userCount;
+    
+    @Value("${bench.transactions:100000}")
+    private int transactionCount;
+    
+    public Dataset generate() {
+        Random random = new Random(seed);
+        Dataset dataset = new Dataset();
+        
+        List<Supplier> suppliers = new ArrayList<>(supplierCount);
+        for (int i = 0; i < supplierCount; i++) {
+            Supplier supplier = new Supplier();
+            supplier.setName("Bench Supplier " + i);
+            supplier.setContact("Contact " + i);
+            supplier.setEmail("supplier" + i + "@bench.example");
+            supplier.setPhone("+1-555-" + String.format("%04d", i));
+            supplier.setAddress(i + " Bench Street");
+            suppliers.add(supplier);
+        }
+        inChunks(suppliers, supplierRepository::saveAll);
+        
+        List<Product> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product();
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            product.setName(category + " Item " + i);
+            product.setSku("BENCH-" + i);
+            product.setCategory(category);
+            product.setPrice(BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+            product.setQty(1_000 + random.nextInt(10_000));
+            product.setDescription("Synthetic " + category.toLowerCase() + " product number " + i);
+            if (!suppliers.isEmpty()) {
+                product.setSupplier(suppliers.get(random.nextInt(suppliers.size())));
+            }
+            products.add(product);
+        }
+        inChunks(products, productRepository::saveAll);
+        
+        // BCrypt is deliberately slow; every synthetic user shares one hash
+        String password = passwordEncoder.encode("bench123");
+        List<User> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            User user = new User();
+            user.setUsername("bench" + i);
+            user.setPassword(password);
+            user.setRole(i == 0 ? User.Role.ADMIN : User.Role.STAFF);
+            users.add(user);
+        }
+        inChunks(users, userRepository::saveAll);
+        
+        Transaction.TransactionType[] types = Transaction.TransactionType.values();
+        LocalDateTime start = LocalDateTime.now().minusDays(365);
+        long insertStarted = System.nanoTime();
+        List<Transaction> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < transactionCount; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setProduct(products.get(random.nextInt(products.size())));
+            transaction.setUser(users.get(random.nextInt(users.size())));
+            transaction.setQty(1 + random.nextInt(50));
+            transaction.setType(types[random.nextInt(types.length)]);
+            transaction.setDate(start.plusSeconds(random.nextInt(365 * 24 * 3600)));
+            transaction.setBatchNumber("B" + random.nextInt(1000));
+            transaction.setLotNumber("L" + random.nextInt(5000));
+            chunk.add(transaction);
+            if (chunk.size() == CHUNK_SIZE || i == transactionCount - 1) {
+                List<Transaction> toSave = chunk;
+                transactionTemplate.executeWithoutResult(status -> {
+                    transactionRepository.saveAll(toSave);
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        long insertNanos = System.nanoTime() - insertStarted;
+        log.info("Inserted {} transactions in {} ms ({} rows/s)", transactionCount, insertNanos / 1_000_000,
+                insertNanos == 0 ? 0 : transactionCount * 1_000_000_000L / insertNanos);
+        transactionTemplate.executeWithoutResult(status -> stockFlowService.rebuild());
+        
+        dataset.products = products;
+        dataset.users = users;
+        return dataset;
+    }
+    
+    private <T> void inChunks(List<T> rows, Consumer<List<T>> save) {
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            List<T> part = rows.subList(from, Math.min(rows.size(), from + CHUNK_SIZE));
+            transactionTemplate.executeWithoutResult(status -> save.accept(part));
+        }
+    }
+    
+    // Detached copies of what was written, for benchmarks that pick random rows
+    public static class Dataset {
+        private List<Product> products;
+        private List<User> users;
+        
+        public List<Product> getProducts() {
+            return products;
+        }
+        
+        public List<User> getUsers() {
+            return users;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.arya.inventory.config;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.arya.inventory.util.Cbor;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Reads and writes application/cbor with the application's ObjectMapper, so CBOR bodies carry
+// the same properties as JSON ones
+class CborHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    
+    private final ObjectMapper objectMapper;
+    
+    CborHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_CBOR);
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+    
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return read(objectMapper.constructType(GenericTypeResolver.resolveType(type, contextClass)), inputMessage);
+    }
+    
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(objectMapper.constructType(clazz), inputMessage);
+    }
+    
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Cbor.writeValue(objectMapper, object, outputMessage.getBody());
+    }
+    
+    private Object read(JavaType type, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return Cbor.readValue(objectMapper, inputMessage.getBody(), type);
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Invalid CBOR body: " + e.getMessage(), e, inputMessage);
+        }
+    }
+}
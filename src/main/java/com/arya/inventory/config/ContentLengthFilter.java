@@ -0,0 +1,56 @@
+package com.arya.inventory.config;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// JSON responses are written without a Content-Length, and the server gzips every response of
+// unknown length, however small. Buffering API responses gives them one, so only responses
+// over server.compression.min-response-size are compressed. Streamed responses (live updates,
+// exports) are passed through, since buffering would hold them back or in memory.
+@Component
+public class ContentLengthFilter extends OncePerRequestFilter {
+    
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    
+    private final List<String> streamingPaths;
+    
+    public ContentLengthFilter(@Value("${inventory.compression.streaming-paths}") List<String> streamingPaths) {
+        this.streamingPaths = streamingPaths;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (!path.startsWith("/api/")) {
+            return true;
+        }
+        for (String pattern : streamingPaths) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, buffered);
+        } finally {
+            buffered.copyBodyToResponse();
+        }
+    }
+}
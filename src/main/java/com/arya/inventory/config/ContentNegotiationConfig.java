@@ -0,0 +1,27 @@
+package com.arya.inventory.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Binary bodies for high-volume API clients: every endpoint that takes or returns JSON also
+// speaks CBOR when asked with Accept or Content-Type: application/cbor. The converter goes
+// after the default ones, so requests that accept anything still get JSON.
+@Configuration
+public class ContentNegotiationConfig implements WebMvcConfigurer {
+    
+    private final ObjectMapper objectMapper;
+    
+    public ContentNegotiationConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new CborHttpMessageConverter(objectMapper));
+    }
+}
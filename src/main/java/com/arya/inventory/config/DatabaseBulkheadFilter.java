@@ -0,0 +1,109 @@
+package com.arya.inventory.config;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// With virtual threads the request pool no longer limits concurrency, so every request
+// would queue inside the connection pool instead. This caps concurrent API work at the
+// pool size and gives report-style requests a smaller share, so long range scans and
+// exports can never hold every connection while quick stock lookups wait.
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DatabaseBulkheadFilter extends OncePerRequestFilter {
+    
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    
+    private final Semaphore permits;
+    private final Semaphore reportPermits;
+    private final long acquireTimeoutMillis;
+    private final List<String> reportPaths;
+    
+    public DatabaseBulkheadFilter(@Value("${inventory.db.max-concurrency:10}") int maxConcurrency,
+                                  @Value("${inventory.db.report-concurrency:4}") int reportConcurrency,
+                                  @Value("${inventory.db.acquire-timeout-ms:5000}") long acquireTimeoutMillis,
+                                  @Value("${inventory.db.report-paths}") List<String> reportPaths) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.reportPermits = new Semaphore(Math.min(reportConcurrency, maxConcurrency), true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.reportPaths = reportPaths;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        // Live streams hold their connection open but never a database connection
+        return !path.startsWith("/api/") || path.startsWith("/api/stream/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean report = isReport(request.getMethod(), request.getServletPath());
+        if (report && !acquire(reportPermits)) {
+            reject(response);
+            return;
+        }
+        try {
+            if (!acquire(permits)) {
+                reject(response);
+                return;
+            }
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                permits.release();
+            }
+        } finally {
+            if (report) {
+                reportPermits.release();
+            }
+        }
+    }
+    
+    // Entries are "METHOD:pattern"; a bare pattern only covers reads (GET and HEAD), so
+    // creates posted to a collection root never wait behind exports and range scans
+    private boolean isReport(String method, String path) {
+        for (String entry : reportPaths) {
+            int colon = entry.indexOf(':');
+            String pattern = colon < 0 ? entry : entry.substring(colon + 1);
+            boolean methodMatches = colon < 0
+                    ? "GET".equals(method) || "HEAD".equals(method)
+                    : entry.substring(0, colon).equalsIgnoreCase(method);
+            if (methodMatches && PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private boolean acquire(Semaphore semaphore) throws ServletException {
+        try {
+            return semaphore.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for a database slot", e);
+        }
+    }
+    
+    private void reject(HttpServletResponse response) throws IOException {
+        // Written directly: an error dispatch would run unauthenticated and turn into a 403
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.getWriter().write("Server busy, retry shortly");
+    }
+}
@@ -0,0 +1,153 @@
+package com.arya.inventory.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Serves the gzipped form of a static asset to clients that accept gzip. Each asset is
+// compressed once at the highest level and kept in memory, so requests cost no compression
+// work, unlike the server's on-the-fly compression. Brotli would need an encoder this build
+// does not have. Must come before the VersionResourceResolver so the hash is of the original.
+class GzipResourceResolver extends AbstractResourceResolver {
+    
+    // Keyed by location and modification time, so an edited file is compressed again
+    private final Map<String, byte[]> compressed = new ConcurrentHashMap<>();
+    
+    @Override
+    protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null || request == null || !acceptsGzip(request)) {
+            return resource;
+        }
+        try {
+            String key = resource.getURL() + "@" + resource.lastModified();
+            byte[] bytes = compressed.get(key);
+            if (bytes == null) {
+                bytes = gzip(resource);
+                compressed.put(key, bytes);
+            }
+            return bytes.length < resource.contentLength() ? new GzippedResource(resource, bytes) : resource;
+        } catch (IOException e) {
+            logger.warn("Serving " + requestPath + " uncompressed: " + e.getMessage());
+            return resource;
+        }
+    }
+    
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+    
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accepted = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accepted != null && accepted.toLowerCase().contains("gzip");
+    }
+    
+    private static byte[] gzip(Resource resource) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = resource.getInputStream();
+             OutputStream out = new GZIPOutputStream(bytes) {
+                 {
+                     def.setLevel(Deflater.BEST_COMPRESSION);
+                 }
+             }) {
+            in.transferTo(out);
+        }
+        return bytes.toByteArray();
+    }
+    
+    // The compressed bytes with the original's name, so the content type is still the
+    // original's, and its headers plus the encoding
+    private static final class GzippedResource extends AbstractResource implements HttpResource {
+        
+        private final Resource original;
+        private final byte[] bytes;
+        
+        GzippedResource(Resource original, byte[] bytes) {
+            this.original = original;
+            this.bytes = bytes;
+        }
+        
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+        
+        @Override
+        public long contentLength() {
+            return bytes.length;
+        }
+        
+        @Override
+        public boolean exists() {
+            return true;
+        }
+        
+        @Override
+        public long lastModified() throws IOException {
+            return original.lastModified();
+        }
+        
+        @Override
+        public URL getURL() throws IOException {
+            return original.getURL();
+        }
+        
+        @Override
+        public URI getURI() throws IOException {
+            return original.getURI();
+        }
+        
+        @Override
+        public File getFile() throws IOException {
+            return original.getFile();
+        }
+        
+        @Override
+        public Resource createRelative(String relativePath) throws IOException {
+            return original.createRelative(relativePath);
+        }
+        
+        @Override
+        public String getFilename() {
+            return original.getFilename();
+        }
+        
+        @Override
+        public String getDescription() {
+            return "gzipped " + original.getDescription();
+        }
+        
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            if (original instanceof HttpResource httpResource) {
+                headers.putAll(httpResource.getResponseHeaders());
+            }
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            return headers;
+        }
+    }
+}
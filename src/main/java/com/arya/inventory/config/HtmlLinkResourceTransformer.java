@@ -0,0 +1,52 @@
+package com.arya.inventory.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.resource.ResourceTransformerChain;
+import org.springframework.web.servlet.resource.ResourceTransformerSupport;
+import org.springframework.web.servlet.resource.TransformedResource;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Rewrites a page's src and href links to local scripts and stylesheets into the URLs their
+// resource handlers serve them under, i.e. with the content hash. Links to other sites and
+// anything that is not a .js or .css file are left alone.
+class HtmlLinkResourceTransformer extends ResourceTransformerSupport {
+    
+    private static final Pattern ASSET_LINK = Pattern.compile("(?:src|href)=\"([^\":?#]+\\.(?:js|css))\"");
+    
+    @Override
+    public Resource transform(HttpServletRequest request, Resource resource, ResourceTransformerChain chain)
+            throws IOException {
+        resource = chain.transform(request, resource);
+        if (!"html".equals(StringUtils.getFilenameExtension(resource.getFilename()))) {
+            return resource;
+        }
+        
+        String content = resource.getContentAsString(StandardCharsets.UTF_8);
+        Matcher matcher = ASSET_LINK.matcher(content);
+        StringBuilder rewritten = new StringBuilder(content.length());
+        int copied = 0;
+        while (matcher.find()) {
+            String link = matcher.group(1);
+            if (link.startsWith("//")) {
+                continue;
+            }
+            String resolved = resolveUrlPath(toAbsolutePath(link, request), request, resource, chain);
+            if (resolved != null) {
+                rewritten.append(content, copied, matcher.start(1)).append(resolved);
+                copied = matcher.end(1);
+            }
+        }
+        if (copied == 0) {
+            return resource;
+        }
+        rewritten.append(content, copied, content.length());
+        return new TransformedResource(resource, rewritten.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
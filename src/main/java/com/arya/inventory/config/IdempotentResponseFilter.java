@@ -0,0 +1,47 @@
+package com.arya.inventory.config;
+
+import java.io.IOException;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.arya.inventory.service.IdempotencyStore;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Captures the response to a request carrying an Idempotency-Key as it was written, after
+// content negotiation, and hands it to IdempotencyStore so retries get the same bytes back
+// in the same content type. Retries wait until this has run, not just for the controller.
+@Component
+public class IdempotentResponseFilter extends OncePerRequestFilter {
+    
+    private final IdempotencyStore idempotencyStore;
+    
+    public IdempotentResponseFilter(IdempotencyStore idempotencyStore) {
+        this.idempotencyStore = idempotencyStore;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(IdempotencyStore.HEADER) == null;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+        // An exception escaping the chain becomes an error response, which frees the key
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            filterChain.doFilter(request, captured);
+            status = captured.getStatus();
+        } finally {
+            idempotencyStore.complete(request, status, captured.getContentType(), captured.getContentAsByteArray());
+            captured.copyBodyToResponse();
+        }
+    }
+}
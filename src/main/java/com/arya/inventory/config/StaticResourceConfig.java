@@ -0,0 +1,45 @@
+package com.arya.inventory.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+// Caching for the web UI. Scripts and stylesheets are served under content-hash URLs
+// (app-<md5>.js) that are cached as immutable, gzipped once at the highest level for clients
+// that accept it. Pages are revalidated on every load, and their links to those assets are
+// rewritten to the hashed URLs, so a changed asset is picked up on the next page load.
+// API responses are compressed by the server (server.compression.*).
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+    
+    private static final String[] ASSET_DIRECTORIES = {"js", "css"};
+    
+    private final Duration assetMaxAge;
+    
+    public StaticResourceConfig(@Value("${inventory.static.asset-max-age:365d}") Duration assetMaxAge) {
+        this.assetMaxAge = assetMaxAge;
+    }
+    
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String directory : ASSET_DIRECTORIES) {
+            registry.addResourceHandler("/" + directory + "/**")
+                    .addResourceLocations("classpath:/static/" + directory + "/")
+                    .setCacheControl(CacheControl.maxAge(assetMaxAge.getSeconds(), TimeUnit.SECONDS).cachePublic().immutable())
+                    .resourceChain(true)
+                    .addResolver(new GzipResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+        registry.addResourceHandler("/*.html")
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(true)
+                .addTransformer(new HtmlLinkResourceTransformer());
+    }
+}
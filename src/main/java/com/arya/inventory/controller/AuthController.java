@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.arya.inventory.dto.LoginRequest;
 import com.arya.inventory.dto.LoginResponse;
 import com.arya.inventory.entity.User;
+import com.arya.inventory.metrics.MetricsRegistry;
 import com.arya.inventory.service.UserService;
 import com.arya.inventory.util.JwtUtil;
 
@@ -33,8 +34,12 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+    
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
+        long started = System.nanoTime();
         try {
             Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
@@ -44,9 +49,11 @@ public class AuthController {
             String token = jwtUtil.generateToken(user);
             
             LoginResponse response = new LoginResponse(token, user.getId(), user.getUsername(), user.getRole().name());
+            recordLogin(started, "success");
             return ResponseEntity.ok(response);
-            
+        
         } catch (Exception e) {
+            recordLogin(started, "error");
             e.printStackTrace(); // Add debugging
             return ResponseEntity.badRequest().body("Invalid username or password: " + e.getMessage());
         }
@@ -61,4 +68,9 @@ public class AuthController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+    
+    // Whole login; the password check inside it is also timed on its own as inventory_password_hash_seconds
+    private void recordLogin(long started, String outcome) {
+        metricsRegistry.timer("inventory_login_seconds", "Login request time", "outcome", outcome).recordSince(started);
+    }
 }
@@ -0,0 +1,53 @@
+package com.arya.inventory.controller;
+
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.arya.inventory.service.ChangeLog;
+
+// Conditional GET for catalog reads. The entity tag is the table's change version, taken
+// before the read, so a client holding the current tag gets a 304 without the read being
+// run at all. A response is only tagged if no write to the table finished while it was
+// being read; otherwise the same tag could label two different bodies. Tags are weak
+// because the server may gzip the body, and it leaves responses with strong tags uncompressed.
+// The body's format follows Accept (JSON or CBOR), which caches are told through Vary.
+final class ConditionalResponses {
+    
+    private ConditionalResponses() {}
+    
+    static <T> ResponseEntity<T> ifNoneMatch(String ifNoneMatch, String table, ChangeLog changes,
+                                             Supplier<ResponseEntity<T>> read) {
+        long version = changes.version();
+        String tag = "\"" + table + "-" + version + "\"";
+        String etag = "W/" + tag;
+        if (matches(ifNoneMatch, tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        ResponseEntity<T> response = read.get();
+        if (!response.getStatusCode().is2xxSuccessful() || changes.version() != version) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT).body(response.getBody());
+    }
+    
+    // If-None-Match compares weakly and may list several tags
+    private static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String candidateTag = candidate.trim();
+            if (candidateTag.startsWith("W/")) {
+                candidateTag = candidateTag.substring(2);
+            }
+            if (candidateTag.equals("*") || candidateTag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,30 @@
+package com.arya.inventory.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+
+import com.arya.inventory.dto.KeysetPage;
+import com.arya.inventory.dto.TablePage;
+
+// List endpoints keep returning a plain JSON array; the cursor for the next page travels in a
+// header, which clients that need the whole list follow until it is absent
+final class KeysetResponses {
+    
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    
+    private KeysetResponses() {}
+    
+    static <T> ResponseEntity<List<T>> ok(KeysetPage<T> page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return builder.body(page.getItems());
+    }
+    
+    static <T> ResponseEntity<List<T>> ok(TablePage<T> page) {
+        return ResponseEntity.ok().header(TOTAL_COUNT_HEADER, Long.toString(page.getTotal())).body(page.getItems());
+    }
+}
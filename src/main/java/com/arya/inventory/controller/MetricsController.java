@@ -0,0 +1,29 @@
+package com.arya.inventory.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.arya.inventory.metrics.MetricsRegistry;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+    
+    private static final MediaType PROMETHEUS_TEXT = MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8");
+    
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+    
+    // Prometheus text exposition format. Scrapers send inventory.metrics.scrape-token as
+    // their bearer token, since user JWTs expire; a logged-in user's JWT works as well.
+    @GetMapping
+    public ResponseEntity<String> scrape() {
+        StringBuilder body = new StringBuilder(16 * 1024);
+        metricsRegistry.writePrometheus(body);
+        return ResponseEntity.ok().contentType(PROMETHEUS_TEXT).body(body.toString());
+    }
+}
@@ -1,9 +1,9 @@
 package com.arya.inventory.controller;
 
 import java.util.List;
-import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,11 +12,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.arya.inventory.dto.ChangeSet;
+import com.arya.inventory.dto.KeysetPage;
+import com.arya.inventory.dto.ProductResponse;
 import com.arya.inventory.entity.Product;
+import com.arya.inventory.service.CatalogChanges;
 import com.arya.inventory.service.ProductService;
 
 import jakarta.validation.Valid;
@@ -26,58 +31,116 @@ import jakarta.validation.Valid;
 @CrossOrigin(origins = "*")
 public class ProductController {
     
+    private static final String TABLE = "products";
+    
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private CatalogChanges catalogChanges;
+    
+    // Reads carry an ETag for the products table's change version and answer a matching
+    // If-None-Match with 304
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductResponse>> getAllProducts(
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.products(), () ->
+                KeysetResponses.ok(productService.getAllProducts(after, limit).map(ProductResponse::from)));
+    }
+    
+    // Sorted pages by number for tables that scroll anywhere in the list; the total row
+    // count is in the X-Total-Count header
+    @GetMapping("/table")
+    public ResponseEntity<?> getProductTable(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.products(), () ->
+                    KeysetResponses.ok(productService.getProductTable(category, name, page, limit, sort, direction)
+                            .map(ProductResponse::from)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    // Products written or deleted since sinceVersion, the version of an earlier response;
+    // a reset asks the client to reload the list
+    @GetMapping("/changes")
+    public ResponseEntity<ChangeSet<ProductResponse>> getProductChanges(@RequestParam(defaultValue = "-1") Long sinceVersion) {
+        return ResponseEntity.ok(productService.getChanges(sinceVersion).map(ProductResponse::from));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Optional<Product> product = productService.getProductById(id);
-        return product.map(ResponseEntity::ok)
-                     .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<ProductResponse> getProductById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.products(), () ->
+                productService.getProductById(id).map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
     
     @GetMapping("/sku/{sku}")
-    public ResponseEntity<Product> getProductBySku(@PathVariable String sku) {
-        Optional<Product> product = productService.getProductBySku(sku);
-        return product.map(ResponseEntity::ok)
-                     .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<ProductResponse> getProductBySku(
+            @PathVariable String sku,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.products(), () ->
+                productService.getProductBySku(sku).map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
     
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
-        List<Product> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductResponse>> getProductsByCategory(
+            @PathVariable String category,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.products(), () ->
+                KeysetResponses.ok(productService.getProductsByCategory(category, after, limit).map(ProductResponse::from)));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String name) {
-        List<Product> products = productService.searchProductsByName(name);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductResponse>> searchProducts(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "" + KeysetPage.DEFAULT_SEARCH_LIMIT) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.products(), () -> {
+            List<Product> products = productService.searchProductsByName(name, KeysetPage.clamp(limit));
+            return ResponseEntity.ok(products.stream().map(ProductResponse::from).toList());
+        });
     }
     
     @GetMapping("/low-stock")
-    public ResponseEntity<List<Product>> getLowStockProducts(@RequestParam(defaultValue = "10") Integer threshold) {
-        List<Product> products = productService.getLowStockProducts(threshold);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductResponse>> getLowStockProducts(
+            @RequestParam(defaultValue = "10") Integer threshold,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.products(), () ->
+                KeysetResponses.ok(productService.getLowStockProducts(threshold, after, limit).map(ProductResponse::from)));
     }
     
     @GetMapping("/supplier/{supplierId}")
-    public ResponseEntity<List<Product>> getProductsBySupplier(@PathVariable Long supplierId) {
-        List<Product> products = productService.getProductsBySupplier(supplierId);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductResponse>> getProductsBySupplier(
+            @PathVariable Long supplierId,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.products(), () ->
+                KeysetResponses.ok(productService.getProductsBySupplier(supplierId, after, limit).map(ProductResponse::from)));
     }
     
     @PostMapping
     public ResponseEntity<?> createProduct(@Valid @RequestBody Product product) {
         try {
             Product createdProduct = productService.createProduct(product);
-            return ResponseEntity.ok(createdProduct);
+            return ResponseEntity.ok(ProductResponse.from(createdProduct));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -88,7 +151,7 @@ public class ProductController {
         try {
             product.setId(id);
             Product updatedProduct = productService.updateProduct(product);
-            return ResponseEntity.ok(updatedProduct);
+            return ResponseEntity.ok(ProductResponse.from(updatedProduct));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -98,7 +161,7 @@ public class ProductController {
     public ResponseEntity<?> updateStock(@PathVariable Long id, @RequestParam Integer quantityChange) {
         try {
             Product updatedProduct = productService.updateStock(id, quantityChange);
-            return ResponseEntity.ok(updatedProduct);
+            return ResponseEntity.ok(ProductResponse.from(updatedProduct));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
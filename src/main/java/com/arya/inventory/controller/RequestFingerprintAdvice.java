@@ -0,0 +1,66 @@
+package com.arya.inventory.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import com.arya.inventory.service.IdempotencyStore;
+
+// Digests the raw body of requests that carry an Idempotency-Key while it is being read,
+// so a retry is matched on the bytes the client sent rather than on the bound entity
+// (whose constructors fill in server-side defaults such as the transaction date)
+@ControllerAdvice
+public class RequestFingerprintAdvice extends RequestBodyAdviceAdapter {
+    
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+    
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) throws IOException {
+        if (!inputMessage.getHeaders().containsKey(IdempotencyStore.HEADER)) {
+            return inputMessage;
+        }
+        MessageDigest digest = IdempotencyStore.newDigest();
+        InputStream body = new DigestInputStream(inputMessage.getBody(), digest);
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(IdempotencyStore.FINGERPRINT_ATTRIBUTE, digest, RequestAttributes.SCOPE_REQUEST);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return body;
+            }
+            
+            @Override
+            public HttpHeaders getHeaders() {
+                return inputMessage.getHeaders();
+            }
+        };
+    }
+    
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        // Swap the running digest for its result now that the converter has read the body
+        RequestAttributes attributes = RequestContextHolder.currentRequestAttributes();
+        Object digest = attributes.getAttribute(IdempotencyStore.FINGERPRINT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (digest instanceof MessageDigest running) {
+            attributes.setAttribute(IdempotencyStore.FINGERPRINT_ATTRIBUTE, running.digest(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return body;
+    }
+}
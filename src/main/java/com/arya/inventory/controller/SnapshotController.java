@@ -0,0 +1,31 @@
+package com.arya.inventory.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.arya.inventory.dto.SnapshotReport;
+import com.arya.inventory.journal.SnapshotManager;
+
+@RestController
+@RequestMapping("/api/snapshot")
+@CrossOrigin(origins = "*")
+public class SnapshotController {
+    
+    @Autowired
+    private SnapshotManager snapshotManager;
+    
+    // Writes the snapshot file on the server (inventory.snapshot.file); the body only reports on it
+    @PostMapping
+    public ResponseEntity<?> dump() {
+        try {
+            SnapshotReport report = snapshotManager.dump();
+            return ResponseEntity.ok(report);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
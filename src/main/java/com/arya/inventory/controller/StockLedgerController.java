@@ -0,0 +1,58 @@
+package com.arya.inventory.controller;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.arya.inventory.dto.LedgerCheckReport;
+import com.arya.inventory.entity.StockLedgerEntry;
+import com.arya.inventory.service.StockLedgerService;
+
+@RestController
+@RequestMapping("/api/ledger")
+@CrossOrigin(origins = "*")
+public class StockLedgerController {
+    
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    
+    @GetMapping("/product/{productId}")
+    public ResponseEntity<List<StockLedgerEntry>> getEntries(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(stockLedgerService.getEntries(productId, after, limit));
+    }
+    
+    @GetMapping("/product/{productId}/stock")
+    public ResponseEntity<Long> getQuantityAt(
+            @PathVariable Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(stockLedgerService.getQuantityAt(productId, at != null ? at : LocalDateTime.now()));
+    }
+    
+    @GetMapping("/check")
+    public ResponseEntity<LedgerCheckReport> check() {
+        return ResponseEntity.ok(stockLedgerService.check());
+    }
+    
+    @PostMapping("/replay")
+    public ResponseEntity<Integer> replay() {
+        return ResponseEntity.ok(stockLedgerService.replay());
+    }
+    
+    @PostMapping("/snapshots")
+    public ResponseEntity<Integer> takeSnapshots() {
+        return ResponseEntity.ok(stockLedgerService.takeSnapshots(1));
+    }
+}
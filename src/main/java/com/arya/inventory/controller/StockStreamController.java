@@ -0,0 +1,32 @@
+package com.arya.inventory.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.arya.inventory.service.StockEventService;
+
+@RestController
+@RequestMapping("/api/stream")
+@CrossOrigin(origins = "*")
+public class StockStreamController {
+    
+    @Autowired
+    private StockEventService stockEventService;
+    
+    // Live "stock" and "transaction" events; all filters are optional and combine with AND
+    @GetMapping(value = "/stock", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStock(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) List<Long> productIds,
+            @RequestParam(required = false) Integer lowStockThreshold) {
+        return stockEventService.subscribe(category, productIds, lowStockThreshold);
+    }
+}
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,11 +13,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.arya.inventory.dto.ChangeSet;
+import com.arya.inventory.dto.KeysetPage;
+import com.arya.inventory.dto.SupplierResponse;
 import com.arya.inventory.entity.Supplier;
+import com.arya.inventory.service.CatalogChanges;
 import com.arya.inventory.service.SupplierService;
 
 import jakarta.validation.Valid;
@@ -26,54 +32,94 @@ import jakarta.validation.Valid;
 @CrossOrigin(origins = "*")
 public class SupplierController {
     
+    private static final String TABLE = "suppliers";
+    
     @Autowired
     private SupplierService supplierService;
     
+    @Autowired
+    private CatalogChanges catalogChanges;
+    
+    // Reads carry an ETag for the suppliers table's change version, like product reads
     @GetMapping
-    public ResponseEntity<List<Supplier>> getAllSuppliers() {
-        List<Supplier> suppliers = supplierService.getAllSuppliers();
-        return ResponseEntity.ok(suppliers);
+    public ResponseEntity<List<SupplierResponse>> getAllSuppliers(
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.suppliers(), () ->
+                KeysetResponses.ok(supplierService.getAllSuppliers(after, limit).map(SupplierResponse::from)));
+    }
+    
+    @GetMapping("/table")
+    public ResponseEntity<?> getSupplierTable(
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.suppliers(), () ->
+                    KeysetResponses.ok(supplierService.getSupplierTable(name, page, limit, sort, direction)
+                            .map(SupplierResponse::from)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    @GetMapping("/changes")
+    public ResponseEntity<ChangeSet<SupplierResponse>> getSupplierChanges(@RequestParam(defaultValue = "-1") Long sinceVersion) {
+        return ResponseEntity.ok(supplierService.getChanges(sinceVersion).map(SupplierResponse::from));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Supplier> getSupplierById(@PathVariable Long id) {
-        Optional<Supplier> supplier = supplierService.getSupplierById(id);
-        return supplier.map(ResponseEntity::ok)
-                      .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<SupplierResponse> getSupplierById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.suppliers(), () ->
+                found(supplierService.getSupplierById(id)));
     }
     
     @GetMapping("/name/{name}")
-    public ResponseEntity<Supplier> getSupplierByName(@PathVariable String name) {
-        Optional<Supplier> supplier = supplierService.getSupplierByName(name);
-        return supplier.map(ResponseEntity::ok)
-                      .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<SupplierResponse> getSupplierByName(
+            @PathVariable String name,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.suppliers(), () ->
+                found(supplierService.getSupplierByName(name)));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<Supplier>> searchSuppliers(@RequestParam String name) {
-        List<Supplier> suppliers = supplierService.searchSuppliersByName(name);
-        return ResponseEntity.ok(suppliers);
+    public ResponseEntity<List<SupplierResponse>> searchSuppliers(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "" + KeysetPage.DEFAULT_SEARCH_LIMIT) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.suppliers(), () -> {
+            List<Supplier> suppliers = supplierService.searchSuppliersByName(name, KeysetPage.clamp(limit));
+            return ResponseEntity.ok(suppliers.stream().map(SupplierResponse::from).toList());
+        });
     }
     
     @GetMapping("/email/{email}")
-    public ResponseEntity<Supplier> getSupplierByEmail(@PathVariable String email) {
-        Optional<Supplier> supplier = supplierService.getSupplierByEmail(email);
-        return supplier.map(ResponseEntity::ok)
-                      .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<SupplierResponse> getSupplierByEmail(
+            @PathVariable String email,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.suppliers(), () ->
+                found(supplierService.getSupplierByEmail(email)));
     }
     
     @GetMapping("/phone/{phone}")
-    public ResponseEntity<Supplier> getSupplierByPhone(@PathVariable String phone) {
-        Optional<Supplier> supplier = supplierService.getSupplierByPhone(phone);
-        return supplier.map(ResponseEntity::ok)
-                      .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<SupplierResponse> getSupplierByPhone(
+            @PathVariable String phone,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.ifNoneMatch(ifNoneMatch, TABLE, catalogChanges.suppliers(), () ->
+                found(supplierService.getSupplierByPhone(phone)));
     }
     
     @PostMapping
     public ResponseEntity<?> createSupplier(@Valid @RequestBody Supplier supplier) {
         try {
             Supplier createdSupplier = supplierService.createSupplier(supplier);
-            return ResponseEntity.ok(createdSupplier);
+            return ResponseEntity.ok(SupplierResponse.from(createdSupplier));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -84,7 +130,7 @@ public class SupplierController {
         try {
             supplier.setId(id);
             Supplier updatedSupplier = supplierService.updateSupplier(supplier);
-            return ResponseEntity.ok(updatedSupplier);
+            return ResponseEntity.ok(SupplierResponse.from(updatedSupplier));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -99,4 +145,10 @@ public class SupplierController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+    
+    private static ResponseEntity<SupplierResponse> found(Optional<Supplier> supplier) {
+        return supplier.map(SupplierResponse::from)
+                      .map(ResponseEntity::ok)
+                      .orElse(ResponseEntity.notFound().build());
+    }
 }
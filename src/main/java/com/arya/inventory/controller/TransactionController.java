@@ -1,11 +1,21 @@
 package com.arya.inventory.controller;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,13 +23,22 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.arya.inventory.dto.TransactionResponse;
+import com.arya.inventory.entity.DailyStockFlow;
 import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.service.IdempotencyStore;
+import com.arya.inventory.service.StockFlowService;
+import com.arya.inventory.service.TransactionExportService;
 import com.arya.inventory.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @RestController
@@ -30,64 +49,138 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
     
+    @Autowired
+    private TransactionExportService transactionExportService;
+    
+    @Autowired
+    private StockFlowService stockFlowService;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @GetMapping
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
-        List<Transaction> transactions = transactionService.getAllTransactions();
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<TransactionResponse>> getAllTransactions(
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(transactionService.getAllTransactions(after, limit).map(TransactionResponse::from));
+    }
+    
+    @GetMapping("/table")
+    public ResponseEntity<?> getTransactionTable(
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction) {
+        try {
+            return KeysetResponses.ok(transactionService.getTransactionTable(page, limit, sort, direction)
+                    .map(TransactionResponse::from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Transaction> getTransactionById(@PathVariable Long id) {
+    public ResponseEntity<TransactionResponse> getTransactionById(@PathVariable Long id) {
         Optional<Transaction> transaction = transactionService.getTransactionById(id);
-        return transaction.map(ResponseEntity::ok)
+        return transaction.map(TransactionResponse::from)
+                         .map(ResponseEntity::ok)
                          .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/product/{productId}")
-    public ResponseEntity<List<Transaction>> getTransactionsByProduct(@PathVariable Long productId) {
-        List<Transaction> transactions = transactionService.getTransactionsByProduct(productId);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<TransactionResponse>> getTransactionsByProduct(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(transactionService.getTransactionsByProduct(productId, after, limit).map(TransactionResponse::from));
     }
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Transaction>> getTransactionsByUser(@PathVariable Long userId) {
-        List<Transaction> transactions = transactionService.getTransactionsByUser(userId);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<TransactionResponse>> getTransactionsByUser(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(transactionService.getTransactionsByUser(userId, after, limit).map(TransactionResponse::from));
     }
     
     @GetMapping("/type/{type}")
-    public ResponseEntity<List<Transaction>> getTransactionsByType(@PathVariable Transaction.TransactionType type) {
-        List<Transaction> transactions = transactionService.getTransactionsByType(type);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<TransactionResponse>> getTransactionsByType(
+            @PathVariable Transaction.TransactionType type,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(transactionService.getTransactionsByType(type, after, limit).map(TransactionResponse::from));
     }
     
     @GetMapping("/date-range")
-    public ResponseEntity<List<Transaction>> getTransactionsByDateRange(
+    public ResponseEntity<List<TransactionResponse>> getTransactionsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<Transaction> transactions = transactionService.getTransactionsByDateRange(startDate, endDate);
-        return ResponseEntity.ok(transactions);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(transactionService.getTransactionsByDateRange(startDate, endDate, after, limit).map(TransactionResponse::from));
+    }
+    
+    @GetMapping("/export")
+    public void exportTransactions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        TransactionExportService.Format exportFormat;
+        try {
+            exportFormat = TransactionExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported export format: " + format);
+            return;
+        }
+        
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"transactions." + exportFormat.getExtension() + (gzip ? ".gz" : "") + "\"");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            out = new GZIPOutputStream(out, 8192);
+        }
+        transactionExportService.exportByDateRange(startDate, endDate, exportFormat, out);
+        if (out instanceof GZIPOutputStream gzipOut) {
+            gzipOut.finish();
+        }
+        out.flush();
     }
     
     @GetMapping("/product/{productId}/date-range")
-    public ResponseEntity<List<Transaction>> getTransactionsByProductAndDateRange(
+    public ResponseEntity<List<TransactionResponse>> getTransactionsByProductAndDateRange(
             @PathVariable Long productId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<Transaction> transactions = transactionService.getTransactionsByProductAndDateRange(productId, startDate, endDate);
-        return ResponseEntity.ok(transactions);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(transactionService.getTransactionsByProductAndDateRange(productId, startDate, endDate, after, limit).map(TransactionResponse::from));
     }
     
     @GetMapping("/batch/{batchNumber}")
-    public ResponseEntity<List<Transaction>> getTransactionsByBatchNumber(@PathVariable String batchNumber) {
-        List<Transaction> transactions = transactionService.getTransactionsByBatchNumber(batchNumber);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<TransactionResponse>> getTransactionsByBatchNumber(
+            @PathVariable String batchNumber,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(transactionService.getTransactionsByBatchNumber(batchNumber, after, limit).map(TransactionResponse::from));
     }
     
     @GetMapping("/lot/{lotNumber}")
-    public ResponseEntity<List<Transaction>> getTransactionsByLotNumber(@PathVariable String lotNumber) {
-        List<Transaction> transactions = transactionService.getTransactionsByLotNumber(lotNumber);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<TransactionResponse>> getTransactionsByLotNumber(
+            @PathVariable String lotNumber,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(transactionService.getTransactionsByLotNumber(lotNumber, after, limit).map(TransactionResponse::from));
     }
     
     @GetMapping("/product/{productId}/type/{type}/total")
@@ -98,14 +191,69 @@ public class TransactionController {
         return ResponseEntity.ok(total);
     }
     
+    @GetMapping("/product/{productId}/type/{type}/total/range")
+    public ResponseEntity<Long> getTotalQuantityByProductAndTypeInRange(
+            @PathVariable Long productId, 
+            @PathVariable Transaction.TransactionType type,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(stockFlowService.getTotalQuantity(productId, type, startDate, endDate));
+    }
+    
+    @GetMapping("/product/{productId}/daily-flow")
+    public ResponseEntity<List<DailyStockFlow>> getDailyStockFlow(
+            @PathVariable Long productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(stockFlowService.getDailyFlow(productId, startDate, endDate));
+    }
+    
+    @PostMapping("/daily-flow/rebuild")
+    public ResponseEntity<Integer> rebuildDailyStockFlow() {
+        return ResponseEntity.ok(stockFlowService.rebuild());
+    }
+    
+    // A retry with the same Idempotency-Key returns the first response instead of booking again
     @PostMapping
-    public ResponseEntity<?> createTransaction(@Valid @RequestBody Transaction transaction) {
-        try {
-            Transaction createdTransaction = transactionService.createTransaction(transaction);
-            return ResponseEntity.ok(createdTransaction);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+    public ResponseEntity<?> createTransaction(@Valid @RequestBody Transaction transaction,
+                                               @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute(idempotencyKey, "POST /api/transactions", () -> {
+            try {
+                Transaction createdTransaction = transactionService.createTransaction(transaction);
+                return ResponseEntity.ok(TransactionResponse.from(createdTransaction));
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+    
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> createTransactions(@RequestBody List<Transaction> transactions,
+                                                @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute(idempotencyKey, "POST /api/transactions/batch",
+                () -> ResponseEntity.ok(transactionService.createTransactions(transactions)));
+    }
+    
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> createTransactionsFromNdjson(HttpServletRequest request,
+                                                          @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        List<Transaction> transactions = new ArrayList<>();
+        MessageDigest fingerprint = IdempotencyStore.newDigest();
+        try (BufferedReader reader = request.getReader()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    fingerprint.update(line.getBytes(StandardCharsets.UTF_8));
+                    fingerprint.update((byte) '\n');
+                    transactions.add(objectMapper.readValue(line, Transaction.class));
+                }
+            }
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Invalid NDJSON at item " + (transactions.size() + 1) + ": " + e.getMessage());
         }
+        request.setAttribute(IdempotencyStore.FINGERPRINT_ATTRIBUTE, fingerprint.digest());
+        return idempotencyStore.execute(idempotencyKey, "POST /api/transactions/batch",
+                () -> ResponseEntity.ok(transactionService.createTransactions(transactions)));
     }
     
     @DeleteMapping("/{id}")
@@ -0,0 +1,63 @@
+package com.arya.inventory.dto;
+
+public class BatchTransactionResult {
+    private int index;
+    private boolean success;
+    private Long transactionId;
+    private Long productId;
+    private String error;
+    
+    public BatchTransactionResult() {}
+    
+    public BatchTransactionResult(int index, boolean success, Long transactionId, Long productId, String error) {
+        this.index = index;
+        this.success = success;
+        this.transactionId = transactionId;
+        this.productId = productId;
+        this.error = error;
+    }
+    
+    public static BatchTransactionResult failed(int index, Long productId, String error) {
+        return new BatchTransactionResult(index, false, null, productId, error);
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public boolean isSuccess() {
+        return success;
+    }
+    
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+    
+    public Long getTransactionId() {
+        return transactionId;
+    }
+    
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,64 @@
+package com.arya.inventory.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Rows written and ids deleted since a client's version. version is what the client sends
+// next time; reset means the server can no longer tell what changed since the client's
+// version, so the client reloads the list and keeps the new version.
+public class ChangeSet<T> {
+    
+    private long version;
+    private boolean reset;
+    private List<T> updated;
+    private List<Long> deleted;
+    
+    public ChangeSet() {}
+    
+    public ChangeSet(long version, boolean reset, List<T> updated, List<Long> deleted) {
+        this.version = version;
+        this.reset = reset;
+        this.updated = updated;
+        this.deleted = deleted;
+    }
+    
+    public static <T> ChangeSet<T> reset(long version) {
+        return new ChangeSet<>(version, true, List.of(), List.of());
+    }
+    
+    public <R> ChangeSet<R> map(Function<T, R> mapper) {
+        return new ChangeSet<>(version, reset, updated.stream().map(mapper).toList(), deleted);
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
+    public boolean isReset() {
+        return reset;
+    }
+    
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+    
+    public List<T> getUpdated() {
+        return updated;
+    }
+    
+    public void setUpdated(List<T> updated) {
+        this.updated = updated;
+    }
+    
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+    
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+}
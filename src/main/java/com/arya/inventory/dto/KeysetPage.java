@@ -0,0 +1,66 @@
+package com.arya.inventory.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+// One page of an id-ordered list; nextCursor is the "after" value for the following page
+public class KeysetPage<T> {
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 1000;
+    public static final int DEFAULT_SEARCH_LIMIT = 50;
+    
+    private List<T> items;
+    private Long nextCursor;
+    
+    public KeysetPage() {}
+    
+    public KeysetPage(List<T> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    public static int clamp(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+    
+    // Fetches one row past the limit so we know whether another page exists
+    public static Pageable request(Integer limit) {
+        return PageRequest.of(0, clamp(limit) + 1);
+    }
+    
+    public static <T> KeysetPage<T> of(List<T> rows, Integer limit, Function<T, Long> idGetter) {
+        int size = clamp(limit);
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new KeysetPage<>(items, idGetter.apply(items.get(size - 1)));
+    }
+    
+    // Same page and cursor with each item converted, e.g. entities to response models
+    public <R> KeysetPage<R> map(Function<T, R> mapper) {
+        return new KeysetPage<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+    
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,31 @@
+package com.arya.inventory.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LedgerCheckReport {
+    private long productsChecked;
+    private List<LedgerDiscrepancy> discrepancies = new ArrayList<>();
+    
+    public LedgerCheckReport() {}
+    
+    public boolean isConsistent() {
+        return discrepancies.isEmpty();
+    }
+    
+    public long getProductsChecked() {
+        return productsChecked;
+    }
+    
+    public void setProductsChecked(long productsChecked) {
+        this.productsChecked = productsChecked;
+    }
+    
+    public List<LedgerDiscrepancy> getDiscrepancies() {
+        return discrepancies;
+    }
+    
+    public void setDiscrepancies(List<LedgerDiscrepancy> discrepancies) {
+        this.discrepancies = discrepancies;
+    }
+}
@@ -0,0 +1,50 @@
+package com.arya.inventory.dto;
+
+// A product whose stored quantity differs from the one its stock ledger adds up to
+public class LedgerDiscrepancy {
+    private Long productId;
+    private String sku;
+    private Integer storedQty;
+    private Long ledgerQty;
+    
+    public LedgerDiscrepancy() {}
+    
+    public LedgerDiscrepancy(Long productId, String sku, Integer storedQty, Long ledgerQty) {
+        this.productId = productId;
+        this.sku = sku;
+        this.storedQty = storedQty;
+        this.ledgerQty = ledgerQty;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public String getSku() {
+        return sku;
+    }
+    
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+    
+    public Integer getStoredQty() {
+        return storedQty;
+    }
+    
+    public void setStoredQty(Integer storedQty) {
+        this.storedQty = storedQty;
+    }
+    
+    public Long getLedgerQty() {
+        return ledgerQty;
+    }
+    
+    public void setLedgerQty(Long ledgerQty) {
+        this.ledgerQty = ledgerQty;
+    }
+}
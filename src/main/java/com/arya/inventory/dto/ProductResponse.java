@@ -0,0 +1,129 @@
+package com.arya.inventory.dto;
+
+import java.math.BigDecimal;
+
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.Supplier;
+
+// Read model for product endpoints: scalar columns plus the supplier's id and name,
+// never the lazy transactions collection
+public class ProductResponse {
+    private Long id;
+    private String name;
+    private String sku;
+    private String category;
+    private BigDecimal price;
+    private Integer qty;
+    private String description;
+    private SupplierRef supplier;
+    
+    public ProductResponse() {}
+    
+    public static ProductResponse from(Product product) {
+        ProductResponse response = new ProductResponse();
+        response.id = product.getId();
+        response.name = product.getName();
+        response.sku = product.getSku();
+        response.category = product.getCategory();
+        response.price = product.getPrice();
+        response.qty = product.getQty();
+        response.description = product.getDescription();
+        Supplier supplier = product.getSupplier();
+        if (supplier != null) {
+            response.supplier = new SupplierRef(supplier.getId(), supplier.getName());
+        }
+        return response;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getSku() {
+        return sku;
+    }
+    
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+    
+    public Integer getQty() {
+        return qty;
+    }
+    
+    public void setQty(Integer qty) {
+        this.qty = qty;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public SupplierRef getSupplier() {
+        return supplier;
+    }
+    
+    public void setSupplier(SupplierRef supplier) {
+        this.supplier = supplier;
+    }
+    
+    public static class SupplierRef {
+        private Long id;
+        private String name;
+        
+        public SupplierRef() {}
+        
+        public SupplierRef(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+        
+        public Long getId() {
+            return id;
+        }
+        
+        public void setId(Long id) {
+            this.id = id;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.arya.inventory.dto;
+
+public class SnapshotReport {
+    private String file;
+    private long rows;
+    private long bytes;
+    private long millis;
+    
+    public SnapshotReport() {}
+    
+    public SnapshotReport(String file, long rows, long bytes, long millis) {
+        this.file = file;
+        this.rows = rows;
+        this.bytes = bytes;
+        this.millis = millis;
+    }
+    
+    public String getFile() {
+        return file;
+    }
+    
+    public void setFile(String file) {
+        this.file = file;
+    }
+    
+    public long getRows() {
+        return rows;
+    }
+    
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+    
+    public long getBytes() {
+        return bytes;
+    }
+    
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+    
+    public long getMillis() {
+        return millis;
+    }
+    
+    public void setMillis(long millis) {
+        this.millis = millis;
+    }
+}
@@ -0,0 +1,120 @@
+package com.arya.inventory.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Pushed to /api/stream/stock subscribers; "stock" events carry the product's current
+// level, "transaction" events additionally describe the movement that caused it
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockEvent {
+    public static final String STOCK = "stock";
+    public static final String TRANSACTION = "transaction";
+    
+    private String event;
+    private Long productId;
+    private String sku;
+    private String name;
+    private String category;
+    private Integer qty;
+    private Long transactionId;
+    private String transactionType;
+    private Integer transactionQty;
+    private Long userId;
+    private LocalDateTime date;
+    
+    public StockEvent() {}
+    
+    public StockEvent(String event, Long productId) {
+        this.event = event;
+        this.productId = productId;
+    }
+    
+    public String getEvent() {
+        return event;
+    }
+    
+    public void setEvent(String event) {
+        this.event = event;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public String getSku() {
+        return sku;
+    }
+    
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public Integer getQty() {
+        return qty;
+    }
+    
+    public void setQty(Integer qty) {
+        this.qty = qty;
+    }
+    
+    public Long getTransactionId() {
+        return transactionId;
+    }
+    
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+    
+    public String getTransactionType() {
+        return transactionType;
+    }
+    
+    public void setTransactionType(String transactionType) {
+        this.transactionType = transactionType;
+    }
+    
+    public Integer getTransactionQty() {
+        return transactionQty;
+    }
+    
+    public void setTransactionQty(Integer transactionQty) {
+        this.transactionQty = transactionQty;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public LocalDateTime getDate() {
+        return date;
+    }
+    
+    public void setDate(LocalDateTime date) {
+        this.date = date;
+    }
+}
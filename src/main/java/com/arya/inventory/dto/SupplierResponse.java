@@ -0,0 +1,84 @@
+package com.arya.inventory.dto;
+
+import com.arya.inventory.entity.Supplier;
+
+// Read model for supplier endpoints; the products collection is served by /api/products/supplier/{id}
+public class SupplierResponse {
+    private Long id;
+    private String name;
+    private String contact;
+    private String history;
+    private String address;
+    private String email;
+    private String phone;
+    
+    public SupplierResponse() {}
+    
+    public static SupplierResponse from(Supplier supplier) {
+        SupplierResponse response = new SupplierResponse();
+        response.id = supplier.getId();
+        response.name = supplier.getName();
+        response.contact = supplier.getContact();
+        response.history = supplier.getHistory();
+        response.address = supplier.getAddress();
+        response.email = supplier.getEmail();
+        response.phone = supplier.getPhone();
+        return response;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getContact() {
+        return contact;
+    }
+    
+    public void setContact(String contact) {
+        this.contact = contact;
+    }
+    
+    public String getHistory() {
+        return history;
+    }
+    
+    public void setHistory(String history) {
+        this.history = history;
+    }
+    
+    public String getAddress() {
+        return address;
+    }
+    
+    public void setAddress(String address) {
+        this.address = address;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public void setEmail(String email) {
+        this.email = email;
+    }
+    
+    public String getPhone() {
+        return phone;
+    }
+    
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+}
@@ -0,0 +1,64 @@
+package com.arya.inventory.dto;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+// One page of a sorted list addressed by page number, for table views that jump to any
+// scroll position; total is the size of the whole list so the client can size its scrollbar
+public class TablePage<T> {
+    
+    private List<T> items;
+    private long total;
+    
+    public TablePage() {}
+    
+    public TablePage(List<T> items, long total) {
+        this.items = items;
+        this.total = total;
+    }
+    
+    // Sorts on one of the allowed properties, then by id so rows with equal values keep
+    // the same order from one page request to the next
+    public static Pageable request(Integer page, Integer limit, String sort, String direction, Set<String> sortable) {
+        if (page == null || page < 0) {
+            throw new IllegalArgumentException("page must be zero or more");
+        }
+        if (!sortable.contains(sort)) {
+            throw new IllegalArgumentException("Cannot sort by " + sort + "; use one of " + sortable);
+        }
+        Sort.Direction order = Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new IllegalArgumentException("direction must be asc or desc"));
+        Sort by = "id".equals(sort) ? Sort.by(order, "id") : Sort.by(order, sort).and(Sort.by("id"));
+        return PageRequest.of(page, KeysetPage.clamp(limit), by);
+    }
+    
+    public static <T> TablePage<T> of(Page<T> page) {
+        return new TablePage<>(page.getContent(), page.getTotalElements());
+    }
+    
+    public <R> TablePage<R> map(Function<T, R> mapper) {
+        return new TablePage<>(items.stream().map(mapper).toList(), total);
+    }
+    
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public long getTotal() {
+        return total;
+    }
+    
+    public void setTotal(long total) {
+        this.total = total;
+    }
+}
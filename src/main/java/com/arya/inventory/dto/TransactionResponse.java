@@ -0,0 +1,197 @@
+package com.arya.inventory.dto;
+
+import java.time.LocalDateTime;
+
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.entity.User;
+
+// Read model for transaction endpoints. Product and user are reduced to identifying fields,
+// which list queries fetch in the same statement, and the user's password hash is never exposed.
+public class TransactionResponse {
+    private Long id;
+    private ProductRef product;
+    private Integer qty;
+    private Transaction.TransactionType type;
+    private LocalDateTime date;
+    private UserRef user;
+    private String notes;
+    private String batchNumber;
+    private String lotNumber;
+    private LocalDateTime expiryDate;
+    private LocalDateTime manufacturingDate;
+    
+    public TransactionResponse() {}
+    
+    public static TransactionResponse from(Transaction transaction) {
+        TransactionResponse response = new TransactionResponse();
+        response.id = transaction.getId();
+        Product product = transaction.getProduct();
+        response.product = new ProductRef(product.getId(), product.getSku(), product.getName());
+        response.qty = transaction.getQty();
+        response.type = transaction.getType();
+        response.date = transaction.getDate();
+        User user = transaction.getUser();
+        response.user = new UserRef(user.getId(), user.getUsername());
+        response.notes = transaction.getNotes();
+        response.batchNumber = transaction.getBatchNumber();
+        response.lotNumber = transaction.getLotNumber();
+        response.expiryDate = transaction.getExpiryDate();
+        response.manufacturingDate = transaction.getManufacturingDate();
+        return response;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public ProductRef getProduct() {
+        return product;
+    }
+    
+    public void setProduct(ProductRef product) {
+        this.product = product;
+    }
+    
+    public Integer getQty() {
+        return qty;
+    }
+    
+    public void setQty(Integer qty) {
+        this.qty = qty;
+    }
+    
+    public Transaction.TransactionType getType() {
+        return type;
+    }
+    
+    public void setType(Transaction.TransactionType type) {
+        this.type = type;
+    }
+    
+    public LocalDateTime getDate() {
+        return date;
+    }
+    
+    public void setDate(LocalDateTime date) {
+        this.date = date;
+    }
+    
+    public UserRef getUser() {
+        return user;
+    }
+    
+    public void setUser(UserRef user) {
+        this.user = user;
+    }
+    
+    public String getNotes() {
+        return notes;
+    }
+    
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+    
+    public String getBatchNumber() {
+        return batchNumber;
+    }
+    
+    public void setBatchNumber(String batchNumber) {
+        this.batchNumber = batchNumber;
+    }
+    
+    public String getLotNumber() {
+        return lotNumber;
+    }
+    
+    public void setLotNumber(String lotNumber) {
+        this.lotNumber = lotNumber;
+    }
+    
+    public LocalDateTime getExpiryDate() {
+        return expiryDate;
+    }
+    
+    public void setExpiryDate(LocalDateTime expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+    
+    public LocalDateTime getManufacturingDate() {
+        return manufacturingDate;
+    }
+    
+    public void setManufacturingDate(LocalDateTime manufacturingDate) {
+        this.manufacturingDate = manufacturingDate;
+    }
+    
+    public static class ProductRef {
+        private Long id;
+        private String sku;
+        private String name;
+        
+        public ProductRef() {}
+        
+        public ProductRef(Long id, String sku, String name) {
+            this.id = id;
+            this.sku = sku;
+            this.name = name;
+        }
+        
+        public Long getId() {
+            return id;
+        }
+        
+        public void setId(Long id) {
+            this.id = id;
+        }
+        
+        public String getSku() {
+            return sku;
+        }
+        
+        public void setSku(String sku) {
+            this.sku = sku;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+    
+    public static class UserRef {
+        private Long id;
+        private String username;
+        
+        public UserRef() {}
+        
+        public UserRef(Long id, String username) {
+            this.id = id;
+            this.username = username;
+        }
+        
+        public Long getId() {
+            return id;
+        }
+        
+        public void setId(Long id) {
+            this.id = id;
+        }
+        
+        public String getUsername() {
+            return username;
+        }
+        
+        public void setUsername(String username) {
+            this.username = username;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.arya.inventory.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+// Per product, transaction type and day rollup of the transaction ledger
+@Entity
+@Table(name = "daily_stock_flow",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "type", "flow_day"}))
+public class DailyStockFlow {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_stock_flow_seq")
+    @SequenceGenerator(name = "daily_stock_flow_seq", sequenceName = "daily_stock_flow_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Transaction.TransactionType type;
+    
+    @Column(name = "flow_day", nullable = false)
+    private LocalDate day;
+    
+    @Column(nullable = false)
+    private Long totalQty;
+    
+    @Column(nullable = false)
+    private Long transactionCount;
+    
+    // Constructors
+    public DailyStockFlow() {}
+    
+    public DailyStockFlow(Long productId, Transaction.TransactionType type, LocalDate day, Long totalQty, Long transactionCount) {
+        this.productId = productId;
+        this.type = type;
+        this.day = day;
+        this.totalQty = totalQty;
+        this.transactionCount = transactionCount;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public Transaction.TransactionType getType() {
+        return type;
+    }
+    
+    public void setType(Transaction.TransactionType type) {
+        this.type = type;
+    }
+    
+    public LocalDate getDay() {
+        return day;
+    }
+    
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+    
+    public Long getTotalQty() {
+        return totalQty;
+    }
+    
+    public void setTotalQty(Long totalQty) {
+        this.totalQty = totalQty;
+    }
+    
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+    
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+}
@@ -10,20 +10,28 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_category_id", columnList = "category, id"),
+    @Index(name = "idx_products_supplier_id", columnList = "supplier_id, id"),
+    @Index(name = "idx_products_qty", columnList = "qty"),
+    @Index(name = "idx_products_change_version", columnList = "change_version")
+})
 public class Product {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Product name is required")
@@ -57,6 +65,11 @@ public class Product {
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Transaction> transactions;
     
+    // Version of the last write to the row, for delta sync; null for rows not written
+    // since startup
+    @Column(name = "change_version")
+    private Long changeVersion;
+    
     // Constructors
     public Product() {}
     
@@ -140,4 +153,12 @@ public class Product {
     public void setTransactions(List<Transaction> transactions) {
         this.transactions = transactions;
     }
+    
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+    
+    public void setChangeVersion(Long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
 }
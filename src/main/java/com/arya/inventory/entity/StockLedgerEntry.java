@@ -0,0 +1,99 @@
+package com.arya.inventory.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+// One row per change to a product's stock, never updated or deleted. A product's quantity
+// is the sum of its deltas; StockSnapshot rows fold the older part of that sum.
+@Entity
+@Table(name = "stock_ledger", indexes = {
+    @Index(name = "idx_stock_ledger_product_id", columnList = "product_id, id")
+})
+public class StockLedgerEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_ledger_seq")
+    @SequenceGenerator(name = "stock_ledger_seq", sequenceName = "stock_ledger_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(nullable = false)
+    private Integer delta;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Reason reason;
+    
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+    
+    // Constructors
+    public StockLedgerEntry() {}
+    
+    public StockLedgerEntry(Long productId, Integer delta, Reason reason, LocalDateTime recordedAt) {
+        this.productId = productId;
+        this.delta = delta;
+        this.reason = reason;
+        this.recordedAt = recordedAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public Integer getDelta() {
+        return delta;
+    }
+    
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+    
+    public Reason getReason() {
+        return reason;
+    }
+    
+    public void setReason(Reason reason) {
+        this.reason = reason;
+    }
+    
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+    
+    public void setRecordedAt(LocalDateTime recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+    
+    public enum Reason {
+        OPENING,      // Quantity a product was created with, or had when the ledger started
+        TRANSACTION,  // Stock movement booked as a transaction (one entry per product per batch)
+        ADJUSTMENT,   // Direct stock update or product edit
+        REVERSAL      // Undoes a deleted transaction
+    }
+}
@@ -0,0 +1,103 @@
+package com.arya.inventory.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+// A product's quantity after every ledger entry up to and including lastEntryId, so the
+// current quantity only needs the entries after it
+@Entity
+@Table(name = "stock_snapshots", indexes = {
+    @Index(name = "idx_stock_snapshots_product_entry", columnList = "product_id, last_entry_id"),
+    @Index(name = "idx_stock_snapshots_product_as_of", columnList = "product_id, as_of")
+})
+public class StockSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_snapshots_seq")
+    @SequenceGenerator(name = "stock_snapshots_seq", sequenceName = "stock_snapshots_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+    
+    @Column(nullable = false)
+    private Long qty;
+    
+    // Recorded time of the last entry covered
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+    
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+    
+    // Constructors
+    public StockSnapshot() {}
+    
+    public StockSnapshot(Long productId, Long lastEntryId, Long qty, LocalDateTime asOf, LocalDateTime takenAt) {
+        this.productId = productId;
+        this.lastEntryId = lastEntryId;
+        this.qty = qty;
+        this.asOf = asOf;
+        this.takenAt = takenAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public Long getLastEntryId() {
+        return lastEntryId;
+    }
+    
+    public void setLastEntryId(Long lastEntryId) {
+        this.lastEntryId = lastEntryId;
+    }
+    
+    public Long getQty() {
+        return qty;
+    }
+    
+    public void setQty(Long qty) {
+        this.qty = qty;
+    }
+    
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+    
+    public void setAsOf(LocalDateTime asOf) {
+        this.asOf = asOf;
+    }
+    
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+    
+    public void setTakenAt(LocalDateTime takenAt) {
+        this.takenAt = takenAt;
+    }
+}
@@ -9,16 +9,24 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 
 @Entity
-@Table(name = "suppliers")
+@Table(name = "suppliers", indexes = {
+    @Index(name = "idx_suppliers_name", columnList = "name"),
+    @Index(name = "idx_suppliers_email", columnList = "email"),
+    @Index(name = "idx_suppliers_phone", columnList = "phone"),
+    @Index(name = "idx_suppliers_change_version", columnList = "change_version")
+})
 public class Supplier {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "suppliers_seq")
+    @SequenceGenerator(name = "suppliers_seq", sequenceName = "suppliers_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Supplier name is required")
@@ -44,6 +52,10 @@ public class Supplier {
     @OneToMany(mappedBy = "supplier", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Product> products;
     
+    // Version of the last write to the row, like Product's
+    @Column(name = "change_version")
+    private Long changeVersion;
+    
     // Constructors
     public Supplier() {}
     
@@ -116,4 +128,12 @@ public class Supplier {
     public void setProducts(List<Product> products) {
         this.products = products;
     }
+    
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+    
+    public void setChangeVersion(Long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
 }
@@ -10,17 +10,30 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
-@Table(name = "transactions")
+// One index per TransactionRepository access path; each ends in id so the keyset
+// "AND id > :after ORDER BY id" is answered from the index without a sort
+@Table(name = "transactions", indexes = {
+    @Index(name = "idx_transactions_product_id", columnList = "product_id, id"),
+    @Index(name = "idx_transactions_user_id", columnList = "user_id, id"),
+    @Index(name = "idx_transactions_type_id", columnList = "type, id"),
+    @Index(name = "idx_transactions_date_id", columnList = "date, id"),
+    @Index(name = "idx_transactions_product_date_id", columnList = "product_id, date, id"),
+    @Index(name = "idx_transactions_batch_number_id", columnList = "batch_number, id"),
+    @Index(name = "idx_transactions_lot_number_id", columnList = "lot_number, id")
+})
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
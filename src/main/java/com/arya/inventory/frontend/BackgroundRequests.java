@@ -0,0 +1,122 @@
+package com.arya.inventory.frontend;
+
+import java.awt.Component;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import javax.swing.JOptionPane;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+
+// Sends API requests without blocking the Swing event thread. The response is handled on an
+// HttpClient thread, so JSON is parsed there too, and the handler returns the UI update to
+// run on the event thread. Bodies are read as text unless the caller passes a BodyHandler,
+// e.g. for binary (CBOR) responses. Requests sent under the same key supersede each other:
+// the older one is cancelled and its update dropped even if its response already arrived, so
+// a slow search never overwrites a newer one. The progress bar shows while anything is in
+// flight. All methods must be called on the event thread.
+public class BackgroundRequests {
+    
+    public interface ResponseHandler<T> {
+        // Runs off the event thread; the returned update, if any, runs on it
+        Runnable handle(HttpResponse<T> response) throws IOException;
+    }
+    
+    private final HttpClient httpClient;
+    private final Component owner;
+    private final JProgressBar progressBar;
+    private final List<Component> disabledWhileBusy = new ArrayList<>();
+    private final Map<String, CompletableFuture<?>> latest = new HashMap<>();
+    private int inFlight;
+    
+    public BackgroundRequests(HttpClient httpClient, Component owner) {
+        this.httpClient = httpClient;
+        this.owner = owner;
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+    }
+    
+    public JProgressBar getProgressBar() {
+        return progressBar;
+    }
+    
+    // For dialogs: keeps e.g. the Save button from sending the same request twice
+    public void disableWhileBusy(Component component) {
+        disabledWhileBusy.add(component);
+    }
+    
+    // A null key never supersedes or is superseded; errors are shown as errorPrefix + message
+    public void send(String key, HttpRequest request, ResponseHandler<String> handler, String errorPrefix) {
+        send(key, request, HttpResponse.BodyHandlers.ofString(), handler, errorPrefix);
+    }
+    
+    public <T> void send(String key, HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                         ResponseHandler<T> handler, String errorPrefix) {
+        if (key != null) {
+            cancel(key);
+        }
+        CompletableFuture<HttpResponse<T>> call = httpClient.sendAsync(request, bodyHandler);
+        if (key != null) {
+            latest.put(key, call);
+        }
+        busy(1);
+        call.thenApply(response -> {
+            try {
+                return handler.handle(response);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }).whenComplete((update, error) -> SwingUtilities.invokeLater(() -> {
+            busy(-1);
+            if (key != null) {
+                if (latest.get(key) != call) {
+                    return;
+                }
+                latest.remove(key);
+            }
+            if (error == null) {
+                if (update != null) {
+                    update.run();
+                }
+            } else if (!(unwrap(error) instanceof CancellationException)) {
+                JOptionPane.showMessageDialog(owner, errorPrefix + unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }));
+    }
+    
+    public void cancel(String key) {
+        CompletableFuture<?> previous = latest.remove(key);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+    }
+    
+    public void cancelAll() {
+        for (CompletableFuture<?> call : latest.values()) {
+            call.cancel(true);
+        }
+        latest.clear();
+    }
+    
+    private void busy(int change) {
+        inFlight += change;
+        progressBar.setVisible(inFlight > 0);
+        for (Component component : disabledWhileBusy) {
+            component.setEnabled(inFlight == 0);
+        }
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -42,6 +42,8 @@ public class InventoryManagementApp extends JFrame {
                 .connectTimeout(Duration.ofSeconds(10))
                 .build();
         objectMapper = new ObjectMapper();
+        // Java time support, for transaction dates in JSON and CBOR
+        objectMapper.findAndRegisterModules();
     }
     
     private void initializeUI() {
@@ -67,10 +69,8 @@ public class InventoryManagementApp extends JFrame {
         tabbedPane.addTab("Suppliers", supplierPanel);
         tabbedPane.addTab("Transactions", transactionPanel);
         
-        // Only show user management for admin
-        if ("ADMIN".equals(currentUserRole)) {
-            tabbedPane.addTab("Users", userPanel);
-        }
+        // Each tab fetches its data the first time it is opened
+        tabbedPane.addChangeListener(e -> loadSelectedTab());
         
         add(tabbedPane, BorderLayout.CENTER);
         
@@ -115,7 +115,14 @@ public class InventoryManagementApp extends JFrame {
             authToken = loginDialog.getAuthToken();
             currentUserRole = loginDialog.getUserRole();
             updatePanelsWithAuth();
+            
+            // Only show user management for admin
+            if ("ADMIN".equals(currentUserRole)) {
+                tabbedPane.addTab("Users", userPanel);
+            }
+            
             setVisible(true);
+            loadSelectedTab();
         } else {
             System.exit(0);
         }
@@ -128,9 +135,17 @@ public class InventoryManagementApp extends JFrame {
         userPanel.setAuthToken(authToken);
     }
     
+    private void loadSelectedTab() {
+        if (tabbedPane.getSelectedComponent() instanceof LazyLoadingPanel panel) {
+            panel.ensureLoaded();
+        }
+    }
+    
     private void logout() {
         authToken = null;
         currentUserRole = null;
+        // Drops the panels' pending requests and live streams along with the old token
+        updatePanelsWithAuth();
         dispose();
         new InventoryManagementApp();
     }
@@ -0,0 +1,7 @@
+package com.arya.inventory.frontend;
+
+// A tab that fetches its data the first time it is shown after login, not when it is built
+public interface LazyLoadingPanel {
+    
+    void ensureLoaded();
+}
@@ -12,7 +12,6 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -31,6 +30,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class LoginDialog extends JDialog {
     private HttpClient httpClient;
     private ObjectMapper objectMapper;
+    private BackgroundRequests requests;
     private boolean loginSuccessful = false;
     private String authToken;
     private String userRole;
@@ -42,6 +42,7 @@ public class LoginDialog extends JDialog {
         super(parent, "Login", true);
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
+        this.requests = new BackgroundRequests(httpClient, this);
         
         initializeUI();
     }
@@ -93,6 +94,9 @@ public class LoginDialog extends JDialog {
         buttonPanel.add(loginButton);
         buttonPanel.add(registerButton);
         buttonPanel.add(cancelButton);
+        buttonPanel.add(requests.getProgressBar());
+        requests.disableWhileBusy(loginButton);
+        requests.disableWhileBusy(registerButton);
         
         mainPanel.add(buttonPanel, BorderLayout.SOUTH);
         
@@ -129,22 +133,22 @@ public class LoginDialog extends JDialog {
                         .POST(HttpRequest.BodyPublishers.ofString(requestBody))
                         .build();
                 
-                HttpResponse<String> response = httpClient.send(request,
-                        HttpResponse.BodyHandlers.ofString());
-                
-                if (response.statusCode() == 200) {
-                    LoginResponse loginResponse = objectMapper.readValue(response.body(), LoginResponse.class);
-                    authToken = loginResponse.getToken();
-                    userRole = loginResponse.getRole();
-                    loginSuccessful = true;
-                    dispose();
-                } else {
-                    JOptionPane.showMessageDialog(LoginDialog.this,
+                requests.send(null, request, response -> {
+                    if (response.statusCode() == 200) {
+                        LoginResponse loginResponse = objectMapper.readValue(response.body(), LoginResponse.class);
+                        return () -> {
+                            authToken = loginResponse.getToken();
+                            userRole = loginResponse.getRole();
+                            loginSuccessful = true;
+                            dispose();
+                        };
+                    }
+                    return () -> JOptionPane.showMessageDialog(LoginDialog.this,
                             "Invalid username or password",
                             "Login Failed",
                             JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (IOException | InterruptedException ex) {
+                }, "Connection error: ");
+            } catch (IOException ex) {
                 JOptionPane.showMessageDialog(LoginDialog.this,
                         "Connection error: " + ex.getMessage(),
                         "Error",
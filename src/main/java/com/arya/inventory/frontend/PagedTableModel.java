@@ -0,0 +1,345 @@
+package com.arya.inventory.frontend;
+
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.JTableHeader;
+import javax.swing.table.TableColumn;
+
+import com.arya.inventory.util.Cbor;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Table model over a server-side list of any size. Rows are fetched a page at a time from a
+// /table endpoint when the table first paints them and only the most recently used pages are
+// kept, so memory stays the same however long the list is. Rows that are not loaded yet
+// show blank. refresh() fetches the cached pages again and fires events only for the rows
+// that changed, plus rows inserted or deleted at the end when the total changes. Sorting
+// and filtering happen on the server. With a /changes endpoint set, refresh() first asks it
+// what changed since the last refresh and, when only cached rows were edited in place,
+// patches them without fetching any page. Rows are requested as CBOR, which is smaller and
+// cheaper to decode than JSON. The first column must hold the row's id. Like
+// BackgroundRequests, it must only be used on the event thread.
+public class PagedTableModel<T> extends AbstractTableModel {
+    
+    public static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 10;
+    private static final String PAGE_KEY = "page-";
+    private static final String CHANGES_KEY = "changes";
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String CBOR = "application/cbor";
+    
+    private final BackgroundRequests requests;
+    private final ObjectMapper objectMapper;
+    private final String url;
+    private final Class<T[]> type;
+    private final String[] columnNames;
+    private final String[] sortKeys;
+    private final Function<T, Object[]> rowMapper;
+    
+    private String authToken;
+    private String changesUrl;
+    private long version = -1;
+    private String filter = "";
+    private int sortColumn;
+    private boolean descending;
+    private int rowCount;
+    private final Set<Integer> loading = new HashSet<>();
+    private final Map<Integer, Object[][]> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    
+    // sortKeys holds the server's sort property for each column, or null where the column
+    // cannot be sorted
+    public PagedTableModel(BackgroundRequests requests, ObjectMapper objectMapper, String url, Class<T[]> type,
+                           String[] columnNames, String[] sortKeys, Function<T, Object[]> rowMapper, String authToken) {
+        this.requests = requests;
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.type = type;
+        this.columnNames = columnNames;
+        this.sortKeys = sortKeys;
+        this.rowMapper = rowMapper;
+        this.authToken = authToken;
+    }
+    
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        if (column != sortColumn) {
+            return columnNames[column];
+        }
+        return columnNames[column] + (descending ? " \u25BC" : " \u25B2");
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        int page = row / PAGE_SIZE;
+        Object[][] rows = pages.get(page);
+        if (rows == null) {
+            load(page);
+            return null;
+        }
+        int index = row % PAGE_SIZE;
+        return index < rows.length ? rows[index][column] : null;
+    }
+    
+    // Clicking a sortable column header sorts by it; clicking it again reverses the order
+    public void sortOnHeaderClick(JTable table) {
+        JTableHeader header = table.getTableHeader();
+        header.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.convertColumnIndexToModel(header.columnAtPoint(e.getPoint()));
+                if (column < 0 || sortKeys[column] == null) {
+                    return;
+                }
+                descending = column == sortColumn && !descending;
+                sortColumn = column;
+                for (int i = 0; i < table.getColumnCount(); i++) {
+                    TableColumn tableColumn = table.getColumnModel().getColumn(i);
+                    tableColumn.setHeaderValue(getColumnName(tableColumn.getModelIndex()));
+                }
+                header.repaint();
+                reset();
+            }
+        });
+    }
+    
+    // Extra query parameters for the endpoint, e.g. a name search; null values are left out
+    public void setFilter(Map<String, String> parameters) {
+        StringBuilder query = new StringBuilder();
+        parameters.forEach((name, value) -> {
+            if (value != null) {
+                query.append('&').append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        });
+        filter = query.toString();
+        reset();
+    }
+    
+    // The endpoint's /changes counterpart, which refresh() then consults first
+    public void syncWith(String changesUrl) {
+        this.changesUrl = changesUrl;
+    }
+    
+    // Applies what changed since the last refresh: in place when the changes endpoint
+    // reports only edits to cached rows that keep their position, otherwise by fetching the
+    // cached pages again and applying the differences. Loads the first page when nothing is
+    // cached yet. Pages whose load failed are retried here too.
+    public void refresh() {
+        if (changesUrl == null || authToken == null) {
+            reloadPages();
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(changesUrl + "?sinceVersion=" + version))
+                .header("Authorization", "Bearer " + authToken)
+                .header("Accept", CBOR)
+                .GET()
+                .build();
+        
+        requests.send(CHANGES_KEY, request, HttpResponse.BodyHandlers.ofByteArray(), response -> {
+            JsonNode changes;
+            try (JsonParser parser = parse(response)) {
+                changes = objectMapper.readTree(parser);
+            }
+            long next = changes.get("version").asLong();
+            boolean reload = changes.get("reset").asBoolean() || changes.get("deleted").size() > 0;
+            T[] items = objectMapper.treeToValue(changes.get("updated"), type);
+            Object[][] rows = new Object[items.length][];
+            for (int i = 0; i < items.length; i++) {
+                rows[i] = rowMapper.apply(items[i]);
+            }
+            return () -> {
+                version = next;
+                if (reload || !patch(rows)) {
+                    reloadPages();
+                }
+            };
+        }, "Error loading changes: ");
+    }
+    
+    private void reloadPages() {
+        Set<Integer> stale = new TreeSet<>(pages.keySet());
+        stale.addAll(loading);
+        if (stale.isEmpty()) {
+            stale.add(0);
+        }
+        loading.clear();
+        for (int page : stale) {
+            load(page);
+        }
+    }
+    
+    // For pushed changes to a single value, e.g. a stock level; rows not cached are skipped
+    // because they are fetched fresh when scrolled to
+    public void setValueById(Object id, int column, Object value) {
+        for (Map.Entry<Integer, Object[][]> entry : pages.entrySet()) {
+            Object[][] rows = entry.getValue();
+            for (int i = 0; i < rows.length; i++) {
+                if (id.equals(rows[i][0])) {
+                    rows[i][column] = value;
+                    fireTableCellUpdated(entry.getKey() * PAGE_SIZE + i, column);
+                    return;
+                }
+            }
+        }
+    }
+    
+    public void setAuthToken(String authToken) {
+        this.authToken = authToken;
+        requests.cancel(CHANGES_KEY);
+        cancelLoads();
+        pages.clear();
+        rowCount = 0;
+        fireTableDataChanged();
+    }
+    
+    // Writes changed rows over their cached copies. Fails without touching anything if a row
+    // is not cached, which includes new rows, or if its position could have moved: a changed
+    // sort value or any filter, which the row might no longer match.
+    private boolean patch(Object[][] changed) {
+        if (!filter.isEmpty()) {
+            return changed.length == 0;
+        }
+        int[] positions = new int[changed.length];
+        for (int c = 0; c < changed.length; c++) {
+            positions[c] = -1;
+            for (Map.Entry<Integer, Object[][]> entry : pages.entrySet()) {
+                Object[][] rows = entry.getValue();
+                for (int i = 0; i < rows.length && positions[c] < 0; i++) {
+                    if (changed[c][0].equals(rows[i][0]) && Objects.equals(changed[c][sortColumn], rows[i][sortColumn])) {
+                        positions[c] = entry.getKey() * PAGE_SIZE + i;
+                    }
+                }
+            }
+            if (positions[c] < 0) {
+                return false;
+            }
+        }
+        for (int c = 0; c < changed.length; c++) {
+            Object[][] rows = pages.get(positions[c] / PAGE_SIZE);
+            if (!Arrays.equals(rows[positions[c] % PAGE_SIZE], changed[c])) {
+                rows[positions[c] % PAGE_SIZE] = changed[c];
+                fireTableRowsUpdated(positions[c], positions[c]);
+            }
+        }
+        return true;
+    }
+    
+    // A new sort or filter: drop every cached row and start again from the first page,
+    // keeping the old row count until the server reports the new one
+    private void reset() {
+        cancelLoads();
+        pages.clear();
+        fireTableDataChanged();
+        load(0);
+    }
+    
+    private void cancelLoads() {
+        for (int page : loading) {
+            requests.cancel(PAGE_KEY + page);
+        }
+        loading.clear();
+    }
+    
+    // A failed page stays in loading, so painting does not retry it in a loop; the next
+    // refresh does
+    private void load(int page) {
+        if (authToken == null || !loading.add(page)) {
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url + "?page=" + page + "&limit=" + PAGE_SIZE + "&sort=" + sortKeys[sortColumn]
+                        + "&direction=" + (descending ? "desc" : "asc") + filter))
+                .header("Authorization", "Bearer " + authToken)
+                .header("Accept", CBOR)
+                .GET()
+                .build();
+        
+        requests.send(PAGE_KEY + page, request, HttpResponse.BodyHandlers.ofByteArray(), response -> {
+            T[] items;
+            try (JsonParser parser = parse(response)) {
+                items = objectMapper.readValue(parser, type);
+            }
+            int total = Integer.parseInt(response.headers().firstValue(TOTAL_COUNT_HEADER).orElse("0"));
+            Object[][] rows = new Object[items.length][];
+            for (int i = 0; i < items.length; i++) {
+                rows[i] = rowMapper.apply(items[i]);
+            }
+            return () -> apply(page, total, rows);
+        }, "Error loading rows: ");
+    }
+    
+    // Error bodies are plain text whatever was asked for
+    private JsonParser parse(HttpResponse<byte[]> response) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IOException(response.statusCode() + " " + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        return Cbor.parser(objectMapper, new ByteArrayInputStream(response.body()));
+    }
+    
+    private void apply(int page, int total, Object[][] rows) {
+        loading.remove(page);
+        int previousCount = rowCount;
+        rowCount = total;
+        if (total < previousCount) {
+            pages.keySet().removeIf(cached -> cached * PAGE_SIZE >= total);
+            fireTableRowsDeleted(total, previousCount - 1);
+        } else if (total > previousCount) {
+            fireTableRowsInserted(previousCount, total - 1);
+        }
+        int first = page * PAGE_SIZE;
+        if (first >= total) {
+            return;
+        }
+        Object[][] previous = pages.put(page, rows);
+        int end = Math.min(first + PAGE_SIZE, total);
+        int changedFrom = -1;
+        for (int row = first; row < end; row++) {
+            int i = row - first;
+            boolean changed = previous == null || i >= previous.length || i >= rows.length
+                    || !Arrays.equals(previous[i], rows[i]);
+            if (changed && changedFrom < 0) {
+                changedFrom = row;
+            } else if (!changed && changedFrom >= 0) {
+                fireTableRowsUpdated(changedFrom, row - 1);
+                changedFrom = -1;
+            }
+        }
+        if (changedFrom >= 0) {
+            fireTableRowsUpdated(changedFrom, end - 1);
+        }
+    }
+}
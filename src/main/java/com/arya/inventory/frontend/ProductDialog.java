@@ -13,7 +13,6 @@ import java.math.BigDecimal;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -32,6 +31,7 @@ public class ProductDialog extends JDialog {
     private HttpClient httpClient;
     private ObjectMapper objectMapper;
     private String authToken;
+    private BackgroundRequests requests;
     private Product product;
     private boolean productSaved = false;
     
@@ -48,6 +48,7 @@ public class ProductDialog extends JDialog {
         this.objectMapper = objectMapper;
         this.authToken = authToken;
         this.product = product;
+        this.requests = new BackgroundRequests(httpClient, this);
         
         initializeUI();
         if (product != null) {
@@ -126,6 +127,8 @@ public class ProductDialog extends JDialog {
         
         buttonPanel.add(saveButton);
         buttonPanel.add(cancelButton);
+        buttonPanel.add(requests.getProgressBar());
+        requests.disableWhileBusy(saveButton);
         
         mainPanel.add(buttonPanel, BorderLayout.SOUTH);
         
@@ -225,17 +228,16 @@ public class ProductDialog extends JDialog {
                     .method(product != null ? "PUT" : "POST", HttpRequest.BodyPublishers.ofString(requestBody))
                     .build();
             
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() == 200) {
-                productSaved = true;
-                JOptionPane.showMessageDialog(this, "Product saved successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
-                dispose();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to save product: " + response.body(), "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (IOException | InterruptedException e) {
+            requests.send(null, request, response -> () -> {
+                if (response.statusCode() == 200) {
+                    productSaved = true;
+                    JOptionPane.showMessageDialog(this, "Product saved successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    dispose();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to save product: " + response.body(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, "Save error: ");
+        } catch (IOException e) {
             JOptionPane.showMessageDialog(this, "Save error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
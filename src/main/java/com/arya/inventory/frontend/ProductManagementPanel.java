@@ -2,11 +2,11 @@ package com.arya.inventory.frontend;
 
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
-import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.swing.JButton;
 import javax.swing.JComboBox;
@@ -18,28 +18,43 @@ import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.SwingUtilities;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 import com.arya.inventory.entity.Product;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-public class ProductManagementPanel extends JPanel {
+public class ProductManagementPanel extends JPanel implements LazyLoadingPanel {
+    private static final int SEARCH_DELAY_MS = 300;
+    
     private HttpClient httpClient;
     private ObjectMapper objectMapper;
     private String authToken;
+    private BackgroundRequests requests;
+    private boolean loaded;
     
     private JTable productTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<Product> tableModel;
     private JTextField searchField;
     private JComboBox<String> categoryComboBox;
+    private StockEventStream stockEvents;
     
     public ProductManagementPanel(HttpClient httpClient, ObjectMapper objectMapper, String authToken) {
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
         this.authToken = authToken;
+        this.requests = new BackgroundRequests(httpClient, this);
         
         initializeUI();
-        loadProducts();
+        
+        // Live stock levels instead of re-downloading the list after every change
+        stockEvents = new StockEventStream(httpClient, objectMapper, null, (event, data) -> {
+            if ("stock".equals(event)) {
+                updateStockLevel(data.get("productId").asLong(), data.get("qty").asInt());
+            }
+        });
+        stockEvents.connect(authToken);
     }
     
     private void initializeUI() {
@@ -56,12 +71,13 @@ public class ProductManagementPanel extends JPanel {
         addButton.addActionListener(e -> showAddProductDialog());
         editButton.addActionListener(e -> showEditProductDialog());
         deleteButton.addActionListener(e -> deleteSelectedProduct());
-        refreshButton.addActionListener(e -> loadProducts());
+        refreshButton.addActionListener(e -> tableModel.refresh());
         
         topPanel.add(addButton);
         topPanel.add(editButton);
         topPanel.add(deleteButton);
         topPanel.add(refreshButton);
+        topPanel.add(requests.getProgressBar());
         
         // Search panel
         JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
@@ -69,13 +85,33 @@ public class ProductManagementPanel extends JPanel {
         searchField = new JTextField(20);
         searchPanel.add(searchField);
         
+        // Search as you type, once typing pauses; each search supersedes the one before
+        Timer searchTimer = new Timer(SEARCH_DELAY_MS, e -> applyFilter());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
+        
         JButton searchButton = new JButton("Search");
-        searchButton.addActionListener(e -> searchProducts());
+        searchButton.addActionListener(e -> applyFilter());
         searchPanel.add(searchButton);
         
         searchPanel.add(new JLabel("Category:"));
         categoryComboBox = new JComboBox<>(new String[]{"All", "Electronics", "Clothing", "Books", "Food", "Other"});
-        categoryComboBox.addActionListener(e -> filterByCategory());
+        categoryComboBox.addActionListener(e -> applyFilter());
         searchPanel.add(categoryComboBox);
         
         JPanel controlPanel = new JPanel(new BorderLayout());
@@ -86,13 +122,20 @@ public class ProductManagementPanel extends JPanel {
         
         // Table
         String[] columnNames = {"ID", "Name", "SKU", "Category", "Price", "Quantity", "Description"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        String[] sortKeys = {"id", "name", "sku", "category", "price", "qty", null};
+        tableModel = new PagedTableModel<>(requests, objectMapper, "http://localhost:8080/api/products/table", Product[].class,
+                columnNames, sortKeys, product -> new Object[] {
+                    product.getId(),
+                    product.getName(),
+                    product.getSku(),
+                    product.getCategory(),
+                    product.getPrice(),
+                    product.getQty(),
+                    product.getDescription()
+                }, authToken);
+        tableModel.syncWith("http://localhost:8080/api/products/changes");
         productTable = new JTable(tableModel);
+        tableModel.sortOnHeaderClick(productTable);
         productTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         productTable.getTableHeader().setReorderingAllowed(false);
         
@@ -113,101 +156,33 @@ public class ProductManagementPanel extends JPanel {
         add(bottomPanel, BorderLayout.SOUTH);
     }
     
-    private void loadProducts() {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/products"))
-                    .header("Authorization", "Bearer " + authToken)
-                    .GET()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() == 200) {
-                Product[] products = objectMapper.readValue(response.body(), Product[].class);
-                updateTable(products);
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to load products", "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Connection error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    @Override
+    public void ensureLoaded() {
+        if (!loaded && authToken != null) {
+            loaded = true;
+            tableModel.refresh();
         }
     }
     
-    private void updateTable(Product[] products) {
-        tableModel.setRowCount(0);
-        for (Product product : products) {
-            Object[] row = {
-                product.getId(),
-                product.getName(),
-                product.getSku(),
-                product.getCategory(),
-                product.getPrice(),
-                product.getQty(),
-                product.getDescription()
-            };
-            tableModel.addRow(row);
-        }
+    private void updateStockLevel(Long productId, int qty) {
+        tableModel.setValueById(productId, 5, qty);
     }
     
-    private void searchProducts() {
+    // The search term and category narrow the same server-side list
+    private void applyFilter() {
         String searchTerm = searchField.getText().trim();
-        if (searchTerm.isEmpty()) {
-            loadProducts();
-            return;
-        }
-        
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/products/search?name=" + searchTerm))
-                    .header("Authorization", "Bearer " + authToken)
-                    .GET()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() == 200) {
-                Product[] products = objectMapper.readValue(response.body(), Product[].class);
-                updateTable(products);
-            }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Search error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-    
-    private void filterByCategory() {
         String category = (String) categoryComboBox.getSelectedItem();
-        if ("All".equals(category)) {
-            loadProducts();
-            return;
-        }
-        
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/products/category/" + category))
-                    .header("Authorization", "Bearer " + authToken)
-                    .GET()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() == 200) {
-                Product[] products = objectMapper.readValue(response.body(), Product[].class);
-                updateTable(products);
-            }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Filter error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        Map<String, String> filter = new LinkedHashMap<>();
+        filter.put("name", searchTerm.isEmpty() ? null : searchTerm);
+        filter.put("category", "All".equals(category) ? null : category);
+        tableModel.setFilter(filter);
     }
     
     private void showAddProductDialog() {
         ProductDialog dialog = new ProductDialog(SwingUtilities.getWindowAncestor(this), httpClient, objectMapper, authToken, null);
         dialog.setVisible(true);
         if (dialog.isProductSaved()) {
-            loadProducts();
+            tableModel.refresh();
         }
     }
     
@@ -219,14 +194,25 @@ public class ProductManagementPanel extends JPanel {
         }
         
         Long productId = (Long) tableModel.getValueAt(selectedRow, 0);
-        Product product = getProductById(productId);
-        if (product != null) {
-            ProductDialog dialog = new ProductDialog(SwingUtilities.getWindowAncestor(this), httpClient, objectMapper, authToken, product);
-            dialog.setVisible(true);
-            if (dialog.isProductSaved()) {
-                loadProducts();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/api/products/" + productId))
+                .header("Authorization", "Bearer " + authToken)
+                .GET()
+                .build();
+        
+        requests.send("edit", request, response -> {
+            if (response.statusCode() != 200) {
+                return null;
             }
-        }
+            Product product = objectMapper.readValue(response.body(), Product.class);
+            return () -> {
+                ProductDialog dialog = new ProductDialog(SwingUtilities.getWindowAncestor(this), httpClient, objectMapper, authToken, product);
+                dialog.setVisible(true);
+                if (dialog.isProductSaved()) {
+                    tableModel.refresh();
+                }
+            };
+        }, "Error loading product: ");
     }
     
     private void deleteSelectedProduct() {
@@ -244,45 +230,20 @@ public class ProductManagementPanel extends JPanel {
     }
     
     private void deleteProduct(Long productId) {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/products/" + productId))
-                    .header("Authorization", "Bearer " + authToken)
-                    .DELETE()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/api/products/" + productId))
+                .header("Authorization", "Bearer " + authToken)
+                .DELETE()
+                .build();
+        
+        requests.send(null, request, response -> () -> {
             if (response.statusCode() == 200) {
                 JOptionPane.showMessageDialog(this, "Product deleted successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
-                loadProducts();
+                tableModel.refresh();
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to delete product", "Error", JOptionPane.ERROR_MESSAGE);
             }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Delete error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-    
-    private Product getProductById(Long productId) {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/products/" + productId))
-                    .header("Authorization", "Bearer " + authToken)
-                    .GET()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() == 200) {
-                return objectMapper.readValue(response.body(), Product.class);
-            }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Error loading product: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
-        return null;
+        }, "Delete error: ");
     }
     
     private void showStockDialog(boolean isStockIn) {
@@ -310,28 +271,27 @@ public class ProductManagementPanel extends JPanel {
     }
     
     private void updateStock(Long productId, int quantityChange) {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/products/" + productId + "/stock?quantityChange=" + quantityChange))
-                    .header("Authorization", "Bearer " + authToken)
-                    .PUT(HttpRequest.BodyPublishers.noBody())
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/api/products/" + productId + "/stock?quantityChange=" + quantityChange))
+                .header("Authorization", "Bearer " + authToken)
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+        
+        requests.send(null, request, response -> () -> {
             if (response.statusCode() == 200) {
                 JOptionPane.showMessageDialog(this, "Stock updated successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
-                loadProducts();
+                tableModel.refresh();
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to update stock: " + response.body(), "Error", JOptionPane.ERROR_MESSAGE);
             }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Stock update error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, "Stock update error: ");
     }
     
     public void setAuthToken(String authToken) {
         this.authToken = authToken;
+        requests.cancelAll();
+        tableModel.setAuthToken(authToken);
+        loaded = false;
+        stockEvents.connect(authToken);
     }
 }
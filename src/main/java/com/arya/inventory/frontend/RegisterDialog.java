@@ -12,7 +12,6 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -30,6 +29,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class RegisterDialog extends JDialog {
     private HttpClient httpClient;
     private ObjectMapper objectMapper;
+    private BackgroundRequests requests;
     
     private JTextField usernameField;
     private JPasswordField passwordField;
@@ -40,6 +40,7 @@ public class RegisterDialog extends JDialog {
         super(parent, "Register New User", true);
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
+        this.requests = new BackgroundRequests(httpClient, this);
         
         initializeUI();
     }
@@ -102,6 +103,8 @@ public class RegisterDialog extends JDialog {
         
         buttonPanel.add(registerButton);
         buttonPanel.add(cancelButton);
+        buttonPanel.add(requests.getProgressBar());
+        requests.disableWhileBusy(registerButton);
         
         mainPanel.add(buttonPanel, BorderLayout.SOUTH);
         
@@ -152,22 +155,21 @@ public class RegisterDialog extends JDialog {
                         .POST(HttpRequest.BodyPublishers.ofString(requestBody))
                         .build();
                 
-                HttpResponse<String> response = httpClient.send(request,
-                        HttpResponse.BodyHandlers.ofString());
-                
-                if (response.statusCode() == 200) {
-                    JOptionPane.showMessageDialog(RegisterDialog.this,
-                            "User registered successfully!",
-                            "Success",
-                            JOptionPane.INFORMATION_MESSAGE);
-                    dispose();
-                } else {
-                    JOptionPane.showMessageDialog(RegisterDialog.this,
-                            "Registration failed: " + response.body(),
-                            "Registration Failed",
-                            JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (IOException | InterruptedException ex) {
+                requests.send(null, request, response -> () -> {
+                    if (response.statusCode() == 200) {
+                        JOptionPane.showMessageDialog(RegisterDialog.this,
+                                "User registered successfully!",
+                                "Success",
+                                JOptionPane.INFORMATION_MESSAGE);
+                        dispose();
+                    } else {
+                        JOptionPane.showMessageDialog(RegisterDialog.this,
+                                "Registration failed: " + response.body(),
+                                "Registration Failed",
+                                JOptionPane.ERROR_MESSAGE);
+                    }
+                }, "Connection error: ");
+            } catch (IOException ex) {
                 JOptionPane.showMessageDialog(RegisterDialog.this,
                         "Connection error: " + ex.getMessage(),
                         "Error",
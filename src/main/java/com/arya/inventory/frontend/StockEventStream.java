@@ -0,0 +1,128 @@
+package com.arya.inventory.frontend;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.swing.SwingUtilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Subscribes to /api/stream/stock and hands each event to the listener on the Swing
+// event thread. Reconnects after a short pause if the server drops the connection, but
+// not once the token is refused: a new one arrives through connect after the next login.
+public class StockEventStream {
+    
+    private static final long RECONNECT_DELAY_SECONDS = 5;
+    
+    public interface Listener {
+        void onEvent(String event, JsonNode data);
+    }
+    
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String query;
+    private final Listener listener;
+    
+    // Bumped on every connect/close so callbacks from an older connection stand down
+    private int generation;
+    private Stream<String> lines;
+    
+    public StockEventStream(HttpClient httpClient, ObjectMapper objectMapper, String query, Listener listener) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.query = query;
+        this.listener = listener;
+    }
+    
+    public synchronized void connect(String authToken) {
+        close();
+        if (authToken != null) {
+            open(generation, authToken);
+        }
+    }
+    
+    public synchronized void close() {
+        generation++;
+        if (lines != null) {
+            lines.close();
+            lines = null;
+        }
+    }
+    
+    private void open(int connection, String token) {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/api/stream/stock" + (query == null ? "" : "?" + query)))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "text/event-stream")
+                .GET()
+                .build();
+        
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .thenApply(response -> {
+                    int status = response.statusCode();
+                    if (status == 200) {
+                        read(connection, response.body());
+                    } else {
+                        response.body().close();
+                    }
+                    return status != 401 && status != 403;
+                })
+                .whenComplete((retry, error) -> {
+                    if (error != null || retry) {
+                        reconnectLater(connection, token);
+                    }
+                });
+    }
+    
+    private void read(int connection, Stream<String> body) {
+        synchronized (this) {
+            if (connection != generation) {
+                body.close();
+                return;
+            }
+            lines = body;
+        }
+        String[] event = {null};
+        StringBuilder data = new StringBuilder();
+        body.forEach(line -> {
+            if (line.isEmpty()) {
+                dispatch(event[0], data.toString());
+                event[0] = null;
+                data.setLength(0);
+            } else if (line.startsWith("event:")) {
+                event[0] = line.substring(6).trim();
+            } else if (line.startsWith("data:")) {
+                data.append(line.substring(5).trim());
+            }
+        });
+    }
+    
+    private void dispatch(String event, String data) {
+        if (event == null || data.isEmpty()) {
+            return;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(data);
+            SwingUtilities.invokeLater(() -> listener.onEvent(event, node));
+        } catch (IOException e) {
+            // Skip malformed events rather than dropping the connection
+        }
+    }
+    
+    private void reconnectLater(int connection, String token) {
+        CompletableFuture.delayedExecutor(RECONNECT_DELAY_SECONDS, TimeUnit.SECONDS).execute(() -> {
+            synchronized (this) {
+                if (connection == generation) {
+                    open(connection, token);
+                }
+            }
+        });
+    }
+}
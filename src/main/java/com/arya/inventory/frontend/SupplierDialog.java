@@ -12,7 +12,6 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -31,6 +30,7 @@ public class SupplierDialog extends JDialog {
     private HttpClient httpClient;
     private ObjectMapper objectMapper;
     private String authToken;
+    private BackgroundRequests requests;
     private Supplier supplier;
     private boolean supplierSaved = false;
     
@@ -47,6 +47,7 @@ public class SupplierDialog extends JDialog {
         this.objectMapper = objectMapper;
         this.authToken = authToken;
         this.supplier = supplier;
+        this.requests = new BackgroundRequests(httpClient, this);
         
         initializeUI();
         if (supplier != null) {
@@ -125,6 +126,8 @@ public class SupplierDialog extends JDialog {
         
         buttonPanel.add(saveButton);
         buttonPanel.add(cancelButton);
+        buttonPanel.add(requests.getProgressBar());
+        requests.disableWhileBusy(saveButton);
         
         mainPanel.add(buttonPanel, BorderLayout.SOUTH);
         
@@ -189,17 +192,16 @@ public class SupplierDialog extends JDialog {
                     .method(supplier != null ? "PUT" : "POST", HttpRequest.BodyPublishers.ofString(requestBody))
                     .build();
             
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() == 200) {
-                supplierSaved = true;
-                JOptionPane.showMessageDialog(this, "Supplier saved successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
-                dispose();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to save supplier: " + response.body(), "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (IOException | InterruptedException e) {
+            requests.send(null, request, response -> () -> {
+                if (response.statusCode() == 200) {
+                    supplierSaved = true;
+                    JOptionPane.showMessageDialog(this, "Supplier saved successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    dispose();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to save supplier: " + response.body(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, "Save error: ");
+        } catch (IOException e) {
             JOptionPane.showMessageDialog(this, "Save error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
@@ -2,11 +2,10 @@ package com.arya.inventory.frontend;
 
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
-import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.util.Collections;
 
 import javax.swing.JButton;
 import javax.swing.JLabel;
@@ -17,27 +16,33 @@ import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.SwingUtilities;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 import com.arya.inventory.entity.Supplier;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-public class SupplierManagementPanel extends JPanel {
+public class SupplierManagementPanel extends JPanel implements LazyLoadingPanel {
+    private static final int SEARCH_DELAY_MS = 300;
+    
     private HttpClient httpClient;
     private ObjectMapper objectMapper;
     private String authToken;
+    private BackgroundRequests requests;
+    private boolean loaded;
     
     private JTable supplierTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<Supplier> tableModel;
     private JTextField searchField;
     
     public SupplierManagementPanel(HttpClient httpClient, ObjectMapper objectMapper, String authToken) {
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
         this.authToken = authToken;
+        this.requests = new BackgroundRequests(httpClient, this);
         
         initializeUI();
-        loadSuppliers();
     }
     
     private void initializeUI() {
@@ -54,12 +59,13 @@ public class SupplierManagementPanel extends JPanel {
         addButton.addActionListener(e -> showAddSupplierDialog());
         editButton.addActionListener(e -> showEditSupplierDialog());
         deleteButton.addActionListener(e -> deleteSelectedSupplier());
-        refreshButton.addActionListener(e -> loadSuppliers());
+        refreshButton.addActionListener(e -> tableModel.refresh());
         
         topPanel.add(addButton);
         topPanel.add(editButton);
         topPanel.add(deleteButton);
         topPanel.add(refreshButton);
+        topPanel.add(requests.getProgressBar());
         
         // Search panel
         JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
@@ -67,6 +73,26 @@ public class SupplierManagementPanel extends JPanel {
         searchField = new JTextField(20);
         searchPanel.add(searchField);
         
+        // Search as you type, once typing pauses; each search supersedes the one before
+        Timer searchTimer = new Timer(SEARCH_DELAY_MS, e -> searchSuppliers());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
+        
         JButton searchButton = new JButton("Search");
         searchButton.addActionListener(e -> searchSuppliers());
         searchPanel.add(searchButton);
@@ -79,13 +105,20 @@ public class SupplierManagementPanel extends JPanel {
         
         // Table
         String[] columnNames = {"ID", "Name", "Contact", "Email", "Phone", "Address", "History"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        String[] sortKeys = {"id", "name", "contact", "email", "phone", null, null};
+        tableModel = new PagedTableModel<>(requests, objectMapper, "http://localhost:8080/api/suppliers/table", Supplier[].class,
+                columnNames, sortKeys, supplier -> new Object[] {
+                    supplier.getId(),
+                    supplier.getName(),
+                    supplier.getContact(),
+                    supplier.getEmail(),
+                    supplier.getPhone(),
+                    supplier.getAddress(),
+                    supplier.getHistory()
+                }, authToken);
+        tableModel.syncWith("http://localhost:8080/api/suppliers/changes");
         supplierTable = new JTable(tableModel);
+        tableModel.sortOnHeaderClick(supplierTable);
         supplierTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         supplierTable.getTableHeader().setReorderingAllowed(false);
         
@@ -93,75 +126,24 @@ public class SupplierManagementPanel extends JPanel {
         add(scrollPane, BorderLayout.CENTER);
     }
     
-    private void loadSuppliers() {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/suppliers"))
-                    .header("Authorization", "Bearer " + authToken)
-                    .GET()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() == 200) {
-                Supplier[] suppliers = objectMapper.readValue(response.body(), Supplier[].class);
-                updateTable(suppliers);
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to load suppliers", "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Connection error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-    
-    private void updateTable(Supplier[] suppliers) {
-        tableModel.setRowCount(0);
-        for (Supplier supplier : suppliers) {
-            Object[] row = {
-                supplier.getId(),
-                supplier.getName(),
-                supplier.getContact(),
-                supplier.getEmail(),
-                supplier.getPhone(),
-                supplier.getAddress(),
-                supplier.getHistory()
-            };
-            tableModel.addRow(row);
+    @Override
+    public void ensureLoaded() {
+        if (!loaded && authToken != null) {
+            loaded = true;
+            tableModel.refresh();
         }
     }
     
     private void searchSuppliers() {
         String searchTerm = searchField.getText().trim();
-        if (searchTerm.isEmpty()) {
-            loadSuppliers();
-            return;
-        }
-        
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/suppliers/search?name=" + searchTerm))
-                    .header("Authorization", "Bearer " + authToken)
-                    .GET()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() == 200) {
-                Supplier[] suppliers = objectMapper.readValue(response.body(), Supplier[].class);
-                updateTable(suppliers);
-            }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Search error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        tableModel.setFilter(Collections.singletonMap("name", searchTerm.isEmpty() ? null : searchTerm));
     }
     
     private void showAddSupplierDialog() {
         SupplierDialog dialog = new SupplierDialog(SwingUtilities.getWindowAncestor(this), httpClient, objectMapper, authToken, null);
         dialog.setVisible(true);
         if (dialog.isSupplierSaved()) {
-            loadSuppliers();
+            tableModel.refresh();
         }
     }
     
@@ -173,14 +155,25 @@ public class SupplierManagementPanel extends JPanel {
         }
         
         Long supplierId = (Long) tableModel.getValueAt(selectedRow, 0);
-        Supplier supplier = getSupplierById(supplierId);
-        if (supplier != null) {
-            SupplierDialog dialog = new SupplierDialog(SwingUtilities.getWindowAncestor(this), httpClient, objectMapper, authToken, supplier);
-            dialog.setVisible(true);
-            if (dialog.isSupplierSaved()) {
-                loadSuppliers();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/api/suppliers/" + supplierId))
+                .header("Authorization", "Bearer " + authToken)
+                .GET()
+                .build();
+        
+        requests.send("edit", request, response -> {
+            if (response.statusCode() != 200) {
+                return null;
             }
-        }
+            Supplier supplier = objectMapper.readValue(response.body(), Supplier.class);
+            return () -> {
+                SupplierDialog dialog = new SupplierDialog(SwingUtilities.getWindowAncestor(this), httpClient, objectMapper, authToken, supplier);
+                dialog.setVisible(true);
+                if (dialog.isSupplierSaved()) {
+                    tableModel.refresh();
+                }
+            };
+        }, "Error loading supplier: ");
     }
     
     private void deleteSelectedSupplier() {
@@ -198,48 +191,26 @@ public class SupplierManagementPanel extends JPanel {
     }
     
     private void deleteSupplier(Long supplierId) {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/suppliers/" + supplierId))
-                    .header("Authorization", "Bearer " + authToken)
-                    .DELETE()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/api/suppliers/" + supplierId))
+                .header("Authorization", "Bearer " + authToken)
+                .DELETE()
+                .build();
+        
+        requests.send(null, request, response -> () -> {
             if (response.statusCode() == 200) {
                 JOptionPane.showMessageDialog(this, "Supplier deleted successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
-                loadSuppliers();
+                tableModel.refresh();
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to delete supplier", "Error", JOptionPane.ERROR_MESSAGE);
             }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Delete error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-    
-    private Supplier getSupplierById(Long supplierId) {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/suppliers/" + supplierId))
-                    .header("Authorization", "Bearer " + authToken)
-                    .GET()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() == 200) {
-                return objectMapper.readValue(response.body(), Supplier.class);
-            }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Error loading supplier: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
-        return null;
+        }, "Delete error: ");
     }
     
     public void setAuthToken(String authToken) {
         this.authToken = authToken;
+        requests.cancelAll();
+        tableModel.setAuthToken(authToken);
+        loaded = false;
     }
 }
@@ -9,7 +9,6 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.time.format.DateTimeFormatter;
 
 import javax.swing.JButton;
@@ -22,34 +21,51 @@ import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.Timer;
 
 import com.arya.inventory.entity.Product;
 import com.arya.inventory.entity.Transaction;
 import com.arya.inventory.entity.User;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-public class TransactionPanel extends JPanel {
+public class TransactionPanel extends JPanel implements LazyLoadingPanel {
+    private static final int REFRESH_DELAY_MS = 500;
+    
     private HttpClient httpClient;
     private ObjectMapper objectMapper;
     private String authToken;
+    private BackgroundRequests requests;
+    private boolean loaded;
     
     private JTable transactionTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<Transaction> tableModel;
+    private Timer refreshTimer;
     private JComboBox<String> typeComboBox;
     private JTextField productIdField;
     private JTextField quantityField;
     private JTextField batchNumberField;
     private JTextField lotNumberField;
     private JTextArea notesArea;
+    private StockEventStream stockEvents;
     
     public TransactionPanel(HttpClient httpClient, ObjectMapper objectMapper, String authToken) {
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
         this.authToken = authToken;
+        this.requests = new BackgroundRequests(httpClient, this);
         
         initializeUI();
-        loadTransactions();
+        
+        // Transactions recorded elsewhere show up as they commit. A burst of them becomes
+        // one refresh of the cached pages rather than one per event.
+        refreshTimer = new Timer(REFRESH_DELAY_MS, e -> tableModel.refresh());
+        refreshTimer.setRepeats(false);
+        stockEvents = new StockEventStream(httpClient, objectMapper, null, (event, data) -> {
+            if ("transaction".equals(event) && loaded) {
+                refreshTimer.restart();
+            }
+        });
+        stockEvents.connect(authToken);
     }
     
     private void initializeUI() {
@@ -112,10 +128,11 @@ public class TransactionPanel extends JPanel {
         JButton refreshButton = new JButton("Refresh");
         
         addTransactionButton.addActionListener(e -> addTransaction());
-        refreshButton.addActionListener(e -> loadTransactions());
+        refreshButton.addActionListener(e -> tableModel.refresh());
         
         buttonPanel.add(addTransactionButton);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(requests.getProgressBar());
         
         JPanel topPanel = new JPanel(new BorderLayout());
         topPanel.add(formPanel, BorderLayout.CENTER);
@@ -125,13 +142,22 @@ public class TransactionPanel extends JPanel {
         
         // Table
         String[] columnNames = {"ID", "Product ID", "Quantity", "Type", "Date", "User ID", "Batch", "Lot", "Notes"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        String[] sortKeys = {"id", null, "qty", "type", "date", null, "batchNumber", "lotNumber", null};
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        tableModel = new PagedTableModel<>(requests, objectMapper, "http://localhost:8080/api/transactions/table", Transaction[].class,
+                columnNames, sortKeys, transaction -> new Object[] {
+                    transaction.getId(),
+                    transaction.getProduct().getId(),
+                    transaction.getQty(),
+                    transaction.getType(),
+                    transaction.getDate().format(formatter),
+                    transaction.getUser().getId(),
+                    transaction.getBatchNumber(),
+                    transaction.getLotNumber(),
+                    transaction.getNotes()
+                }, authToken);
         transactionTable = new JTable(tableModel);
+        tableModel.sortOnHeaderClick(transactionTable);
         transactionTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         transactionTable.getTableHeader().setReorderingAllowed(false);
         
@@ -139,45 +165,11 @@ public class TransactionPanel extends JPanel {
         add(scrollPane2, BorderLayout.CENTER);
     }
     
-    private void loadTransactions() {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/transactions"))
-                    .header("Authorization", "Bearer " + authToken)
-                    .GET()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() == 200) {
-                Transaction[] transactions = objectMapper.readValue(response.body(), Transaction[].class);
-                updateTable(transactions);
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to load transactions", "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Connection error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-    
-    private void updateTable(Transaction[] transactions) {
-        tableModel.setRowCount(0);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        
-        for (Transaction transaction : transactions) {
-            Object[] row = {
-                transaction.getId(),
-                transaction.getProduct().getId(),
-                transaction.getQty(),
-                transaction.getType(),
-                transaction.getDate().format(formatter),
-                transaction.getUser().getId(),
-                transaction.getBatchNumber(),
-                transaction.getLotNumber(),
-                transaction.getNotes()
-            };
-            tableModel.addRow(row);
+    @Override
+    public void ensureLoaded() {
+        if (!loaded && authToken != null) {
+            loaded = true;
+            tableModel.refresh();
         }
     }
     
@@ -214,17 +206,16 @@ public class TransactionPanel extends JPanel {
                     .POST(HttpRequest.BodyPublishers.ofString(requestBody))
                     .build();
             
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() == 200) {
-                JOptionPane.showMessageDialog(this, "Transaction added successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
-                clearFields();
-                loadTransactions();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to add transaction: " + response.body(), "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (IOException | InterruptedException e) {
+            requests.send(null, request, response -> () -> {
+                if (response.statusCode() == 200) {
+                    JOptionPane.showMessageDialog(this, "Transaction added successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    clearFields();
+                    tableModel.refresh();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to add transaction: " + response.body(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, "Add transaction error: ");
+        } catch (IOException e) {
             JOptionPane.showMessageDialog(this, "Add transaction error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
@@ -270,5 +261,10 @@ public class TransactionPanel extends JPanel {
     
     public void setAuthToken(String authToken) {
         this.authToken = authToken;
+        requests.cancelAll();
+        refreshTimer.stop();
+        tableModel.setAuthToken(authToken);
+        loaded = false;
+        stockEvents.connect(authToken);
     }
 }
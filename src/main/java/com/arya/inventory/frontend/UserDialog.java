@@ -12,7 +12,6 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -31,6 +30,7 @@ public class UserDialog extends JDialog {
     private HttpClient httpClient;
     private ObjectMapper objectMapper;
     private String authToken;
+    private BackgroundRequests requests;
     private User user;
     private boolean userSaved = false;
     
@@ -45,6 +45,7 @@ public class UserDialog extends JDialog {
         this.objectMapper = objectMapper;
         this.authToken = authToken;
         this.user = user;
+        this.requests = new BackgroundRequests(httpClient, this);
         
         initializeUI();
         if (user != null) {
@@ -106,6 +107,8 @@ public class UserDialog extends JDialog {
         
         buttonPanel.add(saveButton);
         buttonPanel.add(cancelButton);
+        buttonPanel.add(requests.getProgressBar());
+        requests.disableWhileBusy(saveButton);
         
         mainPanel.add(buttonPanel, BorderLayout.SOUTH);
         
@@ -174,17 +177,16 @@ public class UserDialog extends JDialog {
                     .method(user != null ? "PUT" : "POST", HttpRequest.BodyPublishers.ofString(requestBody))
                     .build();
             
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() == 200) {
-                userSaved = true;
-                JOptionPane.showMessageDialog(this, "User saved successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
-                dispose();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to save user: " + response.body(), "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (IOException | InterruptedException e) {
+            requests.send(null, request, response -> () -> {
+                if (response.statusCode() == 200) {
+                    userSaved = true;
+                    JOptionPane.showMessageDialog(this, "User saved successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    dispose();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to save user: " + response.body(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, "Save error: ");
+        } catch (IOException e) {
             JOptionPane.showMessageDialog(this, "Save error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
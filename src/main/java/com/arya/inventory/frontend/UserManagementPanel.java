@@ -2,11 +2,13 @@ package com.arya.inventory.frontend;
 
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
-import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 
 import javax.swing.JButton;
 import javax.swing.JLabel;
@@ -22,10 +24,15 @@ import javax.swing.table.DefaultTableModel;
 import com.arya.inventory.entity.User;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-public class UserManagementPanel extends JPanel {
+public class UserManagementPanel extends JPanel implements LazyLoadingPanel {
+    private static final int PAGE_LIMIT = 1000;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private HttpClient httpClient;
     private ObjectMapper objectMapper;
     private String authToken;
+    private BackgroundRequests requests;
+    private boolean loaded;
     
     private JTable userTable;
     private DefaultTableModel tableModel;
@@ -35,9 +42,9 @@ public class UserManagementPanel extends JPanel {
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
         this.authToken = authToken;
+        this.requests = new BackgroundRequests(httpClient, this);
         
         initializeUI();
-        loadUsers();
     }
     
     private void initializeUI() {
@@ -60,6 +67,7 @@ public class UserManagementPanel extends JPanel {
         topPanel.add(editButton);
         topPanel.add(deleteButton);
         topPanel.add(refreshButton);
+        topPanel.add(requests.getProgressBar());
         
         // Search panel
         JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
@@ -93,29 +101,44 @@ public class UserManagementPanel extends JPanel {
         add(scrollPane, BorderLayout.CENTER);
     }
     
+    @Override
+    public void ensureLoaded() {
+        if (!loaded && authToken != null) {
+            loaded = true;
+            loadUsers();
+        }
+    }
+    
     private void loadUsers() {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/users"))
-                    .header("Authorization", "Bearer " + authToken)
-                    .GET()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
+        loadUsers(new ArrayList<>(), null);
+    }
+    
+    // /api/users is paged: follows the next-page cursor until the last page, then shows them all
+    private void loadUsers(List<User> loaded, String after) {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/api/users?limit=" + PAGE_LIMIT + (after == null ? "" : "&after=" + after)))
+                .header("Authorization", "Bearer " + authToken)
+                .GET()
+                .build();
+        
+        requests.send("list", request, response -> {
             if (response.statusCode() == 200) {
                 User[] users = objectMapper.readValue(response.body(), User[].class);
-                updateTable(users);
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to load users", "Error", JOptionPane.ERROR_MESSAGE);
+                Optional<String> next = response.headers().firstValue(NEXT_CURSOR_HEADER);
+                return () -> {
+                    loaded.addAll(Arrays.asList(users));
+                    if (next.isPresent()) {
+                        loadUsers(loaded, next.get());
+                    } else {
+                        updateTable(loaded);
+                    }
+                };
             }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Connection error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+            return () -> JOptionPane.showMessageDialog(this, "Failed to load users", "Error", JOptionPane.ERROR_MESSAGE);
+        }, "Connection error: ");
     }
     
-    private void updateTable(User[] users) {
+    private void updateTable(List<User> users) {
         tableModel.setRowCount(0);
         for (User user : users) {
             Object[] row = {
@@ -163,14 +186,25 @@ public class UserManagementPanel extends JPanel {
         }
         
         Long userId = (Long) tableModel.getValueAt(selectedRow, 0);
-        User user = getUserById(userId);
-        if (user != null) {
-            UserDialog dialog = new UserDialog(SwingUtilities.getWindowAncestor(this), httpClient, objectMapper, authToken, user);
-            dialog.setVisible(true);
-            if (dialog.isUserSaved()) {
-                loadUsers();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/api/users/" + userId))
+                .header("Authorization", "Bearer " + authToken)
+                .GET()
+                .build();
+        
+        requests.send("edit", request, response -> {
+            if (response.statusCode() != 200) {
+                return null;
             }
-        }
+            User user = objectMapper.readValue(response.body(), User.class);
+            return () -> {
+                UserDialog dialog = new UserDialog(SwingUtilities.getWindowAncestor(this), httpClient, objectMapper, authToken, user);
+                dialog.setVisible(true);
+                if (dialog.isUserSaved()) {
+                    loadUsers();
+                }
+            };
+        }, "Error loading user: ");
     }
     
     private void deleteSelectedUser() {
@@ -188,48 +222,25 @@ public class UserManagementPanel extends JPanel {
     }
     
     private void deleteUser(Long userId) {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/users/" + userId))
-                    .header("Authorization", "Bearer " + authToken)
-                    .DELETE()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/api/users/" + userId))
+                .header("Authorization", "Bearer " + authToken)
+                .DELETE()
+                .build();
+        
+        requests.send(null, request, response -> () -> {
             if (response.statusCode() == 200) {
                 JOptionPane.showMessageDialog(this, "User deleted successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
                 loadUsers();
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to delete user", "Error", JOptionPane.ERROR_MESSAGE);
             }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Delete error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-    
-    private User getUserById(Long userId) {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("http://localhost:8080/api/users/" + userId))
-                    .header("Authorization", "Bearer " + authToken)
-                    .GET()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() == 200) {
-                return objectMapper.readValue(response.body(), User.class);
-            }
-        } catch (IOException | InterruptedException e) {
-            JOptionPane.showMessageDialog(this, "Error loading user: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
-        return null;
+        }, "Delete error: ");
     }
     
     public void setAuthToken(String authToken) {
         this.authToken = authToken;
+        requests.cancelAll();
+        loaded = false;
     }
 }
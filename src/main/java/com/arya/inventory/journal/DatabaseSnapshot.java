@@ -0,0 +1,146 @@
+package com.arya.inventory.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+// Binary image of the journaled tables: an 8-byte magic, then every row as a journal insert
+// record ([int length][payload], tables in foreign-key order, rows by id), then a trailer of
+// [int -1][int crc32c of all payloads][long rows]. Restoring it is replaying a journal that
+// holds nothing but inserts, so the same JournalReplayer bulk-loads it.
+public final class DatabaseSnapshot {
+    
+    private static final byte[] MAGIC = "INVSNAP1".getBytes(StandardCharsets.US_ASCII);
+    private static final int END = -1;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    
+    private DatabaseSnapshot() {}
+    
+    // Writes every row visible to the connection's transaction; the file is written next to
+    // the target and moved into place, so a failed dump never replaces a good snapshot.
+    // Returns the number of rows written.
+    public static long write(Connection connection, Path file) throws IOException, SQLException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path partial = parent.resolve(file.getFileName() + ".partial");
+        CRC32C crc = new CRC32C();
+        long rows = 0;
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            out.put(MAGIC);
+            for (JournalCodec.Table table : JournalCodec.Table.values()) {
+                String sql = "SELECT " + String.join(", ", table.columns) + " FROM " + table.name + " ORDER BY id";
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setFetchSize(1000);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        Object[] values = new Object[table.columns.length];
+                        while (rs.next()) {
+                            for (int i = 0; i < values.length; i++) {
+                                Object value = rs.getObject(i + 1);
+                                values[i] = value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : value;
+                            }
+                            ByteBuffer payload = JournalCodec.encode(JournalCodec.INSERT, table, values);
+                            crc.update(payload.duplicate());
+                            if (out.remaining() < 4 + payload.remaining()) {
+                                drain(channel, out);
+                                if (out.remaining() < 4 + payload.remaining()) {
+                                    throw new IllegalStateException("Row " + values[0] + " of " + table.name + " is too large for a snapshot");
+                                }
+                            }
+                            out.putInt(payload.remaining()).put(payload);
+                            rows++;
+                        }
+                    }
+                }
+            }
+            if (out.remaining() < 16) {
+                drain(channel, out);
+            }
+            out.putInt(END).putInt((int) crc.getValue()).putLong(rows);
+            drain(channel, out);
+            channel.force(true);
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+    
+    // Passes every row of the snapshot to the handler in order and returns the row count.
+    // The checksum covers the whole file, so a damaged snapshot is only detected at the end.
+    public static long read(Path file, StockJournal.RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE).flip();
+            if (!fill(channel, in, MAGIC.length)) {
+                throw new IOException(file + " is not a database snapshot");
+            }
+            byte[] magic = new byte[MAGIC.length];
+            in.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(file + " is not a database snapshot");
+            }
+            CRC32C crc = new CRC32C();
+            long rows = 0;
+            while (true) {
+                if (!fill(channel, in, 4)) {
+                    throw new IOException("Snapshot " + file + " is truncated");
+                }
+                int length = in.getInt();
+                if (length == END) {
+                    if (!fill(channel, in, 12)) {
+                        throw new IOException("Snapshot " + file + " is truncated");
+                    }
+                    int checksum = in.getInt();
+                    long expectedRows = in.getLong();
+                    if (checksum != (int) crc.getValue() || expectedRows != rows) {
+                        throw new IOException("Snapshot " + file + " is corrupt");
+                    }
+                    return rows;
+                }
+                if (length <= 0 || length > BUFFER_SIZE || !fill(channel, in, length)) {
+                    throw new IOException("Snapshot " + file + " is corrupt or truncated");
+                }
+                ByteBuffer payload = in.slice(in.position(), length);
+                crc.update(payload.duplicate());
+                handler.accept(payload);
+                in.position(in.position() + length);
+                rows++;
+            }
+        }
+    }
+    
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+    
+    // Makes at least the given number of bytes readable, refilling from the channel as needed
+    private static boolean fill(FileChannel channel, ByteBuffer in, int bytes) throws IOException {
+        if (in.remaining() >= bytes) {
+            return true;
+        }
+        in.compact();
+        while (in.position() < bytes) {
+            if (channel.read(in) < 0) {
+                in.flip();
+                return false;
+            }
+        }
+        in.flip();
+        return true;
+    }
+}
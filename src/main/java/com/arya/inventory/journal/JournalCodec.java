@@ -0,0 +1,195 @@
+package com.arya.inventory.journal;
+
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Function;
+
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.StockLedgerEntry;
+import com.arya.inventory.entity.Supplier;
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.entity.User;
+
+// Binary form of journal records: [op][table][values], where each value is a type tag
+// followed by its bytes. Rows are recorded by column so replay can write them with plain
+// JDBC, keeping their ids, without going back through the entities.
+public final class JournalCodec {
+    
+    static final byte INSERT = 1;
+    static final byte UPDATE = 2;
+    static final byte DELETE = 3;
+    
+    private static final byte NULL = 0;
+    private static final byte LONG = 1;
+    private static final byte INT = 2;
+    private static final byte STRING = 3;
+    private static final byte DATE_TIME = 4;
+    private static final byte DECIMAL = 5;
+    
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(4096));
+    
+    // Tables are written in this order when batches are flushed, so foreign keys always
+    // point at rows that already exist. The first column is the id.
+    enum Table {
+        USERS("users", User.class, new String[] {"id", "username", "password", "role"},
+                entity -> {
+                    User user = (User) entity;
+                    return new Object[] {user.getId(), user.getUsername(), user.getPassword(), enumName(user.getRole())};
+                }),
+        SUPPLIERS("suppliers", Supplier.class, new String[] {"id", "name", "contact", "history", "address", "email", "phone"},
+                entity -> {
+                    Supplier supplier = (Supplier) entity;
+                    return new Object[] {supplier.getId(), supplier.getName(), supplier.getContact(), supplier.getHistory(),
+                            supplier.getAddress(), supplier.getEmail(), supplier.getPhone()};
+                }),
+        PRODUCTS("products", Product.class,
+                new String[] {"id", "name", "sku", "category", "price", "qty", "description", "supplier_id"},
+                entity -> {
+                    Product product = (Product) entity;
+                    return new Object[] {product.getId(), product.getName(), product.getSku(), product.getCategory(),
+                            product.getPrice(), product.getQty(), product.getDescription(),
+                            product.getSupplier() != null ? product.getSupplier().getId() : null};
+                }),
+        TRANSACTIONS("transactions", Transaction.class,
+                new String[] {"id", "product_id", "qty", "type", "date", "user_id", "notes", "batch_number", "lot_number",
+                              "expiry_date", "manufacturing_date"},
+                entity -> {
+                    Transaction transaction = (Transaction) entity;
+                    return new Object[] {transaction.getId(), transaction.getProduct().getId(), transaction.getQty(),
+                            enumName(transaction.getType()), transaction.getDate(), transaction.getUser().getId(),
+                            transaction.getNotes(), transaction.getBatchNumber(), transaction.getLotNumber(),
+                            transaction.getExpiryDate(), transaction.getManufacturingDate()};
+                }),
+        STOCK_LEDGER("stock_ledger", StockLedgerEntry.class, new String[] {"id", "product_id", "delta", "reason", "recorded_at"},
+                entity -> {
+                    StockLedgerEntry entry = (StockLedgerEntry) entity;
+                    return new Object[] {entry.getId(), entry.getProductId(), entry.getDelta(), enumName(entry.getReason()),
+                            entry.getRecordedAt()};
+                });
+        
+        final String name;
+        final Class<?> entityType;
+        final String[] columns;
+        private final Function<Object, Object[]> extractor;
+        
+        Table(String name, Class<?> entityType, String[] columns, Function<Object, Object[]> extractor) {
+            this.name = name;
+            this.entityType = entityType;
+            this.columns = columns;
+            this.extractor = extractor;
+        }
+        
+        static Table of(Class<?> entityType) {
+            for (Table table : values()) {
+                if (table.entityType == entityType) {
+                    return table;
+                }
+            }
+            return null;
+        }
+    }
+    
+    private JournalCodec() {}
+    
+    // Encodes the row an insert of the entity would journal, or null for entities that are
+    // not journaled. The returned buffer is reused by the calling thread; it is valid until
+    // the next call.
+    public static ByteBuffer encodeInsert(Object entity) {
+        Table table = Table.of(entity.getClass());
+        return table != null ? encodeRow(INSERT, table, entity) : null;
+    }
+    
+    // Decodes a record into its column values, as replay does before binding them
+    public static Object[] decode(ByteBuffer payload) {
+        byte op = payload.get();
+        Table table = Table.values()[payload.get()];
+        return readValues(payload, op == DELETE ? 1 : table.columns.length);
+    }
+    
+    static ByteBuffer encodeRow(byte op, Table table, Object entity) {
+        return encode(op, table, table.extractor.apply(entity));
+    }
+    
+    static ByteBuffer encodeDelete(Table table, Long id) {
+        return encode(DELETE, table, new Object[] {id});
+    }
+    
+    static ByteBuffer encode(byte op, Table table, Object[] values) {
+        ByteBuffer buffer = BUFFERS.get();
+        while (true) {
+            try {
+                buffer.clear();
+                buffer.put(op).put((byte) table.ordinal());
+                for (Object value : values) {
+                    writeValue(buffer, value);
+                }
+                return buffer.flip();
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                BUFFERS.set(buffer);
+            }
+        }
+    }
+    
+    static Object[] readValues(ByteBuffer buffer, int count) {
+        Object[] values = new Object[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = readValue(buffer);
+        }
+        return values;
+    }
+    
+    private static void writeValue(ByteBuffer buffer, Object value) {
+        if (value == null) {
+            buffer.put(NULL);
+        } else if (value instanceof Long l) {
+            buffer.put(LONG).putLong(l);
+        } else if (value instanceof Integer i) {
+            buffer.put(INT).putInt(i);
+        } else if (value instanceof String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            buffer.put(STRING).putInt(bytes.length).put(bytes);
+        } else if (value instanceof LocalDateTime time) {
+            buffer.put(DATE_TIME).putLong(time.toEpochSecond(ZoneOffset.UTC)).putInt(time.getNano());
+        } else if (value instanceof BigDecimal decimal) {
+            byte[] bytes = decimal.toPlainString().getBytes(StandardCharsets.US_ASCII);
+            buffer.put(DECIMAL).putInt(bytes.length).put(bytes);
+        } else {
+            throw new IllegalArgumentException("Cannot journal a " + value.getClass().getName());
+        }
+    }
+    
+    private static Object readValue(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case LONG:
+                return buffer.getLong();
+            case INT:
+                return buffer.getInt();
+            case STRING:
+                return new String(bytes(buffer), StandardCharsets.UTF_8);
+            case DATE_TIME:
+                return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            case DECIMAL:
+                return new BigDecimal(new String(bytes(buffer), StandardCharsets.US_ASCII));
+            default:
+                throw new IllegalStateException("Unknown journal value tag " + tag);
+        }
+    }
+    
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+    
+    private static String enumName(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+}
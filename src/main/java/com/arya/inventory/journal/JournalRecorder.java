@@ -0,0 +1,240 @@
+package com.arya.inventory.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.arya.inventory.service.StockFlowService;
+import com.arya.inventory.service.StockLedgerService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Makes the in-memory database durable: every committed change to users, suppliers,
+// products, transactions and the stock ledger is appended to the journal, and at startup
+// the journal is replayed into the empty schema before the web server takes requests.
+// Product quantities and the daily flow rollup are then rebuilt from the replayed ledger,
+// which is why bulk stock UPDATEs need no records of their own. A transaction's records are
+// appended just before its JDBC commit, while it still holds its row locks, so the journal
+// follows the database commit order that replay depends on. Requests return once their
+// records are durable; waiting happens after commit, so row locks are never held for it.
+@Component
+@ConditionalOnProperty(name = "inventory.journal.enabled", havingValue = "true")
+public class JournalRecorder implements SmartLifecycle, PostInsertEventListener,
+        PostUpdateEventListener, PostDeleteEventListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(JournalRecorder.class);
+    
+    private final DataSource dataSource;
+    private final EntityManagerFactory entityManagerFactory;
+    private final StockLedgerService stockLedgerService;
+    private final StockFlowService stockFlowService;
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    
+    private volatile StockJournal journal;
+    
+    public JournalRecorder(DataSource dataSource, EntityManagerFactory entityManagerFactory,
+                           StockLedgerService stockLedgerService, StockFlowService stockFlowService,
+                           @Value("${inventory.journal.directory:data/journal}") Path directory,
+                           @Value("${inventory.journal.segment-size-mb:64}") int segmentSizeMb,
+                           @Value("${inventory.journal.fsync:true}") boolean fsync) {
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        this.stockLedgerService = stockLedgerService;
+        this.stockFlowService = stockFlowService;
+        this.directory = directory;
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.fsync = fsync;
+    }
+    
+    @Override
+    public void start() {
+        long started = System.nanoTime();
+        long records;
+        try (Connection connection = dataSource.getConnection()) {
+            String database = connection.getMetaData().getDatabaseProductName();
+            if (!"H2".equals(database)) {
+                throw new IllegalStateException("inventory.journal.enabled is for the in-memory H2 database, not " + database);
+            }
+            JournalReplayer replayer = new JournalReplayer(connection, 1000);
+            journal = StockJournal.open(directory, segmentSize, fsync, replayer);
+            replayer.finish();
+            replayer.restartSequences();
+            records = replayer.getRecords();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the stock journal in " + directory, e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not replay the stock journal", e);
+        }
+        if (records > 0) {
+            int corrected = stockLedgerService.replay();
+            stockFlowService.rebuild();
+            log.info("Replayed {} journal records in {} ms ({} product quantities rebuilt from the ledger)",
+                    records, (System.nanoTime() - started) / 1_000_000, corrected);
+        }
+        
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_INSERT, this);
+        listeners.appendListeners(EventType.POST_UPDATE, this);
+        listeners.appendListeners(EventType.POST_DELETE, this);
+    }
+    
+    @Override
+    public void stop() {
+        StockJournal closing = journal;
+        journal = null;
+        if (closing != null) {
+            try {
+                closing.close();
+            } catch (IOException e) {
+                log.warn("Could not close the stock journal", e);
+            }
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return journal != null;
+    }
+    
+    // Before the web server (and anything else that might write) starts
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+    
+    // Records are taken at flush time and kept until commit, not collected after it
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+    
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        JournalCodec.Table table = JournalCodec.Table.of(event.getPersister().getMappedClass());
+        if (table != null) {
+            record(event.getSession(), JournalCodec.encodeRow(JournalCodec.INSERT, table, event.getEntity()));
+        }
+    }
+    
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        JournalCodec.Table table = JournalCodec.Table.of(event.getPersister().getMappedClass());
+        if (table != null) {
+            record(event.getSession(), JournalCodec.encodeRow(JournalCodec.UPDATE, table, event.getEntity()));
+        }
+    }
+    
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        JournalCodec.Table table = JournalCodec.Table.of(event.getPersister().getMappedClass());
+        if (table != null) {
+            record(event.getSession(), JournalCodec.encodeDelete(table, (Long) event.getId()));
+        }
+    }
+    
+    // Runs during a flush, inside the transaction. Records are held per session until
+    // Hibernate's before-completion step, which follows the final flush and precedes the
+    // JDBC commit, so a rolled-back transaction never reaches the journal.
+    private void record(EventSource session, ByteBuffer payload) {
+        StockJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        // The copy from the codec's thread-local buffer must outlive this event
+        ByteBuffer copy = ByteBuffer.allocate(payload.remaining()).put(payload).flip();
+        boolean synchronizing = TransactionSynchronizationManager.isSynchronizationActive();
+        PendingRecords pending = synchronizing ? (PendingRecords) TransactionSynchronizationManager.getResource(session) : null;
+        if (pending != null) {
+            pending.payloads.add(copy);
+            return;
+        }
+        PendingRecords transactionRecords = new PendingRecords(current);
+        transactionRecords.payloads.add(copy);
+        session.getActionQueue().registerProcess(transactionRecords);
+        if (!synchronizing) {
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> {
+                if (success) {
+                    awaitDurable(current, transactionRecords.position);
+                }
+            });
+            return;
+        }
+        // Keyed by session, so a REQUIRES_NEW transaction nested in this one keeps its own records
+        TransactionSynchronizationManager.bindResource(session, transactionRecords);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                awaitDurable(current, transactionRecords.position);
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(session);
+            }
+        });
+    }
+    
+    // A transaction's records, appended in flush order once no more can follow
+    private static final class PendingRecords implements BeforeTransactionCompletionProcess {
+        
+        private final StockJournal journal;
+        private final List<ByteBuffer> payloads = new ArrayList<>();
+        private long position = -1;
+        
+        PendingRecords(StockJournal journal) {
+            this.journal = journal;
+        }
+        
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            try {
+                for (ByteBuffer payload : payloads) {
+                    position = journal.append(payload);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write to the stock journal", e);
+            }
+        }
+    }
+    
+    private static void awaitDurable(StockJournal journal, long position) {
+        try {
+            journal.awaitDurable(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Stock journal sync failed", e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.arya.inventory.journal;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+// Writes journal records back into the database over one JDBC connection. Inserts, nearly
+// all of a journal, are batched per table; an update or delete first flushes every pending
+// batch so it applies in journal order.
+public class JournalReplayer implements StockJournal.RecordHandler {
+    
+    private final Connection connection;
+    private final int batchSize;
+    private final PreparedStatement[] inserts = new PreparedStatement[JournalCodec.Table.values().length];
+    private final int[] pending = new int[inserts.length];
+    private int pendingTotal;
+    private long records;
+    
+    public JournalReplayer(Connection connection, int batchSize) throws SQLException {
+        this.connection = connection;
+        this.batchSize = batchSize;
+        connection.setAutoCommit(false);
+    }
+    
+    @Override
+    public void accept(ByteBuffer payload) {
+        try {
+            byte op = payload.get();
+            JournalCodec.Table table = JournalCodec.Table.values()[payload.get()];
+            switch (op) {
+                case JournalCodec.INSERT -> insert(table, JournalCodec.readValues(payload, table.columns.length));
+                case JournalCodec.UPDATE -> update(table, JournalCodec.readValues(payload, table.columns.length));
+                case JournalCodec.DELETE -> delete(table, (Long) JournalCodec.readValues(payload, 1)[0]);
+                default -> throw new IllegalStateException("Unknown journal operation " + op);
+            }
+            records++;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not replay journal record " + (records + 1), e);
+        }
+    }
+    
+    public long getRecords() {
+        return records;
+    }
+    
+    // Flushes and commits what is left; the replayer must not be used afterwards
+    public void finish() throws SQLException {
+        flush();
+        for (PreparedStatement statement : inserts) {
+            if (statement != null) {
+                statement.close();
+            }
+        }
+        connection.commit();
+    }
+    
+    // Moves each table's id sequence past the replayed rows. Hibernate's pooled optimizer
+    // hands out the 50 ids below each sequence value, hence the extra 50.
+    public void restartSequences() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (JournalCodec.Table table : JournalCodec.Table.values()) {
+                long max;
+                try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table.name)) {
+                    rs.next();
+                    max = rs.getLong(1);
+                }
+                statement.execute("ALTER SEQUENCE " + table.name + "_seq RESTART WITH " + (max + 50));
+            }
+        }
+        connection.commit();
+    }
+    
+    private void insert(JournalCodec.Table table, Object[] values) throws SQLException {
+        PreparedStatement statement = inserts[table.ordinal()];
+        if (statement == null) {
+            String placeholders = String.join(", ", Arrays.stream(table.columns).map(column -> "?").toList());
+            statement = connection.prepareStatement("INSERT INTO " + table.name + " (" + String.join(", ", table.columns) +
+                    ") VALUES (" + placeholders + ")");
+            inserts[table.ordinal()] = statement;
+        }
+        bind(statement, values, 0, values.length, 1);
+        statement.addBatch();
+        pending[table.ordinal()]++;
+        if (++pendingTotal >= batchSize) {
+            flush();
+        }
+    }
+    
+    private void update(JournalCodec.Table table, Object[] values) throws SQLException {
+        flush();
+        String[] columns = Arrays.copyOfRange(table.columns, 1, table.columns.length);
+        String sql = "UPDATE " + table.name + " SET " + String.join(" = ?, ", columns) + " = ? WHERE id = ?";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, values, 1, values.length, 1);
+            statement.setObject(values.length, values[0]);
+            if (statement.executeUpdate() == 0) {
+                insert(table, values);
+            }
+        }
+    }
+    
+    private void delete(JournalCodec.Table table, Long id) throws SQLException {
+        flush();
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + table.name + " WHERE id = ?")) {
+            statement.setLong(1, id);
+            statement.executeUpdate();
+        }
+    }
+    
+    private void flush() throws SQLException {
+        if (pendingTotal == 0) {
+            return;
+        }
+        for (int i = 0; i < inserts.length; i++) {
+            if (pending[i] > 0) {
+                inserts[i].executeBatch();
+                pending[i] = 0;
+            }
+        }
+        pendingTotal = 0;
+        connection.commit();
+    }
+    
+    private static void bind(PreparedStatement statement, Object[] values, int from, int to, int firstIndex) throws SQLException {
+        for (int i = from; i < to; i++) {
+            statement.setObject(firstIndex + i - from, values[i]);
+        }
+    }
+}
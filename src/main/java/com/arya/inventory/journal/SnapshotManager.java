@@ -0,0 +1,185 @@
+package com.arya.inventory.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.arya.inventory.dto.SnapshotReport;
+import com.arya.inventory.service.StockFlowService;
+
+// Dumps the database to a DatabaseSnapshot file and, with inventory.snapshot.restore, loads
+// that file into the empty in-memory database at startup, before DataInitializer and the web
+// server run. A restored database already has its admin user and sample data, so seeding
+// (and its BCrypt hashing) is skipped.
+@Component
+public class SnapshotManager implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(SnapshotManager.class);
+    
+    private final DataSource dataSource;
+    private final StockFlowService stockFlowService;
+    private final Path file;
+    private final boolean restore;
+    private final int batchSize;
+    private final boolean journalEnabled;
+    
+    private volatile boolean running;
+    
+    public SnapshotManager(DataSource dataSource, StockFlowService stockFlowService,
+                           @Value("${inventory.snapshot.file:data/snapshot.bin}") Path file,
+                           @Value("${inventory.snapshot.restore:false}") boolean restore,
+                           @Value("${inventory.snapshot.batch-size:5000}") int batchSize,
+                           @Value("${inventory.journal.enabled:false}") boolean journalEnabled) {
+        this.dataSource = dataSource;
+        this.stockFlowService = stockFlowService;
+        this.file = file;
+        this.restore = restore;
+        this.batchSize = batchSize;
+        this.journalEnabled = journalEnabled;
+    }
+    
+    // Reads everything in one repeatable-read transaction, so the tables are dumped as of
+    // a single point in time while writes carry on
+    public SnapshotReport dump() {
+        long started = System.nanoTime();
+        long rows;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try {
+                rows = DatabaseSnapshot.write(connection, file);
+            } finally {
+                connection.rollback();
+            }
+            return new SnapshotReport(file.toString(), rows, Files.size(file), (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write snapshot " + file, e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read the database for a snapshot", e);
+        }
+    }
+    
+    // Bulk-loads the snapshot into the connection's (H2) database and returns the number of
+    // rows. Maintaining the secondary indexes row by row is most of the cost of a load, so
+    // they are dropped first and built once at the end.
+    public long restore(Connection connection, Path snapshot) throws IOException, SQLException {
+        JournalReplayer replayer = new JournalReplayer(connection, batchSize);
+        long rows;
+        try (Statement statement = connection.createStatement()) {
+            List<String> indexes = dropSecondaryIndexes(statement);
+            // The snapshot was consistent when it was taken, so checking every foreign key
+            // again only slows the load down
+            statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            try {
+                rows = DatabaseSnapshot.read(snapshot, replayer);
+                replayer.finish();
+            } finally {
+                statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+                for (String index : indexes) {
+                    statement.execute(index);
+                }
+                connection.commit();
+            }
+        }
+        replayer.restartSequences();
+        return rows;
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        if (!restore) {
+            return;
+        }
+        if (journalEnabled) {
+            throw new IllegalStateException("inventory.snapshot.restore and inventory.journal.enabled both rebuild the database at startup; enable one");
+        }
+        if (!Files.exists(file)) {
+            log.info("No snapshot at {}; starting from an empty database", file);
+            return;
+        }
+        long started = System.nanoTime();
+        long rows;
+        try (Connection connection = dataSource.getConnection()) {
+            String database = connection.getMetaData().getDatabaseProductName();
+            if (!"H2".equals(database)) {
+                throw new IllegalStateException("inventory.snapshot.restore is for the in-memory H2 database, not " + database);
+            }
+            if (!isEmpty(connection)) {
+                log.warn("Database already has users; not restoring snapshot {}", file);
+                return;
+            }
+            rows = restore(connection, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not restore snapshot " + file, e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not restore snapshot " + file, e);
+        }
+        stockFlowService.rebuild();
+        log.info("Restored {} rows from snapshot {} in {} ms", rows, file, (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Before the web server and DataInitializer, like the journal
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+    
+    // Drops the plain (non-unique) indexes of the schema and returns the statements that
+    // recreate them. Indexes that back a constraint cannot be dropped and are left in place.
+    private static List<String> dropSecondaryIndexes(Statement statement) throws SQLException {
+        List<String> definitions = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery("SCRIPT NODATA")) {
+            while (rs.next()) {
+                if (rs.getString(1).startsWith("CREATE INDEX ")) {
+                    definitions.add(rs.getString(1));
+                }
+            }
+        }
+        List<String> dropped = new ArrayList<>();
+        for (String definition : definitions) {
+            String name = definition.substring("CREATE INDEX ".length(), definition.indexOf(" ON "));
+            try {
+                statement.execute("DROP INDEX " + name);
+                dropped.add(definition);
+            } catch (SQLException e) {
+                log.debug("Keeping index {} during the restore: {}", name, e.getMessage());
+            }
+        }
+        return dropped;
+    }
+    
+    private static boolean isEmpty(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+            rs.next();
+            return rs.getLong(1) == 0;
+        }
+    }
+}
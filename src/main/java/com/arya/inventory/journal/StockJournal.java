@@ -0,0 +1,326 @@
+package com.arya.inventory.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only journal over fixed-size, memory-mapped segment files. A record is
+// [int length][int crc32c][payload]; a segment that was closed to start the next one ends
+// with a length of -1, and anything else that does not check out marks the end of the log.
+// Appends only copy into the mapping under a short lock. Durability is group-committed: one
+// syncer thread forces everything written so far whenever someone waits, so concurrent
+// committers share each force instead of paying for one apiece.
+public class StockJournal implements Closeable {
+    
+    private static final int HEADER = 8;
+    private static final int END_OF_SEGMENT = -1;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d+)\\.log");
+    
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    
+    // Guarded by this
+    private Segment current;
+    private final List<Segment> rolled = new ArrayList<>();
+    
+    private volatile long written;
+    private volatile long synced;
+    private final Object syncLock = new Object();
+    private long requested;
+    private volatile IOException failure;
+    private volatile boolean closed;
+    private final Thread syncer;
+    
+    private StockJournal(Path directory, int segmentSize, boolean fsync, Segment current) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        this.current = current;
+        this.written = current.position();
+        this.synced = written;
+        this.requested = written;
+        if (fsync) {
+            syncer = new Thread(this::syncLoop, "stock-journal-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        } else {
+            syncer = null;
+        }
+    }
+    
+    // Opens the journal in the directory, first passing every intact record to the handler
+    // in order. A torn or corrupt tail is cut off so new records follow the last good one.
+    public static StockJournal open(Path directory, int segmentSize, boolean fsync, RecordHandler handler) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = segmentFiles(directory);
+        CRC32C crc = new CRC32C();
+        Segment last = null;
+        for (int i = 0; i < files.size(); i++) {
+            Segment segment = Segment.open(files.get(i), number(files.get(i)));
+            MappedByteBuffer buffer = segment.buffer;
+            boolean intact = false;
+            // The end-of-segment marker may sit in the last four bytes, too few for a header
+            while (buffer.remaining() >= 4) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                if (length == END_OF_SEGMENT) {
+                    intact = true;
+                    break;
+                }
+                if (length <= 0 || buffer.remaining() < 4) {
+                    buffer.position(start);
+                    break;
+                }
+                int checksum = buffer.getInt();
+                if (length > buffer.remaining()) {
+                    buffer.position(start);
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    buffer.position(start);
+                    break;
+                }
+                handler.accept(payload);
+                buffer.position(buffer.position() + length);
+            }
+            if (intact && i < files.size() - 1) {
+                segment.close();
+                continue;
+            }
+            if (intact) {
+                segment.close();
+                last = Segment.create(directory, segment.number + 1, segmentSize);
+            } else {
+                // Whatever follows the last good record is garbage and must never be read back
+                segment.zeroFrom(buffer.position());
+                for (Path later : files.subList(i + 1, files.size())) {
+                    Files.delete(later);
+                }
+                last = segment;
+            }
+            break;
+        }
+        if (last == null) {
+            last = Segment.create(directory, 1, segmentSize);
+        }
+        return new StockJournal(directory, segmentSize, fsync, last);
+    }
+    
+    // Returns the position just past the record, for awaitDurable
+    public long append(ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        if (HEADER + length + 4 > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + length + " bytes does not fit in a segment");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        int checksum = (int) crc.getValue();
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("Journal is closed");
+            }
+            // Always leave room for the end-of-segment marker
+            if (current.buffer.remaining() < HEADER + length + 4) {
+                if (current.buffer.remaining() >= 4) {
+                    current.buffer.putInt(END_OF_SEGMENT);
+                }
+                rolled.add(current);
+                current = Segment.create(directory, current.number + 1, segmentSize);
+            }
+            current.buffer.putInt(length).putInt(checksum).put(payload);
+            long position = current.position();
+            written = position;
+            return position;
+        }
+    }
+    
+    // Blocks until everything up to the position is on disk; without fsync the write to
+    // the mapping already survives a process crash, though not an OS crash
+    public void awaitDurable(long position) throws IOException {
+        if (!fsync || synced >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            requested = Math.max(requested, position);
+            syncLock.notifyAll();
+            while (synced < position && failure == null && !closed) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the journal", e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        if (synced < position) {
+            throw new IOException("Journal closed before the record was synced");
+        }
+    }
+    
+    public long getWrittenPosition() {
+        return written;
+    }
+    
+    private void syncLoop() {
+        while (true) {
+            synchronized (syncLock) {
+                while (!closed && requested <= synced) {
+                    try {
+                        syncLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+            }
+            try {
+                long target = sync();
+                synchronized (syncLock) {
+                    synced = Math.max(synced, target);
+                    syncLock.notifyAll();
+                }
+            } catch (IOException | RuntimeException e) {
+                synchronized (syncLock) {
+                    failure = e instanceof IOException io ? io : new IOException(e);
+                    syncLock.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+    
+    // Forces every record written so far and returns the position that is now durable
+    private long sync() throws IOException {
+        List<Segment> full;
+        Segment segment;
+        int end;
+        long target;
+        synchronized (this) {
+            full = new ArrayList<>(rolled);
+            rolled.clear();
+            segment = current;
+            end = segment.buffer.position();
+            target = written;
+        }
+        for (Segment s : full) {
+            s.buffer.force();
+            s.close();
+        }
+        if (end > segment.syncedTo) {
+            segment.buffer.force(segment.syncedTo, end - segment.syncedTo);
+            segment.syncedTo = end;
+        }
+        return target;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        synchronized (syncLock) {
+            syncLock.notifyAll();
+        }
+        if (syncer != null) {
+            try {
+                syncer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Segment s : rolled) {
+            s.buffer.force();
+            s.close();
+        }
+        current.buffer.force();
+        current.close();
+    }
+    
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                    .sorted((a, b) -> Long.compare(number(a), number(b)))
+                    .toList();
+        }
+    }
+    
+    private static long number(Path path) {
+        Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+        matcher.matches();
+        return Long.parseLong(matcher.group(1));
+    }
+    
+    @FunctionalInterface
+    public interface RecordHandler {
+        // The payload is only valid during the call
+        void accept(ByteBuffer payload) throws IOException;
+    }
+    
+    private static final class Segment {
+        private final long number;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int syncedTo;
+        
+        private Segment(long number, FileChannel channel, MappedByteBuffer buffer) {
+            this.number = number;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+        
+        static Segment open(Path path, long number) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(number, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+        
+        static Segment create(Path directory, long number, int size) throws IOException {
+            Path path = directory.resolve(String.format("journal-%08d.log", number));
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // Mapping past the end of the file grows it; the new space reads as zeros
+            return new Segment(number, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+        
+        // Global position: segments are numbered from 1 and never exceed 2 GB
+        long position() {
+            return (number << 31) + buffer.position();
+        }
+        
+        void zeroFrom(int offset) {
+            byte[] zeros = new byte[64 * 1024];
+            ByteBuffer tail = buffer.slice(offset, buffer.capacity() - offset);
+            while (tail.hasRemaining()) {
+                tail.put(zeros, 0, Math.min(zeros.length, tail.remaining()));
+            }
+            buffer.force();
+            buffer.position(offset);
+            syncedTo = offset;
+        }
+        
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
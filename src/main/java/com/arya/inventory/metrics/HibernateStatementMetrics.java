@@ -0,0 +1,54 @@
+package com.arya.inventory.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+// Counts the SQL statements Hibernate prepares, by kind. A JDBC batch is prepared once,
+// so a batched insert of 100 rows counts as one statement, as it costs one round trip.
+@Component
+public class HibernateStatementMetrics implements StatementInspector, HibernatePropertiesCustomizer {
+    
+    private static final String NAME = "inventory_hibernate_statements_total";
+    private static final String HELP = "SQL statements prepared by Hibernate";
+    
+    private final Counter selects;
+    private final Counter inserts;
+    private final Counter updates;
+    private final Counter deletes;
+    private final Counter others;
+    
+    public HibernateStatementMetrics(MetricsRegistry metricsRegistry) {
+        this.selects = metricsRegistry.counter(NAME, HELP, "kind", "select");
+        this.inserts = metricsRegistry.counter(NAME, HELP, "kind", "insert");
+        this.updates = metricsRegistry.counter(NAME, HELP, "kind", "update");
+        this.deletes = metricsRegistry.counter(NAME, HELP, "kind", "delete");
+        this.others = metricsRegistry.counter(NAME, HELP, "kind", "other");
+    }
+    
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+    
+    @Override
+    public String inspect(String sql) {
+        String statement = sql.stripLeading();
+        int end = 0;
+        while (end < statement.length() && Character.isLetter(statement.charAt(end))) {
+            end++;
+        }
+        switch (statement.substring(0, end).toLowerCase(Locale.ROOT)) {
+            case "select", "with" -> selects.increment();
+            case "insert" -> inserts.increment();
+            case "update" -> updates.increment();
+            case "delete" -> deletes.increment();
+            default -> others.increment();
+        }
+        return sql;
+    }
+}
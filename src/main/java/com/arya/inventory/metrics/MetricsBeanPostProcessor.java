@@ -0,0 +1,94 @@
+package com.arya.inventory.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+// Instruments infrastructure beans as they are created: every Spring Data repository method
+// gets a latency timer, and the Hikari pool reports connection wait and usage times plus its
+// occupancy. The registry is resolved lazily so it is not created ahead of other beans.
+@Component
+public class MetricsBeanPostProcessor implements BeanPostProcessor {
+    
+    private final ObjectProvider<MetricsRegistry> metricsRegistry;
+    
+    public MetricsBeanPostProcessor(ObjectProvider<MetricsRegistry> metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+    
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        // Repository proxies are built in afterPropertiesSet, so the customizer must be in place before it
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                            repositoryTimer(repositoryInformation.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // The pool starts on first use, which is still ahead of us here
+        if (bean instanceof HikariDataSource dataSource && !dataSource.isRunning()) {
+            dataSource.setMetricsTrackerFactory(this::poolTracker);
+        }
+        return bean;
+    }
+    
+    private MethodInterceptor repositoryTimer(String repository) {
+        Map<Method, Timer> timers = new ConcurrentHashMap<>();
+        return invocation -> {
+            Method method = invocation.getMethod();
+            if (method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            Timer timer = timers.computeIfAbsent(method, key -> metricsRegistry.getObject().timer(
+                    "inventory_repository_query_seconds", "Spring Data repository call latency",
+                    "repository", repository, "method", key.getName()));
+            long started = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                timer.recordSince(started);
+            }
+        };
+    }
+    
+    private IMetricsTracker poolTracker(String poolName, PoolStats poolStats) {
+        MetricsRegistry registry = metricsRegistry.getObject();
+        registry.gauge("hikaricp_connections_active", "Connections currently in use", poolStats::getActiveConnections, "pool", poolName);
+        registry.gauge("hikaricp_connections_idle", "Idle connections", poolStats::getIdleConnections, "pool", poolName);
+        registry.gauge("hikaricp_connections_pending", "Threads waiting for a connection", poolStats::getPendingThreads, "pool", poolName);
+        registry.gauge("hikaricp_connections_max", "Maximum pool size", poolStats::getMaxConnections, "pool", poolName);
+        Timer acquire = registry.timer("hikaricp_connection_acquire_seconds", "Time spent waiting for a pooled connection", "pool", poolName);
+        Timer usage = registry.timer("hikaricp_connection_usage_seconds", "Time a connection was held before being returned", "pool", poolName);
+        Counter timeouts = registry.counter("hikaricp_connection_timeouts_total", "Connection requests that timed out", "pool", poolName);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquire.record(elapsedAcquiredNanos);
+            }
+            
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usage.record(elapsedBorrowedMillis * 1_000_000L);
+            }
+            
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+}
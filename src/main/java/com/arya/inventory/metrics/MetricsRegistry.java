@@ -0,0 +1,166 @@
+package com.arya.inventory.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Process-wide timers, counters and gauges, rendered in the Prometheus text format by
+// MetricsController. Meters are identified by name plus label pairs and created on first use.
+@Component
+public class MetricsRegistry {
+    
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    
+    private final long windowNanos;
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+    
+    public MetricsRegistry(@Value("${inventory.metrics.window-seconds:60}") long windowSeconds) {
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+    }
+    
+    // Label values follow their names: timer("x_seconds", "...", "type", "STOCK_IN")
+    public Timer timer(String name, String help, String... labels) {
+        return (Timer) family(name, help, "summary").meters
+                .computeIfAbsent(labels(labels), key -> new Timer(windowNanos));
+    }
+    
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, "counter").meters
+                .computeIfAbsent(labels(labels), key -> new Counter());
+    }
+    
+    public void gauge(String name, String help, Supplier<Number> value, String... labels) {
+        family(name, help, "gauge").meters.put(labels(labels), new Gauge(value));
+    }
+    
+    // Times the surrounding transaction through to commit or rollback, adding an
+    // "outcome" label, so flush and commit cost is part of the measurement
+    public void recordUntilCompletion(String name, String help, long startNanos, String... labels) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            timer(name, help, withOutcome(labels, "success")).recordSince(startNanos);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                String outcome = status == STATUS_COMMITTED ? "success" : "error";
+                timer(name, help, withOutcome(labels, outcome)).recordSince(startNanos);
+            }
+        });
+    }
+    
+    public void writePrometheus(StringBuilder out) {
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            if (family.meters.isEmpty()) {
+                continue;
+            }
+            header(out, name, family.help, family.type);
+            if ("summary".equals(family.type)) {
+                writeTimers(out, name, family);
+            } else {
+                for (Map.Entry<String, Object> meter : family.meters.entrySet()) {
+                    Object value = meter.getValue();
+                    double number = value instanceof Counter
+                            ? ((Counter) value).getValue()
+                            : ((Gauge) value).value.get().doubleValue();
+                    sample(out, name, meter.getKey(), null, number);
+                }
+            }
+        }
+    }
+    
+    private void writeTimers(StringBuilder out, String name, Family family) {
+        StringBuilder maxes = new StringBuilder();
+        for (Map.Entry<String, Object> meter : family.meters.entrySet()) {
+            Timer timer = (Timer) meter.getValue();
+            String labels = meter.getKey();
+            Timer.Snapshot snapshot = timer.snapshot(QUANTILES);
+            for (int i = 0; i < QUANTILES.length; i++) {
+                sample(out, name, labels, "quantile=\"" + QUANTILES[i] + "\"", snapshot.quantileNanos[i] / NANOS_PER_SECOND);
+            }
+            sample(out, name + "_count", labels, null, timer.getCount());
+            sample(out, name + "_sum", labels, null, timer.getTotalNanos() / NANOS_PER_SECOND);
+            sample(maxes, name + "_max", labels, null, snapshot.maxNanos / NANOS_PER_SECOND);
+        }
+        header(out, name + "_max", family.help + " (windowed maximum)", "gauge");
+        out.append(maxes);
+    }
+    
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+    
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+    
+    private static void sample(StringBuilder out, String name, String labels, String extraLabel, double value) {
+        out.append(name);
+        if (!labels.isEmpty() || extraLabel != null) {
+            out.append('{').append(labels);
+            if (extraLabel != null) {
+                out.append(labels.isEmpty() ? "" : ",").append(extraLabel);
+            }
+            out.append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+    
+    private static String labels(String[] pairs) {
+        if (pairs.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            String value = String.valueOf(pairs[i + 1]);
+            labels.append(pairs[i]).append("=\"")
+                    .append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return labels.toString();
+    }
+    
+    private static String[] withOutcome(String[] labels, String outcome) {
+        String[] result = new String[labels.length + 2];
+        System.arraycopy(labels, 0, result, 0, labels.length);
+        result[labels.length] = "outcome";
+        result[labels.length + 1] = outcome;
+        return result;
+    }
+    
+    private static class Family {
+        private final String help;
+        private final String type;
+        private final Map<String, Object> meters = new ConcurrentSkipListMap<>();
+        
+        Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+    
+    private static class Gauge {
+        private final Supplier<Number> value;
+        
+        Gauge(Supplier<Number> value) {
+            this.value = value;
+        }
+    }
+}
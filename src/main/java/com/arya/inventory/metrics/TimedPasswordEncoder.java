@@ -0,0 +1,46 @@
+package com.arya.inventory.metrics;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// Times hashing separately from the rest of login and registration; with BCrypt it is
+// deliberately slow and usually the largest part of both
+public class TimedPasswordEncoder implements PasswordEncoder {
+    
+    private static final String NAME = "inventory_password_hash_seconds";
+    private static final String HELP = "Password hashing and verification time";
+    
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    
+    public TimedPasswordEncoder(PasswordEncoder delegate, MetricsRegistry metricsRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = metricsRegistry.timer(NAME, HELP, "operation", "encode");
+        this.matchesTimer = metricsRegistry.timer(NAME, HELP, "operation", "matches");
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        long started = System.nanoTime();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            encodeTimer.recordSince(started);
+        }
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long started = System.nanoTime();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            matchesTimer.recordSince(started);
+        }
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
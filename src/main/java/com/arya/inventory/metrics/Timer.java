@@ -0,0 +1,136 @@
+package com.arya.inventory.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency recorder with HDR-style log-linear buckets: every power of two is split into 32
+// sub-buckets, so any recorded value is reported within ~3% of its true value while a
+// record is a handful of atomic increments. Count and sum cover the whole process lifetime
+// (Prometheus computes rates from them); percentiles and max cover a sliding window of the
+// last one to two window lengths so they follow current load.
+public class Timer {
+    
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    
+    private final long windowNanos;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    
+    private volatile Window current;
+    private volatile Window previous;
+    
+    Timer(long windowNanos) {
+        this.windowNanos = windowNanos;
+        long now = System.nanoTime();
+        this.current = new Window(now);
+        this.previous = new Window(now);
+    }
+    
+    public void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        count.increment();
+        totalNanos.add(nanos);
+        Window window = window(System.nanoTime());
+        window.counts.incrementAndGet(index(nanos));
+        window.max.accumulateAndGet(nanos, Math::max);
+    }
+    
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+    
+    Snapshot snapshot(double[] quantiles) {
+        Window newer = window(System.nanoTime());
+        Window older = previous;
+        long[] merged = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            merged[i] = newer.counts.get(i) + older.counts.get(i);
+            total += merged[i];
+        }
+        long max = Math.max(newer.max.get(), older.max.get());
+        
+        long[] values = new long[quantiles.length];
+        for (int q = 0; q < quantiles.length; q++) {
+            long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS && total > 0; i++) {
+                seen += merged[i];
+                if (seen >= rank) {
+                    values[q] = Math.min(highestValue(i), max);
+                    break;
+                }
+            }
+        }
+        return new Snapshot(values, max);
+    }
+    
+    // Rotates lazily on use, so idle timers cost nothing
+    private Window window(long now) {
+        Window window = current;
+        if (now - window.started < windowNanos) {
+            return window;
+        }
+        synchronized (this) {
+            window = current;
+            if (now - window.started >= windowNanos) {
+                // Skip a whole window of history if nothing was recorded in the last one
+                previous = now - window.started >= 2 * windowNanos ? new Window(now) : window;
+                window = new Window(now);
+                current = window;
+            }
+            return window;
+        }
+    }
+    
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+    
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+    
+    private static class Window {
+        private final long started;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong max = new AtomicLong();
+        
+        Window(long started) {
+            this.started = started;
+        }
+    }
+    
+    static class Snapshot {
+        final long[] quantileNanos;
+        final long maxNanos;
+        
+        Snapshot(long[] quantileNanos, long maxNanos) {
+            this.quantileNanos = quantileNanos;
+            this.maxNanos = maxNanos;
+        }
+    }
+}
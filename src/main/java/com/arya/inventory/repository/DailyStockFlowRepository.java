@@ -0,0 +1,37 @@
+package com.arya.inventory.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.arya.inventory.entity.DailyStockFlow;
+import com.arya.inventory.entity.Transaction.TransactionType;
+
+@Repository
+public interface DailyStockFlowRepository extends JpaRepository<DailyStockFlow, Long> {
+    List<DailyStockFlow> findByProductIdAndDayBetweenOrderByDayAsc(Long productId, LocalDate startDay, LocalDate endDay);
+    
+    @Modifying
+    @Query("UPDATE DailyStockFlow s SET s.totalQty = s.totalQty + :qty, s.transactionCount = s.transactionCount + :count " +
+           "WHERE s.productId = :productId AND s.type = :type AND s.day = :day")
+    int increment(@Param("productId") Long productId,
+                  @Param("type") TransactionType type,
+                  @Param("day") LocalDate day,
+                  @Param("qty") Long qty,
+                  @Param("count") Long count);
+    
+    @Query("SELECT SUM(s.totalQty) FROM DailyStockFlow s WHERE s.productId = :productId AND s.type = :type")
+    Long getTotalQuantity(@Param("productId") Long productId, @Param("type") TransactionType type);
+    
+    @Query("SELECT SUM(s.totalQty) FROM DailyStockFlow s WHERE s.productId = :productId AND s.type = :type " +
+           "AND s.day BETWEEN :startDay AND :endDay")
+    Long getTotalQuantity(@Param("productId") Long productId,
+                          @Param("type") TransactionType type,
+                          @Param("startDay") LocalDate startDay,
+                          @Param("endDay") LocalDate endDay);
+}
@@ -1,9 +1,14 @@
 package com.arya.inventory.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,14 +17,72 @@ import com.arya.inventory.entity.Product;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    Optional<Product> findBySku(String sku);
     boolean existsBySku(String sku);
-    List<Product> findByCategory(String category);
-    List<Product> findByNameContainingIgnoreCase(String name);
     
-    @Query("SELECT p FROM Product p WHERE p.qty < :threshold")
-    List<Product> findLowStockProducts(@Param("threshold") Integer threshold);
+    // Read queries load the supplier in the same statement; responses include its name
+    @EntityGraph(attributePaths = "supplier")
+    Optional<Product> findWithSupplierById(Long id);
+    
+    @EntityGraph(attributePaths = "supplier")
+    Optional<Product> findBySku(String sku);
+    
+    @EntityGraph(attributePaths = "supplier")
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "supplier")
+    List<Product> findByCategoryAndIdGreaterThanOrderByIdAsc(String category, Long after, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "supplier")
+    List<Product> findByIdIn(Collection<Long> ids);
+    
+    // Sorted, numbered pages with a total count for the table views
+    @EntityGraph(attributePaths = "supplier")
+    Page<Product> findAllBy(Pageable pageable);
+    
+    @EntityGraph(attributePaths = "supplier")
+    Page<Product> findByCategory(String category, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "supplier")
+    Page<Product> findByIdIn(Collection<Long> ids, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "supplier")
+    Page<Product> findByCategoryAndIdIn(String category, Collection<Long> ids, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "supplier")
+    List<Product> findByChangeVersionGreaterThanOrderByChangeVersionAsc(Long version, Pageable pageable);
+    
+    @Query("SELECT p.id FROM Product p WHERE p.supplier.id = :supplierId")
+    List<Long> findIdsBySupplierId(@Param("supplierId") Long supplierId);
+    
+    // Id bound written as in TransactionRepository.findByDateRange, so the qty index is used
+    @EntityGraph(attributePaths = "supplier")
+    @Query("SELECT p FROM Product p WHERE p.qty < :threshold AND (:after = 0 OR p.id > :after) ORDER BY p.id")
+    List<Product> findLowStockProducts(@Param("threshold") Integer threshold, @Param("after") Long after, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "supplier")
+    @Query("SELECT p FROM Product p WHERE p.supplier.id = :supplierId AND p.id > :after ORDER BY p.id")
+    List<Product> findBySupplierId(@Param("supplierId") Long supplierId, @Param("after") Long after, Pageable pageable);
+    
+    // Applies the delta in a single conditional UPDATE so concurrent writers never lose updates
+    // and stock never goes negative; returns 0 when the product is missing or stock is insufficient
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.qty = p.qty + :delta, p.changeVersion = :version WHERE p.id = :productId AND p.qty + :delta >= 0")
+    int applyStockDelta(@Param("productId") Long productId, @Param("delta") Integer delta, @Param("version") Long version);
+    
+    // Takes the row lock without changing the row
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.qty = p.qty WHERE p.id = :productId")
+    int lockRow(@Param("productId") Long productId);
+    
+    @Query("SELECT p.qty FROM Product p WHERE p.id = :productId")
+    Integer findQtyById(@Param("productId") Long productId);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.qty = :qty, p.changeVersion = :version WHERE p.id = :productId")
+    int setStock(@Param("productId") Long productId, @Param("qty") Integer qty, @Param("version") Long version);
     
-    @Query("SELECT p FROM Product p WHERE p.supplier.id = :supplierId")
-    List<Product> findBySupplierId(@Param("supplierId") Long supplierId);
+    // Marks the supplier's products as changed, e.g. when the supplier name they show changes
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.changeVersion = :version WHERE p.supplier.id = :supplierId")
+    int stampBySupplier(@Param("supplierId") Long supplierId, @Param("version") Long version);
 }
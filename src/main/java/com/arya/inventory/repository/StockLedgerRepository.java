@@ -0,0 +1,39 @@
+package com.arya.inventory.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.arya.inventory.entity.StockLedgerEntry;
+
+@Repository
+public interface StockLedgerRepository extends JpaRepository<StockLedgerEntry, Long> {
+    List<StockLedgerEntry> findByProductIdAndIdGreaterThanOrderByIdAsc(Long productId, Long after, Pageable pageable);
+    
+    boolean existsByProductId(Long productId);
+    
+    // Per product, in id order: stored qty, latest snapshot qty and last entry id, then the
+    // sum, count and last id of the entries after that snapshot. Every tail aggregate is a
+    // range scan of (product_id, id) starting at the snapshot, never the full history.
+    @Query("SELECT p.id, p.sku, p.qty, s.qty, s.lastEntryId, " +
+           "(SELECT COALESCE(SUM(e.delta), 0) FROM StockLedgerEntry e WHERE e.productId = p.id AND e.id > COALESCE(s.lastEntryId, 0L)), " +
+           "(SELECT COUNT(e) FROM StockLedgerEntry e WHERE e.productId = p.id AND e.id > COALESCE(s.lastEntryId, 0L)), " +
+           "(SELECT MAX(e.id) FROM StockLedgerEntry e WHERE e.productId = p.id AND e.id > COALESCE(s.lastEntryId, 0L)) " +
+           "FROM Product p LEFT JOIN StockSnapshot s ON s.productId = p.id " +
+           "AND s.lastEntryId = (SELECT MAX(s2.lastEntryId) FROM StockSnapshot s2 WHERE s2.productId = p.id) " +
+           "WHERE p.id > :after ORDER BY p.id")
+    List<Object[]> findLedgerStates(@Param("after") Long after, Pageable pageable);
+    
+    @Query("SELECT COALESCE(SUM(e.delta), 0) FROM StockLedgerEntry e " +
+           "WHERE e.productId = :productId AND e.id > :after AND e.recordedAt <= :at")
+    Long sumDeltas(@Param("productId") Long productId, @Param("after") Long after, @Param("at") LocalDateTime at);
+    
+    @Query("SELECT p.id FROM Product p WHERE p.id > :after AND NOT EXISTS " +
+           "(SELECT e.id FROM StockLedgerEntry e WHERE e.productId = p.id) ORDER BY p.id")
+    List<Long> findProductIdsWithoutLedger(@Param("after") Long after, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package com.arya.inventory.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.arya.inventory.entity.StockSnapshot;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+    Optional<StockSnapshot> findFirstByProductIdAndAsOfLessThanEqualOrderByLastEntryIdDesc(Long productId, LocalDateTime at);
+}
@@ -1,8 +1,11 @@
 package com.arya.inventory.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,7 +17,10 @@ import com.arya.inventory.entity.Supplier;
 public interface SupplierRepository extends JpaRepository<Supplier, Long> {
     Optional<Supplier> findByName(String name);
     boolean existsByName(String name);
-    List<Supplier> findByNameContainingIgnoreCase(String name);
+    List<Supplier> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+    Page<Supplier> findAllBy(Pageable pageable);
+    Page<Supplier> findByIdIn(Collection<Long> ids, Pageable pageable);
+    List<Supplier> findByChangeVersionGreaterThanOrderByChangeVersionAsc(Long version, Pageable pageable);
     
     @Query("SELECT s FROM Supplier s WHERE s.email = :email")
     Optional<Supplier> findByEmail(@Param("email") String email);
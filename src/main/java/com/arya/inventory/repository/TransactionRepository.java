@@ -2,37 +2,83 @@ package com.arya.inventory.repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.arya.inventory.entity.Transaction;
 import com.arya.inventory.entity.Transaction.TransactionType;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findByProductId(Long productId);
-    List<Transaction> findByUserId(Long userId);
-    List<Transaction> findByType(TransactionType type);
     
-    @Query("SELECT t FROM Transaction t WHERE t.date BETWEEN :startDate AND :endDate")
+    // Read queries load product and user in the same statement; responses include both
+    @EntityGraph(attributePaths = {"product", "user"})
+    Optional<Transaction> findWithProductAndUserById(Long id);
+    
+    @EntityGraph(attributePaths = {"product", "user"})
+    List<Transaction> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"product", "user"})
+    Page<Transaction> findAllBy(Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"product", "user"})
+    List<Transaction> findByProductIdAndIdGreaterThanOrderByIdAsc(Long productId, Long after, Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"product", "user"})
+    List<Transaction> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long after, Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"product", "user"})
+    List<Transaction> findByTypeAndIdGreaterThanOrderByIdAsc(TransactionType type, Long after, Pageable pageable);
+    
+    // A plain id > :after bound is a primary key range the planner prefers over the date index,
+    // walking every newer row; written this way the date index finds the range, sorted by id
+    @EntityGraph(attributePaths = {"product", "user"})
+    @Query("SELECT t FROM Transaction t WHERE t.date BETWEEN :startDate AND :endDate AND (:after = 0 OR t.id > :after) ORDER BY t.id")
     List<Transaction> findByDateRange(@Param("startDate") LocalDateTime startDate, 
-                                   @Param("endDate") LocalDateTime endDate);
+                                   @Param("endDate") LocalDateTime endDate,
+                                   @Param("after") Long after,
+                                   Pageable pageable);
+    
+    // Forward-only cursor for exports; must be consumed inside a read-only transaction
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.product JOIN FETCH t.user WHERE t.date BETWEEN :startDate AND :endDate ORDER BY t.date, t.id")
+    Stream<Transaction> streamByDateRange(@Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate);
     
-    @Query("SELECT t FROM Transaction t WHERE t.product.id = :productId AND t.date BETWEEN :startDate AND :endDate")
+    @EntityGraph(attributePaths = {"product", "user"})
+    @Query("SELECT t FROM Transaction t WHERE t.product.id = :productId AND t.date BETWEEN :startDate AND :endDate AND t.id > :after ORDER BY t.id")
     List<Transaction> findByProductAndDateRange(@Param("productId") Long productId,
                                               @Param("startDate") LocalDateTime startDate,
-                                              @Param("endDate") LocalDateTime endDate);
+                                              @Param("endDate") LocalDateTime endDate,
+                                              @Param("after") Long after,
+                                              Pageable pageable);
     
-    @Query("SELECT t FROM Transaction t WHERE t.batchNumber = :batchNumber")
-    List<Transaction> findByBatchNumber(@Param("batchNumber") String batchNumber);
+    @EntityGraph(attributePaths = {"product", "user"})
+    @Query("SELECT t FROM Transaction t WHERE t.batchNumber = :batchNumber AND t.id > :after ORDER BY t.id")
+    List<Transaction> findByBatchNumber(@Param("batchNumber") String batchNumber, @Param("after") Long after, Pageable pageable);
     
-    @Query("SELECT t FROM Transaction t WHERE t.lotNumber = :lotNumber")
-    List<Transaction> findByLotNumber(@Param("lotNumber") String lotNumber);
+    @EntityGraph(attributePaths = {"product", "user"})
+    @Query("SELECT t FROM Transaction t WHERE t.lotNumber = :lotNumber AND t.id > :after ORDER BY t.id")
+    List<Transaction> findByLotNumber(@Param("lotNumber") String lotNumber, @Param("after") Long after, Pageable pageable);
     
-    @Query("SELECT SUM(t.qty) FROM Transaction t WHERE t.product.id = :productId AND t.type = :type")
-    Integer getTotalQuantityByProductAndType(@Param("productId") Long productId, 
-                                           @Param("type") TransactionType type);
+    // Ledger totals per product, type and day; used to rebuild the daily_stock_flow rollup
+    @Query("SELECT t.product.id, t.type, CAST(t.date AS LocalDate), SUM(t.qty), COUNT(t) FROM Transaction t " +
+           "GROUP BY t.product.id, t.type, CAST(t.date AS LocalDate)")
+    List<Object[]> aggregateDailyStockFlow();
 }
@@ -0,0 +1,26 @@
+package com.arya.inventory.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Change versions behind the catalog's ETags and /changes endpoints. A supplier write that
+// changes what product responses show (its name) also stamps the supplier's products.
+@Component
+public class CatalogChanges {
+    
+    private final ChangeLog products;
+    private final ChangeLog suppliers;
+    
+    public CatalogChanges(@Value("${inventory.changes.max-deletions:10000}") int maxDeletions) {
+        this.products = new ChangeLog(maxDeletions);
+        this.suppliers = new ChangeLog(maxDeletions);
+    }
+    
+    public ChangeLog products() {
+        return products;
+    }
+    
+    public ChangeLog suppliers() {
+        return suppliers;
+    }
+}
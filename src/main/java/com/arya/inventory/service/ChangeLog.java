@@ -0,0 +1,95 @@
+package com.arya.inventory.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Change versions of one table. Each write stamps the rows it touches with the next version
+// while its transaction is open, and version() is the highest version at or below which
+// every write has finished, so rows read after asking for version() include all of them and
+// anything later has a higher stamp. Deletes leave tombstones; only the most recent
+// maxDeletions are kept, and a client whose version predates the oldest one dropped has to
+// reload. Versions start from the boot time in microseconds, so they keep increasing across
+// restarts while versions handed out before the restart are no longer answered for.
+public class ChangeLog {
+    
+    private final int maxDeletions;
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    // {version, id} in commit order
+    private final ArrayDeque<long[]> deletions = new ArrayDeque<>();
+    private long last;
+    private long horizon;
+    
+    public ChangeLog(int maxDeletions) {
+        this.maxDeletions = maxDeletions;
+        this.last = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.horizon = last;
+    }
+    
+    // The version to write into the rows; must be called inside the writing transaction
+    public synchronized long stamp() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Change versions are stamped inside the writing transaction");
+        }
+        long version = ++last;
+        inFlight.add(version);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                finish(version);
+            }
+        });
+        return version;
+    }
+    
+    // Records a deleted row. Inside a transaction the tombstone appears when it commits;
+    // outside one the delete has already committed.
+    public synchronized void deleted(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            tombstone(++last, id);
+            return;
+        }
+        long version = stamp();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tombstone(version, id);
+            }
+        });
+    }
+    
+    public synchronized long version() {
+        return inFlight.isEmpty() ? last : inFlight.first() - 1;
+    }
+    
+    // Whether every delete after the version is still known, so a delta can be served
+    public synchronized boolean covers(long since) {
+        return since >= horizon && since <= last;
+    }
+    
+    public synchronized List<Long> deletedSince(long since) {
+        List<Long> ids = new ArrayList<>();
+        for (long[] deletion : deletions) {
+            if (deletion[0] > since) {
+                ids.add(deletion[1]);
+            }
+        }
+        return ids;
+    }
+    
+    private synchronized void finish(long version) {
+        inFlight.remove(version);
+    }
+    
+    private synchronized void tombstone(long version, long id) {
+        deletions.addLast(new long[] {version, id});
+        if (deletions.size() > maxDeletions) {
+            horizon = Math.max(horizon, deletions.removeFirst()[0]);
+        }
+    }
+}
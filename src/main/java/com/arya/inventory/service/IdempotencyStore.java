@@ -0,0 +1,227 @@
+package com.arya.inventory.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.arya.inventory.metrics.Counter;
+import com.arya.inventory.metrics.MetricsRegistry;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Remembers the response to each write submitted with an Idempotency-Key so a client retry
+// gets the original response back instead of applying the stock change a second time.
+// Keys are scoped to the user and endpoint and kept for a limited time; a retry that arrives
+// while the first attempt is still running waits for its outcome. Responses are kept as the
+// bytes and content type that were written, after content negotiation (captured by
+// IdempotentResponseFilter), and only in this instance's memory.
+@Component
+public class IdempotencyStore {
+    
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    // Digest of the request body, set while the body is read (see RequestFingerprintAdvice)
+    public static final String FINGERPRINT_ATTRIBUTE = IdempotencyStore.class.getName() + ".fingerprint";
+    
+    // The claim of a first attempt, until its response has been written
+    private static final String CLAIM_ATTRIBUTE = IdempotencyStore.class.getName() + ".claim";
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long waitMillis;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter conflicts;
+    private final Counter mismatches;
+    
+    public IdempotencyStore(@Value("${inventory.idempotency.max-entries:100000}") int maxEntries,
+                            @Value("${inventory.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${inventory.idempotency.wait-ms:10000}") long waitMillis,
+                            MetricsRegistry metricsRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.waitMillis = waitMillis;
+        String name = "inventory_idempotent_requests_total";
+        String help = "Requests carrying an Idempotency-Key, by outcome";
+        this.executed = metricsRegistry.counter(name, help, "result", "executed");
+        this.replayed = metricsRegistry.counter(name, help, "result", "replayed");
+        this.conflicts = metricsRegistry.counter(name, help, "result", "in_progress");
+        this.mismatches = metricsRegistry.counter(name, help, "result", "mismatch");
+        metricsRegistry.gauge("inventory_idempotency_keys", "Idempotency keys currently remembered", entries::size);
+    }
+    
+    // Runs the action once per key; without a key it simply runs the action
+    public ResponseEntity<?> execute(String key, String endpoint, Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String scopedKey = endpoint + '\n' + currentUser() + '\n' + key;
+        byte[] fingerprint = currentFingerprint();
+        
+        while (true) {
+            Entry claim = new Entry(fingerprint);
+            Entry existing = entries.putIfAbsent(scopedKey, claim);
+            if (existing == null) {
+                return run(scopedKey, claim, action);
+            }
+            if (existing.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(scopedKey, existing);
+                continue;
+            }
+            if (!Arrays.equals(existing.fingerprint, fingerprint)) {
+                mismatches.increment();
+                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                        .body(HEADER + " was already used for a different request");
+            }
+            StoredResponse stored;
+            try {
+                stored = existing.response.get(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                conflicts.increment();
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("A request with this " + HEADER + " is still being processed");
+            } catch (ExecutionException e) {
+                // The first attempt failed without a response; this retry takes over
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for the original request", e);
+            }
+            replayed.increment();
+            ResponseEntity.BodyBuilder replay = ResponseEntity.status(stored.status).header(REPLAYED_HEADER, "true");
+            if (stored.contentType != null) {
+                replay.contentType(MediaType.parseMediaType(stored.contentType));
+            }
+            return replay.body(stored.body);
+        }
+    }
+    
+    private ResponseEntity<?> run(String scopedKey, Entry claim, Supplier<ResponseEntity<?>> action) {
+        if (entries.size() > maxEntries) {
+            evict(System.currentTimeMillis());
+        }
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            entries.remove(scopedKey, claim);
+            claim.response.completeExceptionally(e);
+            throw e;
+        }
+        executed.increment();
+        
+        // Server errors leave nothing applied, so the next retry runs the action again
+        if (response.getStatusCode().is5xxServerError()) {
+            entries.remove(scopedKey, claim);
+            claim.response.completeExceptionally(new IllegalStateException("Request failed"));
+            return response;
+        }
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(CLAIM_ATTRIBUTE, new Claim(scopedKey, claim), RequestAttributes.SCOPE_REQUEST);
+        return response;
+    }
+    
+    // Called once the response to the request has been written: stores it for retries, or
+    // releases the key if writing it failed. Does nothing for requests that claimed no key.
+    public void complete(HttpServletRequest request, int status, String contentType, byte[] body) {
+        if (!(request.getAttribute(CLAIM_ATTRIBUTE) instanceof Claim claim)) {
+            return;
+        }
+        request.removeAttribute(CLAIM_ATTRIBUTE);
+        if (status >= 500) {
+            entries.remove(claim.key, claim.entry);
+            claim.entry.response.completeExceptionally(new IllegalStateException("Request failed"));
+            return;
+        }
+        claim.entry.expiresAt = System.currentTimeMillis() + ttlMillis;
+        claim.entry.response.complete(new StoredResponse(status, contentType, body));
+    }
+    
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // The same key must come with the same payload; compared by digest to keep entries small
+    private static byte[] currentFingerprint() {
+        Object fingerprint = RequestContextHolder.currentRequestAttributes()
+                .getAttribute(FINGERPRINT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return fingerprint instanceof byte[] digest ? digest : new byte[0];
+    }
+    
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "";
+    }
+    
+    // Drops expired entries first; if the store is still full, drops arbitrary completed ones
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            if (it.next().getValue().response.isDone()) {
+                it.remove();
+            }
+        }
+    }
+    
+    private static final class Entry {
+        private final byte[] fingerprint;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        // In-flight entries never expire; set once the response is stored
+        private volatile long expiresAt = Long.MAX_VALUE;
+        
+        private Entry(byte[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+    
+    private static final class Claim {
+        private final String key;
+        private final Entry entry;
+        
+        private Claim(String key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+    
+    private static final class StoredResponse {
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+        
+        private StoredResponse(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.arya.inventory.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.arya.inventory.dto.ProductResponse;
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.metrics.Counter;
+import com.arya.inventory.metrics.MetricsRegistry;
+
+// Bounded, time-limited cache of product read models behind the lookup-by-id and
+// lookup-by-SKU endpoints. Writers push the committed state in when their transaction
+// commits instead of only invalidating, so the next read, including the writer's own,
+// is served from memory. Every write takes a sequence number while it holds the product
+// row lock, so completions arriving out of order never put an older state back, and a
+// read that raced with a write is simply not cached. Other application instances'
+// writes are only picked up when entries expire.
+@Component
+public class ProductCache {
+    
+    private static final int COMPLETION_STRIPES = 1024;
+    
+    private final int maxEntries;
+    private final long ttlMillis;
+    
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> idsBySku = new ConcurrentHashMap<>();
+    // Writes in flight per product, and when a write last completed per stripe of products,
+    // both consulted before caching a read. A product leaves the map when its last write
+    // completes; the stripes keep memory bounded at the cost of the odd uncached read.
+    private final ConcurrentHashMap<Long, Integer> pendingWrites = new ConcurrentHashMap<>();
+    private final AtomicLongArray completedAt = new AtomicLongArray(COMPLETION_STRIPES);
+    private final AtomicLong sequence = new AtomicLong();
+    // Anything read or written before the last invalidateAll() is not cached
+    private volatile long clearedAt;
+    
+    private final Counter idHits;
+    private final Counter idMisses;
+    private final Counter skuHits;
+    private final Counter skuMisses;
+    private final Counter existsHits;
+    private final Counter existsMisses;
+    private final Counter evictions;
+    
+    public ProductCache(@Value("${inventory.cache.products.max-entries:10000}") int maxEntries,
+                        @Value("${inventory.cache.products.ttl-seconds:300}") long ttlSeconds,
+                        MetricsRegistry metricsRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000L;
+        String name = "inventory_product_cache_lookups_total";
+        String help = "Product cache lookups";
+        this.idHits = metricsRegistry.counter(name, help, "lookup", "id", "result", "hit");
+        this.idMisses = metricsRegistry.counter(name, help, "lookup", "id", "result", "miss");
+        this.skuHits = metricsRegistry.counter(name, help, "lookup", "sku", "result", "hit");
+        this.skuMisses = metricsRegistry.counter(name, help, "lookup", "sku", "result", "miss");
+        this.existsHits = metricsRegistry.counter(name, help, "lookup", "exists", "result", "hit");
+        this.existsMisses = metricsRegistry.counter(name, help, "lookup", "exists", "result", "miss");
+        this.evictions = metricsRegistry.counter("inventory_product_cache_evictions_total", "Product cache entries evicted for size");
+        metricsRegistry.gauge("inventory_product_cache_size", "Products currently cached", entries::size);
+        metricsRegistry.gauge("inventory_product_cache_pending_writes", "Products with a cache write in flight",
+                pendingWrites::size);
+    }
+    
+    public Optional<ProductResponse> getById(Long id, Supplier<Optional<Product>> loader) {
+        ProductResponse cached = lookup(id);
+        if (cached != null) {
+            idHits.increment();
+            return Optional.of(cached);
+        }
+        idMisses.increment();
+        return load(loader);
+    }
+    
+    public Optional<ProductResponse> getBySku(String sku, Supplier<Optional<Product>> loader) {
+        ProductResponse cached = lookupSku(sku);
+        if (cached != null) {
+            skuHits.increment();
+            return Optional.of(cached);
+        }
+        skuMisses.increment();
+        return load(loader);
+    }
+    
+    // Only ever answers yes; an unknown SKU still has to be checked against the database
+    public boolean containsSku(String sku) {
+        if (lookupSku(sku) != null) {
+            existsHits.increment();
+            return true;
+        }
+        existsMisses.increment();
+        return false;
+    }
+    
+    // Publishes the product's state to the cache when the current transaction commits.
+    // Call after the row has been written, so the row lock orders concurrent writers.
+    public void update(Product product) {
+        write(product.getId(), ProductResponse.from(product));
+    }
+    
+    // Drops the product from the cache when the current transaction commits, unless
+    // the same transaction publishes a newer state with update() afterwards
+    public void invalidate(Long productId) {
+        write(productId, null);
+    }
+    
+    // For changes that reach many products at once, such as a supplier rename. Inside a
+    // transaction the cache is cleared again when it completes, dropping whatever was read
+    // before the change became visible.
+    public void invalidateAll() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clear();
+                }
+            });
+        }
+    }
+    
+    private void clear() {
+        clearedAt = sequence.incrementAndGet();
+        entries.clear();
+        idsBySku.clear();
+    }
+    
+    private ProductResponse lookup(Long id) {
+        Entry entry = entries.get(id);
+        return entry != null && entry.expiresAt > System.currentTimeMillis() ? entry.value : null;
+    }
+    
+    private ProductResponse lookupSku(String sku) {
+        Long id = idsBySku.get(sku);
+        ProductResponse cached = id != null ? lookup(id) : null;
+        return cached != null && sku.equals(cached.getSku()) ? cached : null;
+    }
+    
+    private Optional<ProductResponse> load(Supplier<Optional<Product>> loader) {
+        long started = sequence.get();
+        Optional<ProductResponse> product = loader.get().map(ProductResponse::from);
+        // Cached only if no write to the product was in flight or completed while it loaded
+        product.ifPresent(value -> {
+            if (!pendingWrites.containsKey(value.getId()) && completedAt.get(stripe(value.getId())) <= started) {
+                store(value, started);
+            }
+        });
+        return product;
+    }
+    
+    private void store(ProductResponse value, long stamp) {
+        if (stamp < clearedAt) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (entries.size() >= maxEntries && !entries.containsKey(value.getId())) {
+            evict(now);
+        }
+        Entry[] replaced = new Entry[1];
+        Entry stored = entries.compute(value.getId(), (id, existing) -> {
+            if (existing != null && existing.stamp > stamp) {
+                // Newer than what we have; if it has expired, let the next read reload it
+                return existing.expiresAt > now ? existing : null;
+            }
+            replaced[0] = existing;
+            return new Entry(value, stamp, now + ttlMillis);
+        });
+        if (stored != null && stored.value == value) {
+            if (replaced[0] != null && !replaced[0].value.getSku().equals(value.getSku())) {
+                idsBySku.remove(replaced[0].value.getSku(), value.getId());
+            }
+            idsBySku.put(value.getSku(), value.getId());
+        }
+    }
+    
+    private void remove(Long id, long stamp) {
+        Entry[] removed = new Entry[1];
+        entries.computeIfPresent(id, (key, existing) -> {
+            if (existing.stamp > stamp) {
+                return existing;
+            }
+            removed[0] = existing;
+            return null;
+        });
+        if (removed[0] != null) {
+            idsBySku.remove(removed[0].value.getSku(), id);
+        }
+    }
+    
+    // Drops expired entries first; if the cache is still full, drops arbitrary ones
+    private void evict(long now) {
+        Iterator<Map.Entry<Long, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Entry> entry = it.next();
+            if (entry.getValue().expiresAt <= now) {
+                it.remove();
+                idsBySku.remove(entry.getValue().value.getSku(), entry.getKey());
+            }
+        }
+        it = entries.entrySet().iterator();
+        while (entries.size() >= maxEntries && it.hasNext()) {
+            Map.Entry<Long, Entry> entry = it.next();
+            it.remove();
+            idsBySku.remove(entry.getValue().value.getSku(), entry.getKey());
+            evictions.increment();
+        }
+    }
+    
+    private void write(Long productId, ProductResponse value) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // The caller's own transaction has already committed
+            PendingWrite write = begin(productId);
+            write.value = value;
+            complete(write, true);
+            return;
+        }
+        transactionWrites().computeIfAbsent(productId, this::begin).value = value;
+    }
+    
+    // Writes made by the current transaction, applied together when it completes
+    private Map<Long, PendingWrite> transactionWrites() {
+        @SuppressWarnings("unchecked")
+        Map<Long, PendingWrite> pending = (Map<Long, PendingWrite>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        Map<Long, PendingWrite> transactionWrites = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(this, transactionWrites);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ProductCache.this);
+                transactionWrites.values().forEach(write -> complete(write, status == STATUS_COMMITTED));
+            }
+        });
+        return transactionWrites;
+    }
+    
+    private PendingWrite begin(Long productId) {
+        pendingWrites.merge(productId, 1, Integer::sum);
+        return new PendingWrite(productId, sequence.incrementAndGet());
+    }
+    
+    private void complete(PendingWrite write, boolean committed) {
+        // A rollback left the row as it was, so the cached state is still right
+        if (committed) {
+            if (write.value != null) {
+                store(write.value, write.stamp);
+            } else {
+                remove(write.productId, write.stamp);
+            }
+        }
+        // Stamped before the product leaves the map, so a read never sees neither
+        completedAt.accumulateAndGet(stripe(write.productId), sequence.incrementAndGet(), Math::max);
+        pendingWrites.computeIfPresent(write.productId, (id, pending) -> pending == 1 ? null : pending - 1);
+    }
+    
+    private static int stripe(Long productId) {
+        return Long.hashCode(productId) & (COMPLETION_STRIPES - 1);
+    }
+    
+    private static final class Entry {
+        private final ProductResponse value;
+        private final long stamp;
+        private final long expiresAt;
+        
+        private Entry(ProductResponse value, long stamp, long expiresAt) {
+            this.value = value;
+            this.stamp = stamp;
+            this.expiresAt = expiresAt;
+        }
+    }
+    
+    private static final class PendingWrite {
+        private final Long productId;
+        private final long stamp;
+        private ProductResponse value;
+        
+        private PendingWrite(Long productId, long stamp) {
+            this.productId = productId;
+            this.stamp = stamp;
+        }
+    }
+}
@@ -1,84 +1,205 @@
 package com.arya.inventory.service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.arya.inventory.dto.ChangeSet;
+import com.arya.inventory.dto.KeysetPage;
+import com.arya.inventory.dto.ProductResponse;
+import com.arya.inventory.dto.TablePage;
 import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.StockLedgerEntry;
+import com.arya.inventory.metrics.MetricsRegistry;
 import com.arya.inventory.repository.ProductRepository;
 import com.arya.inventory.repository.SupplierRepository;
+import com.arya.inventory.util.NgramIndex;
 
 @Service
 public class ProductService {
     
+    public static final Set<String> TABLE_SORTS = Set.of("id", "name", "sku", "category", "price", "qty");
+    
     @Autowired
     private ProductRepository productRepository;
     
     @Autowired
     private SupplierRepository supplierRepository;
     
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private StockEventService stockEventService;
+    
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private CatalogChanges catalogChanges;
+    
+    // Name, SKU and description search without LIKE '%x%' table scans
+    private final NgramIndex searchIndex = new NgramIndex();
+    
+    @Transactional
     public Product createProduct(Product product) {
-        if (productRepository.existsBySku(product.getSku())) {
+        if (existsBySku(product.getSku())) {
             throw new RuntimeException("Product with SKU " + product.getSku() + " already exists");
         }
-        return productRepository.save(product);
+        // Resolve the supplier so the cached read model carries its name
+        if (product.getSupplier() != null && product.getSupplier().getId() != null) {
+            product.setSupplier(supplierRepository.findById(product.getSupplier().getId())
+                    .orElseThrow(() -> new RuntimeException("Supplier not found")));
+        }
+        product.setChangeVersion(catalogChanges.products().stamp());
+        Product saved = productRepository.save(product);
+        stockService.recordOpening(saved);
+        indexProduct(saved);
+        productCache.update(saved);
+        return saved;
     }
     
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public KeysetPage<Product> getAllProducts(Long after, Integer limit) {
+        return KeysetPage.of(productRepository.findByIdGreaterThanOrderByIdAsc(after, KeysetPage.request(limit)),
+                limit, Product::getId);
     }
     
-    public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+    public Optional<ProductResponse> getProductById(Long id) {
+        return productCache.getById(id, () -> productRepository.findWithSupplierById(id));
     }
     
-    public Optional<Product> getProductBySku(String sku) {
-        return productRepository.findBySku(sku);
+    public Optional<ProductResponse> getProductBySku(String sku) {
+        return productCache.getBySku(sku, () -> productRepository.findBySku(sku));
     }
     
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+    public KeysetPage<Product> getProductsByCategory(String category, Long after, Integer limit) {
+        return KeysetPage.of(productRepository.findByCategoryAndIdGreaterThanOrderByIdAsc(category, after, KeysetPage.request(limit)),
+                limit, Product::getId);
     }
     
-    public List<Product> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+    // A name filter narrows the table to the best search matches, which are then sorted
+    // and paged like any other list
+    public TablePage<Product> getProductTable(String category, String name, Integer page, Integer limit,
+                                              String sort, String direction) {
+        Pageable pageable = TablePage.request(page, limit, sort, direction, TABLE_SORTS);
+        if (name == null || name.isBlank()) {
+            return TablePage.of(category == null ? productRepository.findAllBy(pageable)
+                    : productRepository.findByCategory(category, pageable));
+        }
+        List<Long> ids = searchIds(name, KeysetPage.MAX_LIMIT);
+        if (ids.isEmpty()) {
+            return new TablePage<>(List.of(), 0);
+        }
+        return TablePage.of(category == null ? productRepository.findByIdIn(ids, pageable)
+                : productRepository.findByCategoryAndIdIn(category, ids, pageable));
     }
     
-    public List<Product> getLowStockProducts(Integer threshold) {
-        return productRepository.findLowStockProducts(threshold);
+    // Products written or deleted since a version from an earlier call. Too many changes,
+    // like an unknown version, are answered with a reset.
+    public ChangeSet<Product> getChanges(long sinceVersion) {
+        ChangeLog changes = catalogChanges.products();
+        long version = changes.version();
+        if (!changes.covers(sinceVersion)) {
+            return ChangeSet.reset(version);
+        }
+        List<Product> updated = productRepository.findByChangeVersionGreaterThanOrderByChangeVersionAsc(sinceVersion,
+                KeysetPage.request(KeysetPage.MAX_LIMIT));
+        if (updated.size() > KeysetPage.MAX_LIMIT) {
+            return ChangeSet.reset(version);
+        }
+        return new ChangeSet<>(version, false, updated, changes.deletedSince(sinceVersion));
+    }
+    
+    public List<Product> searchProductsByName(String name, int limit) {
+        List<Long> ids = searchIds(name, limit);
+        List<Product> products = new ArrayList<>(productRepository.findByIdIn(ids));
+        products.sort(Comparator.comparingInt(p -> ids.indexOf(p.getId())));
+        return products;
+    }
+    
+    private List<Long> searchIds(String name, int limit) {
+        searchIndex.ensureBuilt(() -> {
+            Map<Long, String[]> documents = new HashMap<>();
+            productRepository.findAll().forEach(p -> documents.put(p.getId(), searchFields(p)));
+            return documents;
+        });
+        return searchIndex.search(name, limit);
+    }
+    
+    public KeysetPage<Product> getLowStockProducts(Integer threshold, Long after, Integer limit) {
+        return KeysetPage.of(productRepository.findLowStockProducts(threshold, after, KeysetPage.request(limit)),
+                limit, Product::getId);
     }
     
-    public List<Product> getProductsBySupplier(Long supplierId) {
-        return productRepository.findBySupplierId(supplierId);
+    public KeysetPage<Product> getProductsBySupplier(Long supplierId, Long after, Integer limit) {
+        return KeysetPage.of(productRepository.findBySupplierId(supplierId, after, KeysetPage.request(limit)),
+                limit, Product::getId);
     }
     
+    @Transactional
     public Product updateProduct(Product product) {
         if (product.getId() == null) {
             throw new RuntimeException("Product ID is required for update");
         }
-        return productRepository.save(product);
+        if (product.getQty() != null) {
+            stockService.adjustTo(product.getId(), product.getQty());
+        }
+        // Flushed so the row is locked before the cache update takes its place in line
+        product.setChangeVersion(catalogChanges.products().stamp());
+        Product saved = productRepository.saveAndFlush(product);
+        indexProduct(saved);
+        productCache.update(saved);
+        stockEventService.stockChanged(saved.getId());
+        return saved;
     }
     
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        catalogChanges.products().deleted(id);
+        unindexProducts(List.of(id));
+        productCache.invalidate(id);
     }
     
+    // For products deleted along with their supplier
+    public void unindexProducts(List<Long> ids) {
+        AfterCommit.run(() -> ids.forEach(searchIndex::remove));
+    }
+    
+    // The index only sees committed rows, so a rolled-back write leaves it untouched
+    private void indexProduct(Product product) {
+        Long id = product.getId();
+        String[] fields = searchFields(product);
+        AfterCommit.run(() -> searchIndex.put(id, fields));
+    }
+    
+    private static String[] searchFields(Product product) {
+        return new String[] {product.getName(), product.getSku(), product.getDescription()};
+    }
+    
+    @Transactional
     public Product updateStock(Long productId, Integer quantityChange) {
-        Product product = productRepository.findById(productId)
+        metricsRegistry.recordUntilCompletion("inventory_stock_update_seconds",
+                "Stock adjustment time through commit", System.nanoTime());
+        stockService.applyDelta(productId, quantityChange, StockLedgerEntry.Reason.ADJUSTMENT);
+        Product product = productRepository.findWithSupplierById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
-        
-        int newQuantity = product.getQty() + quantityChange;
-        if (newQuantity < 0) {
-            throw new RuntimeException("Insufficient stock. Current stock: " + product.getQty());
-        }
-        
-        product.setQty(newQuantity);
-        return productRepository.save(product);
+        productCache.update(product);
+        return product;
     }
     
     public boolean existsBySku(String sku) {
-        return productRepository.existsBySku(sku);
+        return productCache.containsSku(sku) || productRepository.existsBySku(sku);
     }
 }
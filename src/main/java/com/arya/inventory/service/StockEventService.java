@@ -0,0 +1,208 @@
+package com.arya.inventory.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.arya.inventory.dto.StockEvent;
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.repository.ProductRepository;
+
+// Fans committed stock changes out to Server-Sent Events subscribers. Changes are only
+// collected when their transaction commits, and a periodic flush coalesces every change
+// to the same product into a single "stock" event carrying its latest level.
+@Service
+public class StockEventService {
+    
+    private static final long EMITTER_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+    private static final long HEARTBEAT_INTERVAL_MILLIS = 15_000L;
+    // Transaction events waiting for the next flush; beyond this the oldest are dropped
+    private static final int MAX_PENDING_TRANSACTIONS = 10_000;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Set<Long> dirtyProducts = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<StockEvent> pendingTransactions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private volatile long lastHeartbeat = System.currentTimeMillis();
+    
+    public SseEmitter subscribe(String category, Collection<Long> productIds, Integer lowStockThreshold) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        Subscription subscription = new Subscription(emitter, category,
+                productIds == null || productIds.isEmpty() ? null : new HashSet<>(productIds), lowStockThreshold);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        return emitter;
+    }
+    
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+    
+    public void stockChanged(Long productId) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> dirtyProducts.add(productId));
+    }
+    
+    public void transactionRecorded(Transaction transaction) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        // Copy the fields now; the entity must not be touched after its session closes
+        StockEvent event = new StockEvent(StockEvent.TRANSACTION, transaction.getProduct().getId());
+        event.setTransactionId(transaction.getId());
+        event.setTransactionType(transaction.getType().name());
+        event.setTransactionQty(transaction.getQty());
+        event.setUserId(transaction.getUser().getId());
+        event.setDate(transaction.getDate());
+        AfterCommit.run(() -> {
+            pendingTransactions.add(event);
+            if (pendingCount.incrementAndGet() > MAX_PENDING_TRANSACTIONS && pendingTransactions.poll() != null) {
+                pendingCount.decrementAndGet();
+            }
+        });
+    }
+    
+    @Scheduled(fixedDelayString = "${inventory.stream.flush-interval-ms:250}")
+    public void flush() {
+        if (subscriptions.isEmpty()) {
+            dirtyProducts.clear();
+            drainTransactions();
+            return;
+        }
+        
+        Set<Long> dirty = new HashSet<>();
+        for (Long productId : dirtyProducts) {
+            if (dirtyProducts.remove(productId)) {
+                dirty.add(productId);
+            }
+        }
+        List<StockEvent> transactions = drainTransactions();
+        if (dirty.isEmpty() && transactions.isEmpty()) {
+            heartbeat();
+            return;
+        }
+        
+        // One lookup for every product touched since the last flush
+        Set<Long> productIds = new HashSet<>(dirty);
+        transactions.forEach(event -> productIds.add(event.getProductId()));
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        
+        List<StockEvent> events = new ArrayList<>(dirty.size() + transactions.size());
+        for (StockEvent event : transactions) {
+            Product product = products.get(event.getProductId());
+            if (product != null) {
+                describe(event, product);
+                events.add(event);
+            }
+        }
+        for (Long productId : dirty) {
+            Product product = products.get(productId);
+            if (product != null) {
+                events.add(describe(new StockEvent(StockEvent.STOCK, productId), product));
+            }
+        }
+        
+        for (Subscription subscription : subscriptions) {
+            try {
+                for (StockEvent event : events) {
+                    if (subscription.matches(event)) {
+                        subscription.emitter.send(SseEmitter.event()
+                                .name(event.getEvent())
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                drop(subscription, e);
+            }
+        }
+        lastHeartbeat = System.currentTimeMillis();
+    }
+    
+    // Idle connections still get a comment line now and then so dead clients are noticed
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        if (now - lastHeartbeat < HEARTBEAT_INTERVAL_MILLIS) {
+            return;
+        }
+        lastHeartbeat = now;
+        for (Subscription subscription : subscriptions) {
+            try {
+                subscription.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                drop(subscription, e);
+            }
+        }
+    }
+    
+    private void drop(Subscription subscription, Exception e) {
+        subscriptions.remove(subscription);
+        subscription.emitter.completeWithError(e);
+    }
+    
+    private List<StockEvent> drainTransactions() {
+        List<StockEvent> drained = new ArrayList<>();
+        StockEvent event;
+        while ((event = pendingTransactions.poll()) != null) {
+            pendingCount.decrementAndGet();
+            drained.add(event);
+        }
+        return drained;
+    }
+    
+    private static StockEvent describe(StockEvent event, Product product) {
+        event.setSku(product.getSku());
+        event.setName(product.getName());
+        event.setCategory(product.getCategory());
+        event.setQty(product.getQty());
+        return event;
+    }
+    
+    private static class Subscription {
+        private final SseEmitter emitter;
+        private final String category;
+        private final Set<Long> productIds;
+        private final Integer lowStockThreshold;
+        
+        Subscription(SseEmitter emitter, String category, Set<Long> productIds, Integer lowStockThreshold) {
+            this.emitter = emitter;
+            this.category = category;
+            this.productIds = productIds;
+            this.lowStockThreshold = lowStockThreshold;
+        }
+        
+        boolean matches(StockEvent event) {
+            if (category != null && !category.equalsIgnoreCase(event.getCategory())) {
+                return false;
+            }
+            if (productIds != null && !productIds.contains(event.getProductId())) {
+                return false;
+            }
+            return lowStockThreshold == null || (event.getQty() != null && event.getQty() < lowStockThreshold);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.arya.inventory.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.arya.inventory.entity.DailyStockFlow;
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.repository.DailyStockFlowRepository;
+import com.arya.inventory.repository.TransactionRepository;
+
+// Maintains the daily_stock_flow rollup so per-product totals cost O(days) instead of
+// a SUM over the whole ledger
+@Service
+@Transactional
+public class StockFlowService {
+    
+    private static final long REBUILD_WAIT_SECONDS = 30;
+    
+    @Autowired
+    private DailyStockFlowRepository dailyStockFlowRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    // Bucket writes hold the read side and rebuilds the write side, each until its transaction
+    // ends, so a rebuild sees every writer's transaction either committed or not yet started
+    // and cannot lose or double count its flow
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    
+    // Must run in the same transaction as, and after, the product's stock update: the
+    // product row lock taken there serializes concurrent writers of the same bucket,
+    // so update-then-insert cannot create duplicate rows
+    public void record(Long productId, Transaction.TransactionType type, LocalDate day, long qty, long count) {
+        holdUntilCompletion(rebuildLock.readLock());
+        if (dailyStockFlowRepository.increment(productId, type, day, qty, count) == 0) {
+            dailyStockFlowRepository.save(new DailyStockFlow(productId, type, day, qty, count));
+        }
+    }
+    
+    public void record(Transaction transaction) {
+        record(transaction.getProduct().getId(), transaction.getType(), transaction.getDate().toLocalDate(),
+               transaction.getQty(), 1);
+    }
+    
+    public void reverse(Transaction transaction) {
+        holdUntilCompletion(rebuildLock.readLock());
+        dailyStockFlowRepository.increment(transaction.getProduct().getId(), transaction.getType(),
+                transaction.getDate().toLocalDate(), (long) -transaction.getQty(), -1L);
+    }
+    
+    @Transactional(readOnly = true)
+    public long getTotalQuantity(Long productId, Transaction.TransactionType type) {
+        Long total = dailyStockFlowRepository.getTotalQuantity(productId, type);
+        return total != null ? total : 0;
+    }
+    
+    @Transactional(readOnly = true)
+    public long getTotalQuantity(Long productId, Transaction.TransactionType type, LocalDate startDay, LocalDate endDay) {
+        Long total = dailyStockFlowRepository.getTotalQuantity(productId, type, startDay, endDay);
+        return total != null ? total : 0;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<DailyStockFlow> getDailyFlow(Long productId, LocalDate startDay, LocalDate endDay) {
+        return dailyStockFlowRepository.findByProductIdAndDayBetweenOrderByDayAsc(productId, startDay, endDay);
+    }
+    
+    // Reconstructs the rollup from the ledger; returns the number of buckets written
+    public int rebuild() {
+        if (TransactionSynchronizationManager.hasResource(rebuildLock.readLock())) {
+            throw new IllegalStateException("The stock flow rollup cannot be rebuilt in a transaction that wrote to it");
+        }
+        lockForRebuild();
+        dailyStockFlowRepository.deleteAllInBatch();
+        List<DailyStockFlow> buckets = new ArrayList<>();
+        for (Object[] row : transactionRepository.aggregateDailyStockFlow()) {
+            buckets.add(new DailyStockFlow((Long) row[0], (Transaction.TransactionType) row[1], (LocalDate) row[2],
+                    ((Number) row[3]).longValue(), ((Number) row[4]).longValue()));
+        }
+        dailyStockFlowRepository.saveAll(buckets);
+        return buckets.size();
+    }
+    
+    // Once per transaction
+    private void holdUntilCompletion(Lock lock) {
+        if (TransactionSynchronizationManager.hasResource(lock)) {
+            return;
+        }
+        lock.lock();
+        releaseOnCompletion(lock);
+    }
+    
+    // Polls instead of queueing: a queued rebuild would hold back new writers while they hold
+    // product row locks that a writer already inside, e.g. a batch, may be waiting for
+    private void lockForRebuild() {
+        Lock lock = rebuildLock.writeLock();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(REBUILD_WAIT_SECONDS);
+        while (!lock.tryLock()) {
+            if (System.nanoTime() > deadline) {
+                throw new RuntimeException("Stock flow is being written continuously; rebuild again later");
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted waiting to rebuild the stock flow", e);
+            }
+        }
+        releaseOnCompletion(lock);
+    }
+    
+    // Runs on the transaction's own thread, which is the one holding the lock
+    private void releaseOnCompletion(Lock lock) {
+        TransactionSynchronizationManager.bindResource(lock, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(lock);
+                lock.unlock();
+            }
+        });
+    }
+}
@@ -0,0 +1,198 @@
+package com.arya.inventory.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.arya.inventory.dto.KeysetPage;
+import com.arya.inventory.dto.LedgerCheckReport;
+import com.arya.inventory.dto.LedgerDiscrepancy;
+import com.arya.inventory.entity.StockLedgerEntry;
+import com.arya.inventory.entity.StockSnapshot;
+import com.arya.inventory.repository.StockLedgerRepository;
+import com.arya.inventory.repository.StockSnapshotRepository;
+
+// Reads of the stock ledger: quantity as of a point in time, the consistency check against
+// products.qty, replaying the ledger into products.qty, and the periodic snapshots that keep
+// all of these proportional to recent activity rather than to a product's whole history.
+@Service
+@Transactional
+public class StockLedgerService {
+    
+    private static final int PAGE_SIZE = 500;
+    
+    private final StockLedgerRepository stockLedgerRepository;
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final StockService stockService;
+    private final TransactionTemplate transactionTemplate;
+    private final int snapshotMinEntries;
+    
+    public StockLedgerService(StockLedgerRepository stockLedgerRepository,
+                              StockSnapshotRepository stockSnapshotRepository,
+                              StockService stockService,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${inventory.ledger.snapshot-min-entries:100}") int snapshotMinEntries) {
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.stockSnapshotRepository = stockSnapshotRepository;
+        this.stockService = stockService;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotMinEntries = snapshotMinEntries;
+    }
+    
+    @Transactional(readOnly = true)
+    public KeysetPage<StockLedgerEntry> getEntries(Long productId, Long after, Integer limit) {
+        return KeysetPage.of(stockLedgerRepository.findByProductIdAndIdGreaterThanOrderByIdAsc(productId, after, KeysetPage.request(limit)),
+                limit, StockLedgerEntry::getId);
+    }
+    
+    // Latest snapshot taken no later than the given time, plus the entries after it up to then
+    @Transactional(readOnly = true)
+    public long getQuantityAt(Long productId, LocalDateTime at) {
+        Optional<StockSnapshot> snapshot = stockSnapshotRepository
+                .findFirstByProductIdAndAsOfLessThanEqualOrderByLastEntryIdDesc(productId, at);
+        long base = snapshot.map(StockSnapshot::getQty).orElse(0L);
+        long after = snapshot.map(StockSnapshot::getLastEntryId).orElse(0L);
+        return base + stockLedgerRepository.sumDeltas(productId, after, at);
+    }
+    
+    // Compares every product's stored quantity with its snapshot plus ledger tail. Each page
+    // is a single statement, so it reads a consistent state without locking anything.
+    @Transactional(readOnly = true)
+    public LedgerCheckReport check() {
+        LedgerCheckReport report = new LedgerCheckReport();
+        long after = 0;
+        List<LedgerState> page;
+        do {
+            page = findStates(after);
+            for (LedgerState state : page) {
+                if (state.storedQty == null || state.storedQty != state.ledgerQty()) {
+                    report.getDiscrepancies().add(new LedgerDiscrepancy(state.productId, state.sku, state.storedQty, state.ledgerQty()));
+                }
+                after = state.productId;
+            }
+            report.setProductsChecked(report.getProductsChecked() + page.size());
+        } while (page.size() == PAGE_SIZE);
+        return report;
+    }
+    
+    // Rewrites products.qty from the ledger wherever the check finds them apart; each
+    // product is re-read under its row lock so concurrent stock writes are not undone.
+    // Returns the number of products corrected.
+    public int replay() {
+        int corrected = 0;
+        for (LedgerDiscrepancy discrepancy : check().getDiscrepancies()) {
+            Long productId = discrepancy.getProductId();
+            if (!stockService.lock(productId)) {
+                continue;
+            }
+            LedgerState state = findState(productId);
+            if (state != null && (state.storedQty == null || state.storedQty != state.ledgerQty())) {
+                stockService.restore(productId, state.ledgerQty());
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+    
+    @Scheduled(fixedDelayString = "${inventory.ledger.snapshot-interval-ms:300000}",
+               initialDelayString = "${inventory.ledger.snapshot-interval-ms:300000}")
+    public void takeSnapshots() {
+        takeSnapshots(snapshotMinEntries);
+    }
+    
+    // Folds the tail of every product with at least minEntries entries since its last
+    // snapshot into a new one. Needs no locks: entries committed while this runs have higher
+    // ids than any it reads, so they fall into the next tail. Returns the number taken.
+    public int takeSnapshots(int minEntries) {
+        int taken = 0;
+        LocalDateTime now = LocalDateTime.now();
+        long after = 0;
+        List<LedgerState> page;
+        do {
+            page = findStates(after);
+            List<StockSnapshot> snapshots = new ArrayList<>();
+            for (LedgerState state : page) {
+                if (state.tailCount > 0 && state.tailCount >= minEntries) {
+                    LocalDateTime asOf = stockLedgerRepository.findById(state.tailLastEntryId)
+                            .map(StockLedgerEntry::getRecordedAt)
+                            .orElse(now);
+                    snapshots.add(new StockSnapshot(state.productId, state.tailLastEntryId, state.ledgerQty(), asOf, now));
+                }
+                after = state.productId;
+            }
+            stockSnapshotRepository.saveAll(snapshots);
+            taken += snapshots.size();
+        } while (page.size() == PAGE_SIZE);
+        return taken;
+    }
+    
+    // Products created before the ledger existed start it with their quantity at startup,
+    // one page per transaction so the row locks are short-lived
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void openMissingLedgers() {
+        long after = 0;
+        List<Long> productIds;
+        do {
+            productIds = stockLedgerRepository.findProductIdsWithoutLedger(after, PageRequest.of(0, PAGE_SIZE));
+            List<Long> page = productIds;
+            transactionTemplate.executeWithoutResult(status -> page.forEach(stockService::openLedger));
+            if (!productIds.isEmpty()) {
+                after = productIds.get(productIds.size() - 1);
+            }
+        } while (productIds.size() == PAGE_SIZE);
+    }
+    
+    private List<LedgerState> findStates(long after) {
+        List<LedgerState> states = new ArrayList<>();
+        for (Object[] row : stockLedgerRepository.findLedgerStates(after, PageRequest.of(0, PAGE_SIZE))) {
+            states.add(new LedgerState(row));
+        }
+        return states;
+    }
+    
+    private LedgerState findState(Long productId) {
+        List<Object[]> rows = stockLedgerRepository.findLedgerStates(productId - 1, PageRequest.of(0, 1));
+        if (rows.isEmpty()) {
+            return null;
+        }
+        LedgerState state = new LedgerState(rows.get(0));
+        return state.productId.equals(productId) ? state : null;
+    }
+    
+    // One row of StockLedgerRepository.findLedgerStates
+    private static final class LedgerState {
+        private final Long productId;
+        private final String sku;
+        private final Integer storedQty;
+        private final long snapshotQty;
+        private final long tailSum;
+        private final long tailCount;
+        private final Long tailLastEntryId;
+        
+        private LedgerState(Object[] row) {
+            this.productId = (Long) row[0];
+            this.sku = (String) row[1];
+            this.storedQty = (Integer) row[2];
+            this.snapshotQty = row[3] != null ? ((Number) row[3]).longValue() : 0;
+            this.tailSum = ((Number) row[5]).longValue();
+            this.tailCount = ((Number) row[6]).longValue();
+            this.tailLastEntryId = row[7] != null ? ((Number) row[7]).longValue() : null;
+        }
+        
+        private long ledgerQty() {
+            return snapshotQty + tailSum;
+        }
+    }
+}
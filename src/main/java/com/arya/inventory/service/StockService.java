@@ -0,0 +1,133 @@
+package com.arya.inventory.service;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.StockLedgerEntry;
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.repository.ProductRepository;
+import com.arya.inventory.repository.StockLedgerRepository;
+
+// Single entry point for every change to Product.qty. Deltas go through a conditional
+// UPDATE so the row lock serializes writers per product instead of a read-modify-write,
+// and each one is appended to the stock ledger while that lock is held. Ledger ids are
+// drawn after the lock, so per product they increase in commit order; snapshots rely on it.
+@Service
+@Transactional
+public class StockService {
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private StockEventService stockEventService;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private StockLedgerRepository stockLedgerRepository;
+    
+    @Autowired
+    private CatalogChanges catalogChanges;
+    
+    public void applyDelta(Long productId, int delta, StockLedgerEntry.Reason reason) {
+        if (productRepository.applyStockDelta(productId, delta, catalogChanges.products().stamp()) == 0) {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            throw new RuntimeException("Insufficient stock. Current stock: " + product.getQty() +
+                                     ", Required: " + Math.abs(delta));
+        }
+        record(productId, delta, reason);
+        // Callers that reload the product afterwards publish its new state instead
+        productCache.invalidate(productId);
+        stockEventService.stockChanged(productId);
+    }
+    
+    // Non-throwing variant for batch callers: a failed delta must not mark the
+    // surrounding transaction rollback-only
+    public boolean tryApplyDelta(Long productId, int delta, StockLedgerEntry.Reason reason) {
+        if (productRepository.applyStockDelta(productId, delta, catalogChanges.products().stamp()) == 0) {
+            return false;
+        }
+        record(productId, delta, reason);
+        productCache.invalidate(productId);
+        stockEventService.stockChanged(productId);
+        return true;
+    }
+    
+    public void applyTransaction(Long productId, Integer quantity, Transaction.TransactionType type) {
+        applyDelta(productId, stockChange(quantity, type), StockLedgerEntry.Reason.TRANSACTION);
+    }
+    
+    // Undoes a transaction's stock movement; fails if the stock it added has since been used
+    public void reverseTransaction(Long productId, Integer quantity, Transaction.TransactionType type) {
+        applyDelta(productId, -stockChange(quantity, type), StockLedgerEntry.Reason.REVERSAL);
+    }
+    
+    // For product edits that carry a quantity: books the difference as an adjustment
+    // before the edit is written, so the ledger and the edited row agree
+    public void adjustTo(Long productId, int quantity) {
+        if (!lock(productId)) {
+            return;
+        }
+        int delta = quantity - productRepository.findQtyById(productId);
+        if (delta != 0) {
+            applyDelta(productId, delta, StockLedgerEntry.Reason.ADJUSTMENT);
+        }
+    }
+    
+    // Starts the ledger of a product created in the current transaction
+    public void recordOpening(Product product) {
+        record(product.getId(), product.getQty(), StockLedgerEntry.Reason.OPENING);
+    }
+    
+    // Starts the ledger of a product that predates it with its current quantity
+    public void openLedger(Long productId) {
+        if (!lock(productId) || stockLedgerRepository.existsByProductId(productId)) {
+            return;
+        }
+        record(productId, productRepository.findQtyById(productId), StockLedgerEntry.Reason.OPENING);
+    }
+    
+    // Holds the product's row lock until the transaction ends, as any stock write would.
+    // False if there is no such product.
+    public boolean lock(Long productId) {
+        return productRepository.lockRow(productId) > 0;
+    }
+    
+    // Sets the stored quantity to the ledger's; the ledger itself is not touched.
+    // The caller must hold the row lock and have derived the quantity under it.
+    public void restore(Long productId, long quantity) {
+        productRepository.setStock(productId, Math.toIntExact(quantity), catalogChanges.products().stamp());
+        productCache.invalidate(productId);
+        stockEventService.stockChanged(productId);
+    }
+    
+    private void record(Long productId, int delta, StockLedgerEntry.Reason reason) {
+        stockLedgerRepository.save(new StockLedgerEntry(productId, delta, reason, LocalDateTime.now()));
+    }
+    
+    public static int stockChange(Integer quantity, Transaction.TransactionType type) {
+        switch (type) {
+            case STOCK_IN:
+            case PURCHASE:
+                return quantity;
+            case STOCK_OUT:
+            case SALE:
+                return -quantity;
+            case RETURN:
+                return quantity; // Return adds stock back
+            case ADJUSTMENT:
+                // For adjustment, we might want to set absolute quantity
+                // For now, treating as stock in
+                return quantity;
+            default:
+                return 0;
+        }
+    }
+}
@@ -1,29 +1,61 @@
 package com.arya.inventory.service;
 
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.arya.inventory.dto.ChangeSet;
+import com.arya.inventory.dto.KeysetPage;
+import com.arya.inventory.dto.TablePage;
 import com.arya.inventory.entity.Supplier;
+import com.arya.inventory.repository.ProductRepository;
 import com.arya.inventory.repository.SupplierRepository;
+import com.arya.inventory.util.NgramIndex;
 
 @Service
 public class SupplierService {
     
+    public static final Set<String> TABLE_SORTS = Set.of("id", "name", "contact", "email", "phone");
+    
     @Autowired
     private SupplierRepository supplierRepository;
     
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private CatalogChanges catalogChanges;
+    
+    private final NgramIndex searchIndex = new NgramIndex();
+    
+    @Transactional
     public Supplier createSupplier(Supplier supplier) {
         if (supplierRepository.existsByName(supplier.getName())) {
             throw new RuntimeException("Supplier with name " + supplier.getName() + " already exists");
         }
-        return supplierRepository.save(supplier);
+        supplier.setChangeVersion(catalogChanges.suppliers().stamp());
+        Supplier saved = supplierRepository.save(supplier);
+        indexSupplier(saved);
+        return saved;
     }
     
-    public List<Supplier> getAllSuppliers() {
-        return supplierRepository.findAll();
+    public KeysetPage<Supplier> getAllSuppliers(Long after, Integer limit) {
+        return KeysetPage.of(supplierRepository.findByIdGreaterThanOrderByIdAsc(after, KeysetPage.request(limit)),
+                limit, Supplier::getId);
     }
     
     public Optional<Supplier> getSupplierById(Long id) {
@@ -34,8 +66,43 @@ public class SupplierService {
         return supplierRepository.findByName(name);
     }
     
-    public List<Supplier> searchSuppliersByName(String name) {
-        return supplierRepository.findByNameContainingIgnoreCase(name);
+    public TablePage<Supplier> getSupplierTable(String name, Integer page, Integer limit, String sort, String direction) {
+        Pageable pageable = TablePage.request(page, limit, sort, direction, TABLE_SORTS);
+        if (name == null || name.isBlank()) {
+            return TablePage.of(supplierRepository.findAllBy(pageable));
+        }
+        List<Long> ids = searchIds(name, KeysetPage.MAX_LIMIT);
+        return ids.isEmpty() ? new TablePage<>(List.of(), 0) : TablePage.of(supplierRepository.findByIdIn(ids, pageable));
+    }
+    
+    public ChangeSet<Supplier> getChanges(long sinceVersion) {
+        ChangeLog changes = catalogChanges.suppliers();
+        long version = changes.version();
+        if (!changes.covers(sinceVersion)) {
+            return ChangeSet.reset(version);
+        }
+        List<Supplier> updated = supplierRepository.findByChangeVersionGreaterThanOrderByChangeVersionAsc(sinceVersion,
+                KeysetPage.request(KeysetPage.MAX_LIMIT));
+        if (updated.size() > KeysetPage.MAX_LIMIT) {
+            return ChangeSet.reset(version);
+        }
+        return new ChangeSet<>(version, false, updated, changes.deletedSince(sinceVersion));
+    }
+    
+    public List<Supplier> searchSuppliersByName(String name, int limit) {
+        List<Long> ids = searchIds(name, limit);
+        List<Supplier> suppliers = supplierRepository.findAllById(ids);
+        suppliers.sort(Comparator.comparingInt(s -> ids.indexOf(s.getId())));
+        return suppliers;
+    }
+    
+    private List<Long> searchIds(String name, int limit) {
+        searchIndex.ensureBuilt(() -> {
+            Map<Long, String[]> documents = new HashMap<>();
+            supplierRepository.findAll().forEach(s -> documents.put(s.getId(), new String[] {s.getName()}));
+            return documents;
+        });
+        return searchIndex.search(name, limit);
     }
     
     public Optional<Supplier> getSupplierByEmail(String email) {
@@ -46,15 +113,38 @@ public class SupplierService {
         return supplierRepository.findByPhone(phone);
     }
     
+    @Transactional
     public Supplier updateSupplier(Supplier supplier) {
         if (supplier.getId() == null) {
             throw new RuntimeException("Supplier ID is required for update");
         }
-        return supplierRepository.save(supplier);
+        supplier.setChangeVersion(catalogChanges.suppliers().stamp());
+        Supplier saved = supplierRepository.save(supplier);
+        productRepository.stampBySupplier(saved.getId(), catalogChanges.products().stamp());
+        indexSupplier(saved);
+        // Cached products carry the supplier's name
+        productCache.invalidateAll();
+        return saved;
     }
     
+    // Deleting a supplier deletes its products too; one transaction, so the products looked
+    // up here are exactly the ones the cascade removes
+    @Transactional
     public void deleteSupplier(Long id) {
+        List<Long> productIds = productRepository.findIdsBySupplierId(id);
         supplierRepository.deleteById(id);
+        catalogChanges.suppliers().deleted(id);
+        productIds.forEach(catalogChanges.products()::deleted);
+        AfterCommit.run(() -> searchIndex.remove(id));
+        productService.unindexProducts(productIds);
+        productCache.invalidateAll();
+    }
+    
+    // The index only sees committed rows, so a rolled-back write leaves it untouched
+    private void indexSupplier(Supplier supplier) {
+        Long id = supplier.getId();
+        String name = supplier.getName();
+        AfterCommit.run(() -> searchIndex.put(id, name));
     }
     
     public boolean existsByName(String name) {
@@ -0,0 +1,154 @@
+package com.arya.inventory.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+@Service
+public class TransactionExportService {
+    
+    // Rows written between persistence context clears; keeps memory flat for any range size
+    private static final int CLEAR_INTERVAL = 500;
+    
+    private static final String[] COLUMNS = {
+        "id", "date", "type", "qty", "productId", "productSku", "userId", "username",
+        "notes", "batchNumber", "lotNumber", "expiryDate", "manufacturingDate"
+    };
+    
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+        
+        private final String contentType;
+        private final String extension;
+        
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public long exportByDateRange(LocalDateTime startDate, LocalDateTime endDate, Format format, OutputStream out)
+            throws IOException {
+        long count = 0;
+        try (Stream<Transaction> stream = transactionRepository.streamByDateRange(startDate, endDate)) {
+            Iterator<Transaction> rows = stream.iterator();
+            if (format == Format.CSV) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writer.write(String.join(",", COLUMNS));
+                writer.write('\n');
+                while (rows.hasNext()) {
+                    writeCsvRow(writer, rows.next());
+                    count = rowWritten(count);
+                }
+                writer.flush();
+            } else {
+                JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+                generator.setRootValueSeparator(null);
+                while (rows.hasNext()) {
+                    writeJsonRow(generator, rows.next());
+                    generator.writeRaw('\n');
+                    count = rowWritten(count);
+                }
+                generator.flush();
+            }
+        }
+        return count;
+    }
+    
+    private long rowWritten(long count) {
+        count++;
+        if (count % CLEAR_INTERVAL == 0) {
+            entityManager.clear();
+            // Virtual threads are not time-sliced; give quick requests sharing the carrier a turn
+            Thread.yield();
+        }
+        return count;
+    }
+    
+    private void writeJsonRow(JsonGenerator generator, Transaction t) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", t.getId());
+        writeJsonField(generator, "date", t.getDate());
+        writeJsonField(generator, "type", t.getType());
+        generator.writeNumberField("qty", t.getQty());
+        generator.writeNumberField("productId", t.getProduct().getId());
+        generator.writeStringField("productSku", t.getProduct().getSku());
+        generator.writeNumberField("userId", t.getUser().getId());
+        generator.writeStringField("username", t.getUser().getUsername());
+        writeJsonField(generator, "notes", t.getNotes());
+        writeJsonField(generator, "batchNumber", t.getBatchNumber());
+        writeJsonField(generator, "lotNumber", t.getLotNumber());
+        writeJsonField(generator, "expiryDate", t.getExpiryDate());
+        writeJsonField(generator, "manufacturingDate", t.getManufacturingDate());
+        generator.writeEndObject();
+    }
+    
+    private void writeJsonField(JsonGenerator generator, String name, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeStringField(name, value.toString());
+        }
+    }
+    
+    private void writeCsvRow(Writer writer, Transaction t) throws IOException {
+        Object[] values = {
+            t.getId(), t.getDate(), t.getType(), t.getQty(), t.getProduct().getId(), t.getProduct().getSku(),
+            t.getUser().getId(), t.getUser().getUsername(), t.getNotes(), t.getBatchNumber(), t.getLotNumber(),
+            t.getExpiryDate(), t.getManufacturingDate()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+        writer.write('\n');
+    }
+    
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,16 +1,30 @@
 package com.arya.inventory.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.arya.inventory.dto.BatchTransactionResult;
+import com.arya.inventory.dto.KeysetPage;
+import com.arya.inventory.dto.TablePage;
 import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.StockLedgerEntry;
 import com.arya.inventory.entity.Transaction;
 import com.arya.inventory.entity.User;
+import com.arya.inventory.metrics.MetricsRegistry;
 import com.arya.inventory.repository.ProductRepository;
 import com.arya.inventory.repository.TransactionRepository;
 import com.arya.inventory.repository.UserRepository;
@@ -19,6 +33,8 @@ import com.arya.inventory.repository.UserRepository;
 @Transactional
 public class TransactionService {
     
+    public static final Set<String> TABLE_SORTS = Set.of("id", "qty", "type", "date", "batchNumber", "lotNumber");
+    
     @Autowired
     private TransactionRepository transactionRepository;
     
@@ -28,10 +44,34 @@ public class TransactionService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private StockFlowService stockFlowService;
+    
+    @Autowired
+    private StockEventService stockEventService;
+    
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+    
+    @Autowired
+    private ProductCache productCache;
+    
     public Transaction createTransaction(Transaction transaction) {
+        metricsRegistry.recordUntilCompletion("inventory_transaction_create_seconds",
+                "Single transaction creation time through commit", System.nanoTime(),
+                "type", String.valueOf(transaction.getType()));
+        
+        // Update product stock based on transaction type; this runs first so the
+        // product loaded below already reflects the committed quantity
+        stockService.applyTransaction(transaction.getProduct().getId(), transaction.getQty(), transaction.getType());
+        
         // Validate product exists
-        Product product = productRepository.findById(transaction.getProduct().getId())
+        Product product = productRepository.findWithSupplierById(transaction.getProduct().getId())
                 .orElseThrow(() -> new RuntimeException("Product not found"));
+        productCache.update(product);
         
         // Validate user exists
         User user = userRepository.findById(transaction.getUser().getId())
@@ -41,88 +81,177 @@ public class TransactionService {
         transaction.setUser(user);
         transaction.setDate(LocalDateTime.now());
         
-        // Update product stock based on transaction type
-        updateProductStock(product, transaction.getQty(), transaction.getType());
-        
-        return transactionRepository.save(transaction);
+        stockFlowService.record(transaction);
+        Transaction saved = transactionRepository.save(transaction);
+        stockEventService.transactionRecorded(saved);
+        return saved;
     }
     
-    private void updateProductStock(Product product, Integer quantity, Transaction.TransactionType type) {
-        int stockChange = 0;
+    public List<BatchTransactionResult> createTransactions(List<Transaction> transactions) {
+        BatchTransactionResult[] results = new BatchTransactionResult[transactions.size()];
+        
+        // Resolve every referenced product and user with one query each
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getProduct() != null && transaction.getProduct().getId() != null) {
+                productIds.add(transaction.getProduct().getId());
+            }
+            if (transaction.getUser() != null && transaction.getUser().getId() != null) {
+                userIds.add(transaction.getUser().getId());
+            }
+        }
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        
+        // Validate each item and group the valid ones by product, keeping submission order
+        Map<Long, List<Integer>> itemsByProduct = new LinkedHashMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            Long productId = transaction.getProduct() != null ? transaction.getProduct().getId() : null;
+            String error = null;
+            if (transaction.getQty() == null || transaction.getType() == null) {
+                error = "Quantity and transaction type are required";
+            } else if (productId == null || !products.containsKey(productId)) {
+                error = "Product not found";
+            } else if (transaction.getUser() == null || !users.containsKey(transaction.getUser().getId())) {
+                error = "User not found";
+            }
+            if (error != null) {
+                results[i] = BatchTransactionResult.failed(i, productId, error);
+            } else {
+                itemsByProduct.computeIfAbsent(productId, id -> new ArrayList<>()).add(i);
+            }
+        }
         
-        switch (type) {
-            case STOCK_IN:
-            case PURCHASE:
-                stockChange = quantity;
-                break;
-            case STOCK_OUT:
-            case SALE:
-                stockChange = -quantity;
-                break;
-            case RETURN:
-                stockChange = quantity; // Return adds stock back
-                break;
-            case ADJUSTMENT:
-                // For adjustment, we might want to set absolute quantity
-                // For now, treating as stock in
-                stockChange = quantity;
-                break;
+        // Apply one net delta per product; only when that would oversell do we fall
+        // back to item-by-item application so the remaining items still go through
+        List<Integer> accepted = new ArrayList<>();
+        Set<Long> changedProducts = new HashSet<>();
+        for (Map.Entry<Long, List<Integer>> entry : itemsByProduct.entrySet()) {
+            Long productId = entry.getKey();
+            int netDelta = 0;
+            for (int i : entry.getValue()) {
+                Transaction transaction = transactions.get(i);
+                netDelta += StockService.stockChange(transaction.getQty(), transaction.getType());
+            }
+            if (stockService.tryApplyDelta(productId, netDelta, StockLedgerEntry.Reason.TRANSACTION)) {
+                accepted.addAll(entry.getValue());
+                changedProducts.add(productId);
+                continue;
+            }
+            for (int i : entry.getValue()) {
+                Transaction transaction = transactions.get(i);
+                int delta = StockService.stockChange(transaction.getQty(), transaction.getType());
+                if (stockService.tryApplyDelta(productId, delta, StockLedgerEntry.Reason.TRANSACTION)) {
+                    accepted.add(i);
+                    changedProducts.add(productId);
+                } else {
+                    results[i] = BatchTransactionResult.failed(i, productId, "Insufficient stock");
+                }
+            }
         }
+        // One read of the new stock levels keeps the product cache current
+        if (!changedProducts.isEmpty()) {
+            productRepository.findByIdIn(changedProducts).forEach(productCache::update);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> toSave = new ArrayList<>(accepted.size());
+        for (int i : accepted) {
+            Transaction transaction = transactions.get(i);
+            transaction.setProduct(products.get(transaction.getProduct().getId()));
+            transaction.setUser(users.get(transaction.getUser().getId()));
+            transaction.setDate(now);
+            toSave.add(transaction);
+        }
+        transactionRepository.saveAll(toSave);
         
-        int newQuantity = product.getQty() + stockChange;
-        if (newQuantity < 0) {
-            throw new RuntimeException("Insufficient stock. Current stock: " + product.getQty() + 
-                                     ", Required: " + Math.abs(stockChange));
+        // One rollup update per product and type rather than per item
+        Map<Long, Map<Transaction.TransactionType, long[]>> flows = new LinkedHashMap<>();
+        for (Transaction transaction : toSave) {
+            long[] flow = flows.computeIfAbsent(transaction.getProduct().getId(), id -> new LinkedHashMap<>())
+                    .computeIfAbsent(transaction.getType(), type -> new long[2]);
+            flow[0] += transaction.getQty();
+            flow[1]++;
         }
+        flows.forEach((productId, byType) -> byType.forEach((type, flow) ->
+                stockFlowService.record(productId, type, now.toLocalDate(), flow[0], flow[1])));
         
-        product.setQty(newQuantity);
-        productRepository.save(product);
+        for (int i : accepted) {
+            Transaction transaction = transactions.get(i);
+            results[i] = new BatchTransactionResult(i, true, transaction.getId(), transaction.getProduct().getId(), null);
+            stockEventService.transactionRecorded(transaction);
+        }
+        return Arrays.asList(results);
+    }
+    
+    public KeysetPage<Transaction> getAllTransactions(Long after, Integer limit) {
+        return KeysetPage.of(transactionRepository.findByIdGreaterThanOrderByIdAsc(after, KeysetPage.request(limit)),
+                limit, Transaction::getId);
     }
     
-    public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
+    public TablePage<Transaction> getTransactionTable(Integer page, Integer limit, String sort, String direction) {
+        Pageable pageable = TablePage.request(page, limit, sort, direction, TABLE_SORTS);
+        return TablePage.of(transactionRepository.findAllBy(pageable));
     }
     
     public Optional<Transaction> getTransactionById(Long id) {
-        return transactionRepository.findById(id);
+        return transactionRepository.findWithProductAndUserById(id);
     }
     
-    public List<Transaction> getTransactionsByProduct(Long productId) {
-        return transactionRepository.findByProductId(productId);
+    public KeysetPage<Transaction> getTransactionsByProduct(Long productId, Long after, Integer limit) {
+        return KeysetPage.of(transactionRepository.findByProductIdAndIdGreaterThanOrderByIdAsc(productId, after, KeysetPage.request(limit)),
+                limit, Transaction::getId);
     }
     
-    public List<Transaction> getTransactionsByUser(Long userId) {
-        return transactionRepository.findByUserId(userId);
+    public KeysetPage<Transaction> getTransactionsByUser(Long userId, Long after, Integer limit) {
+        return KeysetPage.of(transactionRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, after, KeysetPage.request(limit)),
+                limit, Transaction::getId);
     }
     
-    public List<Transaction> getTransactionsByType(Transaction.TransactionType type) {
-        return transactionRepository.findByType(type);
+    public KeysetPage<Transaction> getTransactionsByType(Transaction.TransactionType type, Long after, Integer limit) {
+        return KeysetPage.of(transactionRepository.findByTypeAndIdGreaterThanOrderByIdAsc(type, after, KeysetPage.request(limit)),
+                limit, Transaction::getId);
     }
     
-    public List<Transaction> getTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.findByDateRange(startDate, endDate);
+    public KeysetPage<Transaction> getTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                                             Long after, Integer limit) {
+        return KeysetPage.of(transactionRepository.findByDateRange(startDate, endDate, after, KeysetPage.request(limit)),
+                limit, Transaction::getId);
     }
     
-    public List<Transaction> getTransactionsByProductAndDateRange(Long productId, 
-                                                                LocalDateTime startDate, 
-                                                                LocalDateTime endDate) {
-        return transactionRepository.findByProductAndDateRange(productId, startDate, endDate);
+    public KeysetPage<Transaction> getTransactionsByProductAndDateRange(Long productId, 
+                                                                      LocalDateTime startDate, 
+                                                                      LocalDateTime endDate,
+                                                                      Long after, Integer limit) {
+        return KeysetPage.of(transactionRepository.findByProductAndDateRange(productId, startDate, endDate, after, KeysetPage.request(limit)),
+                limit, Transaction::getId);
     }
     
-    public List<Transaction> getTransactionsByBatchNumber(String batchNumber) {
-        return transactionRepository.findByBatchNumber(batchNumber);
+    public KeysetPage<Transaction> getTransactionsByBatchNumber(String batchNumber, Long after, Integer limit) {
+        return KeysetPage.of(transactionRepository.findByBatchNumber(batchNumber, after, KeysetPage.request(limit)),
+                limit, Transaction::getId);
     }
     
-    public List<Transaction> getTransactionsByLotNumber(String lotNumber) {
-        return transactionRepository.findByLotNumber(lotNumber);
+    public KeysetPage<Transaction> getTransactionsByLotNumber(String lotNumber, Long after, Integer limit) {
+        return KeysetPage.of(transactionRepository.findByLotNumber(lotNumber, after, KeysetPage.request(limit)),
+                limit, Transaction::getId);
     }
     
     public Integer getTotalQuantityByProductAndType(Long productId, Transaction.TransactionType type) {
-        Integer total = transactionRepository.getTotalQuantityByProductAndType(productId, type);
-        return total != null ? total : 0;
+        return Math.toIntExact(stockFlowService.getTotalQuantity(productId, type));
     }
     
+    // The stock movement is reversed through the ledger, so deleting a transaction
+    // leaves the quantity as if it had never been booked
     public void deleteTransaction(Long id) {
-        transactionRepository.deleteById(id);
+        transactionRepository.findById(id).ifPresent(transaction -> {
+            stockService.reverseTransaction(transaction.getProduct().getId(), transaction.getQty(), transaction.getType());
+            stockFlowService.reverse(transaction);
+            transactionRepository.delete(transaction);
+        });
     }
 }
@@ -0,0 +1,90 @@
+package com.arya.inventory.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.arya.inventory.entity.User;
+import com.arya.inventory.repository.UserRepository;
+
+// Bounded, time-limited cache of authenticated principals so the JWT filter does not
+// query the users table on every request. UserService invalidates entries on writes.
+@Component
+public class UserPrincipalCache {
+    
+    private static final int MAX_ENTRIES = 10_000;
+    private static final long TTL_MILLIS = 5 * 60 * 1000L;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    // Bumped on every invalidation so a load racing with a user update cannot
+    // put the stale row back into the cache
+    private final AtomicLong generation = new AtomicLong();
+    
+    public Optional<User> get(String username) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(username);
+        if (entry != null && entry.expiresAt > now) {
+            return Optional.of(entry.user);
+        }
+        
+        long loadGeneration = generation.get();
+        Optional<User> user = userRepository.findByUsername(username);
+        if (user.isEmpty()) {
+            entries.remove(username);
+            return user;
+        }
+        if (entries.size() >= MAX_ENTRIES) {
+            evict(now);
+        }
+        // Checked again after the put: an invalidation between the check and the put would
+        // otherwise leave the stale row cached. Invalidations bump the generation before
+        // removing, so either the remove comes after the put or the check sees the bump.
+        if (generation.get() == loadGeneration) {
+            Entry loaded = new Entry(user.get(), now + TTL_MILLIS);
+            entries.put(username, loaded);
+            if (generation.get() != loadGeneration) {
+                entries.remove(username, loaded);
+            }
+        }
+        return user;
+    }
+    
+    public void invalidate(String username) {
+        generation.incrementAndGet();
+        entries.remove(username);
+    }
+    
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+    
+    // Drops expired entries first; if the cache is still full, drops arbitrary ones
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() >= MAX_ENTRIES && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+    
+    private static final class Entry {
+        private final User user;
+        private final long expiresAt;
+        
+        private Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
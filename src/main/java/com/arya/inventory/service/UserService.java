@@ -1,6 +1,5 @@
 package com.arya.inventory.service;
 
-import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +9,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.arya.inventory.dto.KeysetPage;
 import com.arya.inventory.entity.User;
 import com.arya.inventory.repository.UserRepository;
 
@@ -22,6 +22,9 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+    
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByUsername(username)
@@ -36,8 +39,9 @@ public class UserService implements UserDetailsService {
         return userRepository.save(user);
     }
     
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public KeysetPage<User> getAllUsers(Long after, Integer limit) {
+        return KeysetPage.of(userRepository.findByIdGreaterThanOrderByIdAsc(after, KeysetPage.request(limit)),
+                limit, User::getId);
     }
     
     public Optional<User> getUserById(Long id) {
@@ -52,11 +56,22 @@ public class UserService implements UserDetailsService {
         if (user.getId() == null) {
             throw new RuntimeException("User ID is required for update");
         }
-        return userRepository.save(user);
+        evictCachedPrincipal(user.getId());
+        User saved = userRepository.save(user);
+        userPrincipalCache.invalidate(saved.getUsername());
+        return saved;
     }
     
+    // Invalidated once the delete has committed, so a request in between cannot cache the
+    // still-present row and keep authenticating the user until it expires
     public void deleteUser(Long id) {
+        Optional<User> existing = userRepository.findById(id);
         userRepository.deleteById(id);
+        existing.ifPresent(user -> userPrincipalCache.invalidate(user.getUsername()));
+    }
+    
+    private void evictCachedPrincipal(Long id) {
+        userRepository.findById(id).ifPresent(existing -> userPrincipalCache.invalidate(existing.getUsername()));
     }
     
     public boolean existsByUsername(String username) {
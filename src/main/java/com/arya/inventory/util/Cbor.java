@@ -0,0 +1,49 @@
+package com.arya.inventory.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+// CBOR (RFC 8949), the API's binary alternative to JSON, as a Jackson generator and parser,
+// so values go through the same ObjectMapper and serializers as JSON. Numbers stay binary:
+// integers as CBOR integers, BigDecimal as a decimal fraction (tag 4), doubles as float64,
+// and dates as arrays of integers, so neither side formats or parses decimal text.
+public final class Cbor {
+    
+    private Cbor() {}
+    
+    public static byte[] writeValueAsBytes(ObjectMapper mapper, Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writeValue(mapper, value, bytes);
+        return bytes.toByteArray();
+    }
+    
+    // Leaves the stream open
+    public static void writeValue(ObjectMapper mapper, Object value, OutputStream out) throws IOException {
+        try (JsonGenerator generator = new CborGenerator(mapper, out)) {
+            mapper.writer().with(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writeValue(generator, value);
+        }
+    }
+    
+    public static <T> T readValue(ObjectMapper mapper, InputStream in, Class<T> type) throws IOException {
+        return readValue(mapper, in, mapper.constructType(type));
+    }
+    
+    public static <T> T readValue(ObjectMapper mapper, InputStream in, JavaType type) throws IOException {
+        try (JsonParser parser = parser(mapper, in)) {
+            return mapper.readValue(parser, type);
+        }
+    }
+    
+    // E.g. for ObjectMapper.readTree
+    public static JsonParser parser(ObjectMapper mapper, InputStream in) {
+        return new CborParser(mapper, in);
+    }
+}
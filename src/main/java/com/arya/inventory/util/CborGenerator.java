@@ -0,0 +1,323 @@
+package com.arya.inventory.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.base.GeneratorBase;
+import com.fasterxml.jackson.core.json.JsonWriteContext;
+
+// Writes CBOR for Cbor. Objects and arrays have indefinite length, so nothing has to be
+// counted before it is written. close() flushes but leaves the stream open.
+final class CborGenerator extends GeneratorBase {
+    
+    static final int UNSIGNED = 0;
+    static final int NEGATIVE = 1;
+    static final int BYTES = 2;
+    static final int TEXT = 3;
+    static final int ARRAY = 4;
+    static final int MAP = 5;
+    static final int TAG = 6;
+    static final int INDEFINITE = 31;
+    static final int BREAK = 0xFF;
+    static final int POSITIVE_BIGNUM = 2;
+    static final int NEGATIVE_BIGNUM = 3;
+    static final int DECIMAL_FRACTION = 4;
+    
+    private static final int FALSE = 0xF4;
+    private static final int TRUE = 0xF5;
+    private static final int NULL = 0xF6;
+    private static final int FLOAT32 = 0xFA;
+    private static final int FLOAT64 = 0xFB;
+    // Longest head: the initial byte and an 8-byte argument
+    private static final int MAX_HEAD = 9;
+    private static final String RAW_UNSUPPORTED = "Raw content cannot be written as CBOR";
+    
+    private final OutputStream out;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+    
+    CborGenerator(ObjectCodec codec, OutputStream out) {
+        super(0, codec);
+        this.out = out;
+    }
+    
+    @Override
+    public void writeStartArray() throws IOException {
+        _verifyValueWrite("start an array");
+        _writeContext = _writeContext.createChildArrayContext();
+        write(ARRAY << 5 | INDEFINITE);
+    }
+    
+    @Override
+    public void writeEndArray() throws IOException {
+        if (!_writeContext.inArray()) {
+            _reportError("Current context not Array but " + _writeContext.typeDesc());
+        }
+        _writeContext = _writeContext.clearAndGetParent();
+        write(BREAK);
+    }
+    
+    @Override
+    public void writeStartObject() throws IOException {
+        _verifyValueWrite("start an object");
+        _writeContext = _writeContext.createChildObjectContext();
+        write(MAP << 5 | INDEFINITE);
+    }
+    
+    @Override
+    public void writeEndObject() throws IOException {
+        if (!_writeContext.inObject()) {
+            _reportError("Current context not Object but " + _writeContext.typeDesc());
+        }
+        _writeContext = _writeContext.clearAndGetParent();
+        write(BREAK);
+    }
+    
+    @Override
+    public void writeFieldName(String name) throws IOException {
+        if (_writeContext.writeFieldName(name) == JsonWriteContext.STATUS_EXPECT_VALUE) {
+            _reportError("Can not write a field name, expecting a value");
+        }
+        writeText(name);
+    }
+    
+    @Override
+    public void writeString(String text) throws IOException {
+        if (text == null) {
+            writeNull();
+            return;
+        }
+        _verifyValueWrite("write a string");
+        writeText(text);
+    }
+    
+    @Override
+    public void writeString(char[] text, int offset, int len) throws IOException {
+        writeString(new String(text, offset, len));
+    }
+    
+    @Override
+    public void writeRawUTF8String(byte[] text, int offset, int length) throws IOException {
+        writeUTF8String(text, offset, length);
+    }
+    
+    @Override
+    public void writeUTF8String(byte[] text, int offset, int length) throws IOException {
+        _verifyValueWrite("write a string");
+        writeHead(TEXT, length);
+        write(text, offset, length);
+    }
+    
+    @Override
+    public void writeRaw(String text) throws IOException {
+        _reportError(RAW_UNSUPPORTED);
+    }
+    
+    @Override
+    public void writeRaw(String text, int offset, int len) throws IOException {
+        _reportError(RAW_UNSUPPORTED);
+    }
+    
+    @Override
+    public void writeRaw(char[] text, int offset, int len) throws IOException {
+        _reportError(RAW_UNSUPPORTED);
+    }
+    
+    @Override
+    public void writeRaw(char c) throws IOException {
+        _reportError(RAW_UNSUPPORTED);
+    }
+    
+    @Override
+    public void writeBinary(Base64Variant variant, byte[] data, int offset, int len) throws IOException {
+        if (data == null) {
+            writeNull();
+            return;
+        }
+        _verifyValueWrite("write binary data");
+        writeHead(BYTES, len);
+        write(data, offset, len);
+    }
+    
+    @Override
+    public void writeNumber(int value) throws IOException {
+        writeNumber((long) value);
+    }
+    
+    @Override
+    public void writeNumber(long value) throws IOException {
+        _verifyValueWrite("write a number");
+        writeInteger(value);
+    }
+    
+    @Override
+    public void writeNumber(BigInteger value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        _verifyValueWrite("write a number");
+        writeInteger(value);
+    }
+    
+    @Override
+    public void writeNumber(double value) throws IOException {
+        _verifyValueWrite("write a number");
+        ensure(MAX_HEAD);
+        write(FLOAT64);
+        writeArgument(Double.doubleToLongBits(value), 8);
+    }
+    
+    @Override
+    public void writeNumber(float value) throws IOException {
+        _verifyValueWrite("write a number");
+        ensure(MAX_HEAD);
+        write(FLOAT32);
+        writeArgument(Float.floatToIntBits(value), 4);
+    }
+    
+    @Override
+    public void writeNumber(BigDecimal value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        _verifyValueWrite("write a number");
+        writeHead(TAG, DECIMAL_FRACTION);
+        writeHead(ARRAY, 2);
+        writeInteger(-value.scale());
+        writeInteger(value.unscaledValue());
+    }
+    
+    // Numbers Jackson already has as text, e.g. with a custom format
+    @Override
+    public void writeNumber(String encodedValue) throws IOException {
+        writeString(encodedValue);
+    }
+    
+    @Override
+    public void writeBoolean(boolean state) throws IOException {
+        _verifyValueWrite("write a boolean");
+        write(state ? TRUE : FALSE);
+    }
+    
+    @Override
+    public void writeNull() throws IOException {
+        _verifyValueWrite("write null");
+        write(NULL);
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        super.close();
+        flush();
+    }
+    
+    @Override
+    protected void _releaseBuffers() {
+    }
+    
+    @Override
+    protected void _verifyValueWrite(String typeMsg) throws IOException {
+        if (_writeContext.writeValue() == JsonWriteContext.STATUS_EXPECT_NAME) {
+            _reportError("Can not " + typeMsg + ", expecting a field name");
+        }
+    }
+    
+    private void writeText(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeHead(TEXT, bytes.length);
+        write(bytes, 0, bytes.length);
+    }
+    
+    private void writeInteger(long value) throws IOException {
+        if (value >= 0) {
+            writeHead(UNSIGNED, value);
+        } else {
+            writeHead(NEGATIVE, -1 - value);
+        }
+    }
+    
+    private void writeInteger(BigInteger value) throws IOException {
+        if (value.bitLength() < 64) {
+            writeInteger(value.longValue());
+            return;
+        }
+        boolean negative = value.signum() < 0;
+        byte[] magnitude = (negative ? value.negate().subtract(BigInteger.ONE) : value).toByteArray();
+        writeHead(TAG, negative ? NEGATIVE_BIGNUM : POSITIVE_BIGNUM);
+        // toByteArray() may add a leading sign byte
+        int offset = magnitude[0] == 0 ? 1 : 0;
+        writeHead(BYTES, magnitude.length - offset);
+        write(magnitude, offset, magnitude.length - offset);
+    }
+    
+    // The initial byte plus the shortest argument that holds the value
+    private void writeHead(int majorType, long value) throws IOException {
+        ensure(MAX_HEAD);
+        int type = majorType << 5;
+        if (value < 24) {
+            buffer[position++] = (byte) (type | value);
+        } else if (value < 0x100) {
+            buffer[position++] = (byte) (type | 24);
+            writeArgument(value, 1);
+        } else if (value < 0x10000) {
+            buffer[position++] = (byte) (type | 25);
+            writeArgument(value, 2);
+        } else if (value < 0x100000000L) {
+            buffer[position++] = (byte) (type | 26);
+            writeArgument(value, 4);
+        } else {
+            buffer[position++] = (byte) (type | 27);
+            writeArgument(value, 8);
+        }
+    }
+    
+    // Big-endian; the caller has ensured the room
+    private void writeArgument(long value, int bytes) {
+        for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+    
+    private void write(int b) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) b;
+    }
+    
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.length - position) {
+            flushBuffer();
+            if (length > buffer.length) {
+                out.write(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+    
+    private void ensure(int room) throws IOException {
+        if (room > buffer.length - position) {
+            flushBuffer();
+        }
+    }
+    
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
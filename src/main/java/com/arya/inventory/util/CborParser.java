@@ -0,0 +1,588 @@
+package com.arya.inventory.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.base.ParserMinimalBase;
+import com.fasterxml.jackson.core.json.JsonReadContext;
+
+import static com.arya.inventory.util.CborGenerator.ARRAY;
+import static com.arya.inventory.util.CborGenerator.BREAK;
+import static com.arya.inventory.util.CborGenerator.BYTES;
+import static com.arya.inventory.util.CborGenerator.DECIMAL_FRACTION;
+import static com.arya.inventory.util.CborGenerator.INDEFINITE;
+import static com.arya.inventory.util.CborGenerator.MAP;
+import static com.arya.inventory.util.CborGenerator.NEGATIVE;
+import static com.arya.inventory.util.CborGenerator.NEGATIVE_BIGNUM;
+import static com.arya.inventory.util.CborGenerator.POSITIVE_BIGNUM;
+import static com.arya.inventory.util.CborGenerator.TAG;
+import static com.arya.inventory.util.CborGenerator.TEXT;
+import static com.arya.inventory.util.CborGenerator.UNSIGNED;
+
+// Reads one CBOR value for Cbor, definite or indefinite length. Field names repeat on every
+// row of a list, so recent ones are kept and reused instead of decoded again. Tags other than
+// bignums and decimal fractions are skipped, leaving their content.
+final class CborParser extends ParserMinimalBase {
+    
+    private static final int MAX_DEPTH = 1000;
+    // Strings no longer than the buffer are read whole; longer ones in chunks, so a length
+    // header alone cannot make the parser allocate
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int NAME_CACHE_SIZE = 64;
+    private static final int MAX_CACHED_NAME = 64;
+    
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private ObjectCodec codec;
+    private boolean closed;
+    
+    private JsonReadContext context = JsonReadContext.createRootContext(null);
+    // Items left in each open container, or -1 for indefinite length
+    private long[] remaining = new long[16];
+    private int depth;
+    private boolean valueNext;
+    private boolean done;
+    
+    private String text;
+    private byte[] binary;
+    private NumberType numberType;
+    private long longValue;
+    private double doubleValue;
+    private BigInteger bigIntegerValue;
+    private BigDecimal decimalValue;
+    
+    private final byte[][] nameBytes = new byte[NAME_CACHE_SIZE][];
+    private final String[] names = new String[NAME_CACHE_SIZE];
+    
+    CborParser(ObjectCodec codec, InputStream in) {
+        this.codec = codec;
+        this.in = in;
+    }
+    
+    @Override
+    public JsonToken nextToken() throws IOException {
+        if (closed || done) {
+            return _currToken = null;
+        }
+        binary = null;
+        if (depth > 0 && !valueNext) {
+            if (atEnd()) {
+                return _currToken = end();
+            }
+            if (context.inObject()) {
+                context.setCurrentName(readName(next()));
+                valueNext = true;
+                return _currToken = JsonToken.FIELD_NAME;
+            }
+        }
+        valueNext = false;
+        JsonToken token = readValue(next());
+        if (token != JsonToken.START_ARRAY && token != JsonToken.START_OBJECT) {
+            itemDone();
+        }
+        return _currToken = token;
+    }
+    
+    private JsonToken readValue(int initial) throws IOException {
+        int majorType = initial >>> 5;
+        int info = initial & 0x1F;
+        switch (majorType) {
+            case UNSIGNED, NEGATIVE -> {
+                readInteger(initial);
+                return JsonToken.VALUE_NUMBER_INT;
+            }
+            case BYTES -> {
+                binary = readString(info);
+                return JsonToken.VALUE_EMBEDDED_OBJECT;
+            }
+            case TEXT -> {
+                text = readText(info);
+                return JsonToken.VALUE_STRING;
+            }
+            case ARRAY, MAP -> {
+                push(readArgument(info));
+                if (majorType == ARRAY) {
+                    context = context.createChildArrayContext(-1, -1);
+                    return JsonToken.START_ARRAY;
+                }
+                context = context.createChildObjectContext(-1, -1);
+                return JsonToken.START_OBJECT;
+            }
+            case TAG -> {
+                long tag = readArgument(info);
+                if (tag == POSITIVE_BIGNUM || tag == NEGATIVE_BIGNUM) {
+                    setBigInteger(readBignum(tag));
+                    return JsonToken.VALUE_NUMBER_INT;
+                }
+                if (tag == DECIMAL_FRACTION) {
+                    if (next() != (ARRAY << 5 | 2)) {
+                        throw _constructError("Malformed CBOR decimal fraction");
+                    }
+                    // A bignum exponent leaves longValue as it was, so it must not be read
+                    if (readInteger(next()) != null || longValue != (int) longValue) {
+                        throw _constructError("CBOR decimal fraction exponent out of range");
+                    }
+                    int exponent = (int) longValue;
+                    BigInteger mantissa = readInteger(next());
+                    decimalValue = mantissa == null ? BigDecimal.valueOf(longValue, -exponent) : new BigDecimal(mantissa, -exponent);
+                    numberType = NumberType.BIG_DECIMAL;
+                    return JsonToken.VALUE_NUMBER_FLOAT;
+                }
+                return readValue(next());
+            }
+            default -> {
+                return readSimple(info);
+            }
+        }
+    }
+    
+    private JsonToken readSimple(int info) throws IOException {
+        switch (info) {
+            case 20:
+                return JsonToken.VALUE_FALSE;
+            case 21:
+                return JsonToken.VALUE_TRUE;
+            case 22:
+            case 23:
+                return JsonToken.VALUE_NULL;
+            case 25:
+                setDouble(halfToFloat((int) readBits(2)), NumberType.FLOAT);
+                return JsonToken.VALUE_NUMBER_FLOAT;
+            case 26:
+                setDouble(Float.intBitsToFloat((int) readBits(4)), NumberType.FLOAT);
+                return JsonToken.VALUE_NUMBER_FLOAT;
+            case 27:
+                setDouble(Double.longBitsToDouble(readBits(8)), NumberType.DOUBLE);
+                return JsonToken.VALUE_NUMBER_FLOAT;
+            default:
+                throw _constructError("Unsupported CBOR simple value " + info);
+        }
+    }
+    
+    // Sets the number fields; returns the value only when it does not fit a long
+    private BigInteger readInteger(int initial) throws IOException {
+        int majorType = initial >>> 5;
+        if (majorType == TAG) {
+            BigInteger value = readBignum(readArgument(initial & 0x1F));
+            setBigInteger(value);
+            return numberType == NumberType.BIG_INTEGER ? value : null;
+        }
+        if (majorType != UNSIGNED && majorType != NEGATIVE) {
+            throw _constructError("Expected a CBOR integer, found " + initial);
+        }
+        long argument = readArgument(initial & 0x1F);
+        if (argument >= 0) {
+            longValue = majorType == UNSIGNED ? argument : -1 - argument;
+            numberType = longValue == (int) longValue ? NumberType.INT : NumberType.LONG;
+            return null;
+        }
+        // Arguments of 2^63 and over
+        BigInteger value = BigInteger.valueOf(argument).add(BigInteger.ONE.shiftLeft(64));
+        setBigInteger(majorType == UNSIGNED ? value : value.negate().subtract(BigInteger.ONE));
+        return bigIntegerValue;
+    }
+    
+    private BigInteger readBignum(long tag) throws IOException {
+        if (tag != POSITIVE_BIGNUM && tag != NEGATIVE_BIGNUM) {
+            throw _constructError("Unsupported CBOR tag " + tag + " where a number was expected");
+        }
+        int initial = next();
+        if (initial >>> 5 != BYTES) {
+            throw _constructError("Malformed CBOR bignum");
+        }
+        BigInteger value = new BigInteger(1, readString(initial & 0x1F));
+        return tag == POSITIVE_BIGNUM ? value : value.negate().subtract(BigInteger.ONE);
+    }
+    
+    private void setBigInteger(BigInteger value) {
+        if (value.bitLength() < 64) {
+            longValue = value.longValue();
+            numberType = longValue == (int) longValue ? NumberType.INT : NumberType.LONG;
+        } else {
+            bigIntegerValue = value;
+            numberType = NumberType.BIG_INTEGER;
+        }
+    }
+    
+    private void setDouble(double value, NumberType type) {
+        doubleValue = value;
+        numberType = type;
+    }
+    
+    private static float halfToFloat(int bits) {
+        int exponent = (bits >>> 10) & 0x1F;
+        int fraction = bits & 0x3FF;
+        float magnitude = exponent == 0 ? fraction * 0x1p-24f
+                : exponent == 31 ? (fraction == 0 ? Float.POSITIVE_INFINITY : Float.NaN)
+                : (1 + fraction / 1024f) * (float) Math.pow(2, exponent - 15);
+        return (bits & 0x8000) != 0 ? -magnitude : magnitude;
+    }
+    
+    private String readName(int initial) throws IOException {
+        int majorType = initial >>> 5;
+        if (majorType == UNSIGNED || majorType == NEGATIVE) {
+            BigInteger big = readInteger(initial);
+            return big != null ? big.toString() : Long.toString(longValue);
+        }
+        if (majorType != TEXT) {
+            throw _constructError("Unsupported CBOR map key " + initial);
+        }
+        long length = readArgument(initial & 0x1F);
+        if (length < 0 || length > MAX_CACHED_NAME) {
+            return new String(readString(length), StandardCharsets.UTF_8);
+        }
+        int size = (int) length;
+        require(size);
+        int hash = 0;
+        for (int i = position; i < position + size; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+        byte[] cached = nameBytes[slot];
+        if (cached == null || !Arrays.equals(cached, 0, cached.length, buffer, position, position + size)) {
+            nameBytes[slot] = Arrays.copyOfRange(buffer, position, position + size);
+            names[slot] = new String(buffer, position, size, StandardCharsets.UTF_8);
+        }
+        position += size;
+        return names[slot];
+    }
+    
+    private String readText(int info) throws IOException {
+        long length = readArgument(info);
+        if (length >= 0 && length <= BUFFER_SIZE) {
+            int size = (int) length;
+            require(size);
+            String value = new String(buffer, position, size, StandardCharsets.UTF_8);
+            position += size;
+            return value;
+        }
+        return new String(readString(length), StandardCharsets.UTF_8);
+    }
+    
+    private byte[] readString(int info) throws IOException {
+        return readString(readArgument(info));
+    }
+    
+    // Byte and text strings; an indefinite one is a series of definite chunks
+    private byte[] readString(long length) throws IOException {
+        if (length >= 0 && length <= BUFFER_SIZE) {
+            require((int) length);
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + (int) length);
+            position += (int) length;
+            return bytes;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        if (length >= 0) {
+            copy(bytes, length);
+            return bytes.toByteArray();
+        }
+        int initial;
+        while ((initial = next()) != BREAK) {
+            long chunk = readArgument(initial & 0x1F);
+            if (chunk < 0) {
+                throw _constructError("Nested indefinite CBOR string");
+            }
+            copy(bytes, chunk);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private void copy(ByteArrayOutputStream out, long length) throws IOException {
+        while (length > 0) {
+            if (position == limit) {
+                require(1);
+            }
+            int count = (int) Math.min(length, limit - position);
+            out.write(buffer, position, count);
+            position += count;
+            length -= count;
+        }
+    }
+    
+    // The argument of a head, or -1 for indefinite length
+    private long readArgument(int info) throws IOException {
+        if (info < 24) {
+            return info;
+        }
+        return switch (info) {
+            case 24 -> next();
+            case 25 -> readBits(2);
+            case 26 -> readBits(4);
+            case 27 -> readBits(8);
+            case INDEFINITE -> -1;
+            default -> throw _constructError("Malformed CBOR length " + info);
+        };
+    }
+    
+    private void push(long length) throws IOException {
+        if (depth == MAX_DEPTH) {
+            throw _constructError("CBOR nested deeper than " + MAX_DEPTH);
+        }
+        if (++depth == remaining.length) {
+            remaining = Arrays.copyOf(remaining, depth * 2);
+        }
+        remaining[depth] = length;
+    }
+    
+    private boolean atEnd() throws IOException {
+        if (remaining[depth] >= 0) {
+            return remaining[depth] == 0;
+        }
+        require(1);
+        if ((buffer[position] & 0xFF) != BREAK) {
+            return false;
+        }
+        position++;
+        return true;
+    }
+    
+    private JsonToken end() {
+        JsonToken token = context.inArray() ? JsonToken.END_ARRAY : JsonToken.END_OBJECT;
+        context = context.clearAndGetParent();
+        depth--;
+        itemDone();
+        return token;
+    }
+    
+    private void itemDone() {
+        if (depth == 0) {
+            done = true;
+        } else if (remaining[depth] > 0) {
+            remaining[depth]--;
+        }
+    }
+    
+    private int next() throws IOException {
+        if (position == limit) {
+            require(1);
+        }
+        return buffer[position++] & 0xFF;
+    }
+    
+    private long readBits(int bytes) throws IOException {
+        require(bytes);
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+    
+    // Makes the next count bytes, at most the buffer's size, contiguous in the buffer
+    private void require(int count) throws IOException {
+        if (limit - position >= count) {
+            return;
+        }
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+        while (limit < count) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                throw new EOFException("Truncated CBOR");
+            }
+            limit += read;
+        }
+    }
+    
+    @Override
+    public String getCurrentName() {
+        if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+            JsonReadContext parent = context.getParent();
+            return parent == null ? null : parent.getCurrentName();
+        }
+        return context.getCurrentName();
+    }
+    
+    @Override
+    public void overrideCurrentName(String name) {
+        try {
+            context.setCurrentName(name);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    @Override
+    public JsonReadContext getParsingContext() {
+        return context;
+    }
+    
+    @Override
+    public String getText() throws IOException {
+        if (_currToken == null) {
+            return null;
+        }
+        return switch (_currToken) {
+            case FIELD_NAME -> context.getCurrentName();
+            case VALUE_STRING -> text;
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> String.valueOf(getNumberValue());
+            case VALUE_EMBEDDED_OBJECT -> binary == null ? null : Arrays.toString(binary);
+            default -> _currToken.asString();
+        };
+    }
+    
+    @Override
+    public char[] getTextCharacters() throws IOException {
+        String value = getText();
+        return value == null ? null : value.toCharArray();
+    }
+    
+    @Override
+    public int getTextLength() throws IOException {
+        String value = getText();
+        return value == null ? 0 : value.length();
+    }
+    
+    @Override
+    public int getTextOffset() {
+        return 0;
+    }
+    
+    @Override
+    public boolean hasTextCharacters() {
+        return false;
+    }
+    
+    @Override
+    public byte[] getBinaryValue(Base64Variant variant) throws IOException {
+        if (_currToken == JsonToken.VALUE_EMBEDDED_OBJECT && binary != null) {
+            return binary;
+        }
+        if (_currToken == JsonToken.VALUE_STRING) {
+            return variant.decode(text);
+        }
+        throw _constructError("Current token (" + _currToken + ") is not binary data");
+    }
+    
+    @Override
+    public Object getEmbeddedObject() {
+        return _currToken == JsonToken.VALUE_EMBEDDED_OBJECT ? binary : null;
+    }
+    
+    @Override
+    public Number getNumberValue() throws IOException {
+        return switch (getNumberType()) {
+            case INT -> (int) longValue;
+            case LONG -> longValue;
+            case BIG_INTEGER -> bigIntegerValue;
+            case FLOAT -> (float) doubleValue;
+            case DOUBLE -> doubleValue;
+            case BIG_DECIMAL -> decimalValue;
+        };
+    }
+    
+    @Override
+    public NumberType getNumberType() throws IOException {
+        if (_currToken != JsonToken.VALUE_NUMBER_INT && _currToken != JsonToken.VALUE_NUMBER_FLOAT) {
+            throw _constructError("Current token (" + _currToken + ") is not numeric");
+        }
+        return numberType;
+    }
+    
+    @Override
+    public int getIntValue() throws IOException {
+        if (getNumberType() == NumberType.INT) {
+            return (int) longValue;
+        }
+        long value = getLongValue();
+        if (value != (int) value) {
+            reportOverflowInt();
+        }
+        return (int) value;
+    }
+    
+    @Override
+    public long getLongValue() throws IOException {
+        return switch (getNumberType()) {
+            case INT, LONG -> longValue;
+            case BIG_INTEGER -> {
+                reportOverflowLong();
+                yield 0;
+            }
+            default -> getNumberValue().longValue();
+        };
+    }
+    
+    @Override
+    public BigInteger getBigIntegerValue() throws IOException {
+        return switch (getNumberType()) {
+            case INT, LONG -> BigInteger.valueOf(longValue);
+            case BIG_INTEGER -> bigIntegerValue;
+            default -> getDecimalValue().toBigInteger();
+        };
+    }
+    
+    @Override
+    public float getFloatValue() throws IOException {
+        return getNumberValue().floatValue();
+    }
+    
+    @Override
+    public double getDoubleValue() throws IOException {
+        return getNumberValue().doubleValue();
+    }
+    
+    @Override
+    public BigDecimal getDecimalValue() throws IOException {
+        return switch (getNumberType()) {
+            case INT, LONG -> BigDecimal.valueOf(longValue);
+            case BIG_INTEGER -> new BigDecimal(bigIntegerValue);
+            case BIG_DECIMAL -> decimalValue;
+            default -> BigDecimal.valueOf(doubleValue);
+        };
+    }
+    
+    @Override
+    public ObjectCodec getCodec() {
+        return codec;
+    }
+    
+    @Override
+    public void setCodec(ObjectCodec codec) {
+        this.codec = codec;
+    }
+    
+    @Override
+    public Version version() {
+        return Version.unknownVersion();
+    }
+    
+    @Override
+    public JsonLocation getCurrentLocation() {
+        return JsonLocation.NA;
+    }
+    
+    @Override
+    public JsonLocation getTokenLocation() {
+        return JsonLocation.NA;
+    }
+    
+    // Leaves the stream open, like the generator
+    @Override
+    public void close() {
+        closed = true;
+    }
+    
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+    
+    @Override
+    protected void _handleEOF() {
+    }
+}
@@ -0,0 +1,172 @@
+package com.arya.inventory.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// In-memory trigram index answering case-insensitive substring and prefix queries.
+// Each document is a list of text fields ordered by importance; results are ranked by
+// the best kind of match (exact, prefix, word prefix, substring) in the most important field.
+public class NgramIndex {
+    
+    private static final int N = 3;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private volatile boolean built;
+    
+    // Loads the index on first use. Writes made before that are skipped here and picked up
+    // by the load; taking the write lock in put/remove orders them against a running load.
+    public void ensureBuilt(Supplier<Map<Long, String[]>> loader) {
+        if (built) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                loader.get().forEach(this::putLocked);
+                built = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void put(Long id, String... fields) {
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                return;
+            }
+            removeLocked(id);
+            putLocked(id, fields);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            if (built) {
+                removeLocked(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public List<Long> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Iterable<Long> candidates = q.length() < N ? documents.keySet() : candidates(q);
+            List<long[]> hits = new ArrayList<>();
+            for (Long id : candidates) {
+                int score = score(documents.get(id), q);
+                if (score > 0) {
+                    hits.add(new long[] {id, score});
+                }
+            }
+            hits.sort(Comparator.<long[]>comparingLong(hit -> -hit[1]).thenComparingLong(hit -> hit[0]));
+            List<Long> ids = new ArrayList<>(Math.min(limit, hits.size()));
+            for (int i = 0; i < hits.size() && i < limit; i++) {
+                ids.add(hits.get(i)[0]);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Intersects posting lists, smallest first, so the verify pass touches few documents
+    private Set<Long> candidates(String q) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(q)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting == null) {
+                return Set.of();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+    
+    private int score(String[] fields, String q) {
+        int best = 0;
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i];
+            int match;
+            if (field.isEmpty()) {
+                continue;
+            } else if (field.equals(q)) {
+                match = 4;
+            } else if (field.startsWith(q)) {
+                match = 3;
+            } else {
+                int at = field.indexOf(q);
+                if (at < 0) {
+                    continue;
+                }
+                match = Character.isLetterOrDigit(field.charAt(at - 1)) ? 1 : 2;
+            }
+            best = Math.max(best, match * 10 + (fields.length - i));
+        }
+        return best;
+    }
+    
+    private void putLocked(Long id, String... fields) {
+        String[] normalized = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            normalized[i] = normalize(fields[i]);
+            for (String gram : grams(normalized[i])) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+            }
+        }
+        documents.put(id, normalized);
+    }
+    
+    private void removeLocked(Long id) {
+        String[] fields = documents.remove(id);
+        if (fields == null) {
+            return;
+        }
+        for (String field : fields) {
+            for (String gram : grams(field)) {
+                Set<Long> posting = postings.get(gram);
+                if (posting != null && posting.remove(id) && posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+    
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + N <= text.length(); i++) {
+            grams.add(text.substring(i, i + N));
+        }
+        return grams;
+    }
+    
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+}
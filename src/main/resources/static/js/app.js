@@ -5,6 +5,8 @@ let currentTab = 'products';
 
 // API Configuration
 const API_BASE_URL = 'http://localhost:3000/api';
+// Largest page the list endpoints serve
+const LIST_PAGE_LIMIT = 1000;
 
 // Initialize the application
 document.addEventListener('DOMContentLoaded', function() {
@@ -44,6 +46,10 @@ function setupEventListeners() {
     
     // Logout
     document.getElementById('logoutBtn').addEventListener('click', handleLogout);
+    
+    // Search as you type
+    document.getElementById('productSearch')?.addEventListener('input', searchProducts);
+    document.getElementById('supplierSearch')?.addEventListener('input', searchSuppliers);
 }
 
 // Authentication Functions
@@ -134,6 +140,8 @@ function handleLogout() {
     currentUser = null;
     localStorage.removeItem('authToken');
     localStorage.removeItem('currentUser');
+    closeStockStream();
+    [productTable, supplierTable, transactionTable].forEach(table => table && table.clear());
     showLoginModal();
     showToast('Logged out successfully', 'success');
 }
@@ -168,6 +176,7 @@ function showMainApp() {
     
     // Load initial data
     loadCurrentTabData();
+    openStockStream();
 }
 
 function switchTab(tabName) {
@@ -237,150 +246,452 @@ async function apiRequest(endpoint, options = {}) {
     return response;
 }
 
-// Product Management Functions
-async function loadProducts() {
+// List endpoints return one page at a time, with the cursor for the next one in
+// X-Next-Cursor; this follows it to the end and returns every item
+async function apiRequestAll(endpoint) {
+    const items = [];
+    let after = null;
+    do {
+        const separator = endpoint.includes('?') ? '&' : '?';
+        const response = await apiRequest(`${endpoint}${separator}limit=${LIST_PAGE_LIMIT}${after === null ? '' : `&after=${after}`}`);
+        items.push(...await response.json());
+        after = response.headers.get('X-Next-Cursor');
+    } while (after !== null);
+    return items;
+}
+
+// Live Stock Updates
+// EventSource cannot send the Authorization header, so the SSE stream is read with fetch
+let stockStreamController = null;
+
+async function openStockStream() {
+    closeStockStream();
+    const controller = new AbortController();
+    stockStreamController = controller;
+    
     try {
-        showLoading(true);
-        const response = await apiRequest('/products');
-        const products = await response.json();
-        displayProducts(products);
+        const response = await fetch(`${API_BASE_URL}/stream/stock`, {
+            headers: {
+                'Accept': 'text/event-stream',
+                'Authorization': `Bearer ${authToken}`
+            },
+            signal: controller.signal
+        });
+        if (!response.ok) {
+            throw new Error(`HTTP ${response.status}`);
+        }
+        
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+        let buffer = '';
+        while (true) {
+            const { value, done } = await reader.read();
+            if (done) {
+                break;
+            }
+            buffer += value;
+            let end;
+            while ((end = buffer.indexOf('\n\n')) >= 0) {
+                handleStockStreamMessage(buffer.slice(0, end));
+                buffer = buffer.slice(end + 2);
+            }
+        }
     } catch (error) {
-        showToast('Failed to load products', 'error');
-    } finally {
-        showLoading(false);
+        if (controller.signal.aborted) {
+            return;
+        }
+    }
+    
+    // Server closed or the network dropped; try again shortly while still logged in
+    if (stockStreamController === controller && authToken) {
+        setTimeout(() => {
+            if (stockStreamController === controller && authToken) {
+                openStockStream();
+            }
+        }, 5000);
     }
 }
 
-function displayProducts(products) {
-    const tbody = document.getElementById('productsTableBody');
-    tbody.innerHTML = '';
-    
-    products.forEach(product => {
-        const row = document.createElement('tr');
-        row.innerHTML = `
-            <td>${product.id}</td>
-            <td>${product.name}</td>
-            <td>${product.sku}</td>
-            <td>${product.category}</td>
-            <td>$${product.price}</td>
-            <td>${product.qty}</td>
-            <td>${product.description || '-'}</td>
-            <td>
-                <div class="action-buttons">
-                    <button class="btn btn-primary" onclick="editProduct(${product.id})">
-                        <i class="fas fa-edit"></i>
-                    </button>
-                    <button class="btn btn-danger" onclick="deleteProduct(${product.id})">
-                        <i class="fas fa-trash"></i>
-                    </button>
-                </div>
-            </td>
-        `;
-        tbody.appendChild(row);
-    });
+function closeStockStream() {
+    if (stockStreamController) {
+        stockStreamController.abort();
+        stockStreamController = null;
+    }
 }
 
-async function searchProducts() {
-    const searchTerm = document.getElementById('productSearch').value;
-    if (!searchTerm.trim()) {
-        loadProducts();
+function handleStockStreamMessage(message) {
+    let event = null;
+    let data = '';
+    message.split('\n').forEach(line => {
+        if (line.startsWith('event:')) {
+            event = line.slice(6).trim();
+        } else if (line.startsWith('data:')) {
+            data += line.slice(5).trim();
+        }
+    });
+    if (!event || !data) {
         return;
     }
     
-    try {
-        showLoading(true);
-        const response = await apiRequest(`/products/search?name=${encodeURIComponent(searchTerm)}`);
-        const products = await response.json();
-        displayProducts(products);
-    } catch (error) {
-        showToast('Search failed', 'error');
-    } finally {
-        showLoading(false);
+    const payload = JSON.parse(data);
+    if (event === 'stock') {
+        if (productTable) {
+            productTable.updateRow(payload.productId, product => { product.qty = payload.qty; });
+        }
+    } else if (event === 'transaction' && transactionTable) {
+        // New transactions come in bursts; one refresh picks up all of them
+        if (transactionRefreshTimer === null) {
+            transactionRefreshTimer = setTimeout(() => {
+                transactionRefreshTimer = null;
+                transactionTable.refresh();
+            }, 500);
+        }
     }
 }
 
-async function filterProductsByCategory() {
-    const category = document.getElementById('categoryFilter').value;
-    if (!category) {
-        loadProducts();
-        return;
+// Virtual Tables
+// A table renders only the rows in view, plus a few either side, into a pool of <tr> elements
+// that are reused as it scrolls; spacer rows above and below give the scrollbar the height of
+// the whole list. Rows come a page at a time from a /table endpoint when first scrolled to, and
+// only the most recently used pages are kept, so a list of any length costs the same.
+const VIRTUAL_PAGE_SIZE = 200;
+const VIRTUAL_MAX_PAGES = 10;
+const VIRTUAL_OVERSCAN = 10;
+const SEARCH_DEBOUNCE_MS = 300;
+
+// columns: one function per column that fills a <td> from a row, or from null while the row
+// is still loading. With changesPath, refresh() asks /changes what was written or deleted and
+// patches cached rows in place when it can.
+function createVirtualTable({ tbodyId, path, changesPath, columns }) {
+    const tbody = document.getElementById(tbodyId);
+    const container = tbody.closest('.table-container');
+    container.classList.add('virtual-scroll');
+    const topSpacer = createSpacer(columns.length);
+    const bottomSpacer = createSpacer(columns.length);
+    const pool = [];
+    const pages = new Map();
+    const loading = new Set();
+    const failed = new Set();
+    let query = '';
+    let total = 0;
+    let rowHeight = 0;
+    let version = null;
+    let controller = new AbortController();
+    let frame = null;
+    
+    tbody.replaceChildren(topSpacer, bottomSpacer);
+    container.addEventListener('scroll', scheduleRender, { passive: true });
+    window.addEventListener('resize', scheduleRender);
+    
+    function scheduleRender() {
+        if (frame === null) {
+            frame = requestAnimationFrame(render);
+        }
     }
     
-    try {
-        showLoading(true);
-        const response = await apiRequest(`/products/category/${encodeURIComponent(category)}`);
-        const products = await response.json();
-        displayProducts(products);
-    } catch (error) {
-        showToast('Filter failed', 'error');
-    } finally {
-        showLoading(false);
+    function render() {
+        frame = null;
+        const height = rowHeight || 50;
+        const scrolled = Math.max(0, container.scrollTop - tbody.offsetTop);
+        const first = Math.min(total, Math.floor(scrolled / height));
+        const start = Math.max(0, first - VIRTUAL_OVERSCAN);
+        const end = Math.min(total, first + Math.ceil(container.clientHeight / height) + VIRTUAL_OVERSCAN);
+        
+        while (pool.length < end - start) {
+            const row = document.createElement('tr');
+            columns.forEach(() => row.appendChild(document.createElement('td')));
+            pool.push(row);
+        }
+        for (let index = start; index < end; index++) {
+            const row = pool[index - start];
+            const item = rowAt(index);
+            if (row.item !== item || item === null) {
+                row.item = item;
+                columns.forEach((fill, column) => fill(row.cells[column], item));
+            }
+            if (row.parentNode !== tbody) {
+                tbody.insertBefore(row, bottomSpacer);
+            }
+        }
+        pool.slice(end - start).forEach(row => row.remove());
+        
+        // Rows are one line high (see .virtual-scroll in style.css), so one loaded row gives
+        // the height of all of them
+        if (!rowHeight && end > start && pool[0].item) {
+            rowHeight = pool[0].offsetHeight;
+            scheduleRender();
+        }
+        topSpacer.firstChild.style.height = `${start * height}px`;
+        bottomSpacer.firstChild.style.height = `${(total - end) * height}px`;
+    }
+    
+    function rowAt(index) {
+        const page = Math.floor(index / VIRTUAL_PAGE_SIZE);
+        const items = pages.get(page);
+        if (!items) {
+            load(page);
+            return null;
+        }
+        // Most recently used last, so the oldest page is first in line to be dropped
+        pages.delete(page);
+        pages.set(page, items);
+        return items[index % VIRTUAL_PAGE_SIZE] || null;
+    }
+    
+    // A failed page is not retried while scrolling, only on refresh
+    async function load(page) {
+        if (loading.has(page) || failed.has(page) || !authToken) {
+            return;
+        }
+        loading.add(page);
+        const signal = controller.signal;
+        try {
+            const response = await apiRequest(
+                `${path}/table?page=${page}&limit=${VIRTUAL_PAGE_SIZE}${query}`, { signal });
+            const items = await response.json();
+            if (signal.aborted) {
+                return;
+            }
+            total = Number(response.headers.get('X-Total-Count'));
+            pages.set(page, items);
+            while (pages.size > VIRTUAL_MAX_PAGES) {
+                pages.delete(pages.keys().next().value);
+            }
+            pool.forEach(row => { row.item = undefined; });
+            scheduleRender();
+        } catch (error) {
+            if (!signal.aborted) {
+                failed.add(page);
+                showToast('Failed to load rows', 'error');
+            }
+        } finally {
+            if (!signal.aborted) {
+                loading.delete(page);
+            }
+        }
+    }
+    
+    // Fetches the cached pages again, or the first page when none is cached
+    function reloadPages() {
+        const stale = new Set([...pages.keys(), ...failed]);
+        if (stale.size === 0) {
+            stale.add(0);
+        }
+        failed.clear();
+        stale.forEach(page => {
+            loading.delete(page);
+            load(page);
+        });
+    }
+    
+    // Replaces cached rows with their new values, or returns false without touching anything
+    // if one is not cached, which includes new rows. Rows are in id order, so an edit never
+    // moves a row, but it might take it out of a search.
+    function patch(updated) {
+        if (query) {
+            return updated.length === 0;
+        }
+        const positions = updated.map(item => {
+            for (const items of pages.values()) {
+                const index = items.findIndex(row => row.id === item.id);
+                if (index >= 0) {
+                    return { items, index };
+                }
+            }
+            return null;
+        });
+        if (positions.includes(null)) {
+            return false;
+        }
+        positions.forEach(({ items, index }, i) => {
+            items[index] = updated[i];
+        });
+        pool.forEach(row => { row.item = undefined; });
+        scheduleRender();
+        return true;
+    }
+    
+    // The version is taken before any page is read, so anything written meanwhile comes again
+    // with the next refresh
+    async function refresh() {
+        if (changesPath) {
+            try {
+                const response = await apiRequest(`${changesPath}?sinceVersion=${version === null ? -1 : version}`);
+                const changes = await response.json();
+                const current = version;
+                version = changes.version;
+                if (current !== null && !changes.reset && changes.deleted.length === 0 && patch(changes.updated)) {
+                    return;
+                }
+            } catch (error) {
+                showToast('Failed to load changes', 'error');
+                return;
+            }
+        }
+        reloadPages();
+    }
+    
+    // A new search: drop every cached row, cancel the loads still running and start again
+    // from the first page at the top
+    function setFilter(parameters) {
+        controller.abort();
+        controller = new AbortController();
+        query = Object.entries(parameters)
+            .filter(([, value]) => value)
+            .map(([name, value]) => `&${name}=${encodeURIComponent(value)}`)
+            .join('');
+        pages.clear();
+        loading.clear();
+        failed.clear();
+        container.scrollTop = 0;
+        load(0);
+    }
+    
+    function updateRow(id, update) {
+        for (const items of pages.values()) {
+            const item = items.find(row => row.id === id);
+            if (item) {
+                update(item);
+                pool.forEach(row => { row.item = undefined; });
+                scheduleRender();
+                return;
+            }
+        }
+    }
+    
+    function clear() {
+        controller.abort();
+        controller = new AbortController();
+        pages.clear();
+        loading.clear();
+        failed.clear();
+        version = null;
+        total = 0;
+        scheduleRender();
     }
+    
+    return { refresh, setFilter, updateRow, clear };
 }
 
-function refreshProducts() {
-    loadProducts();
+function createSpacer(columnCount) {
+    const row = document.createElement('tr');
+    row.className = 'virtual-spacer';
+    const cell = document.createElement('td');
+    cell.colSpan = columnCount;
+    row.appendChild(cell);
+    return row;
 }
 
-// Supplier Management Functions
-async function loadSuppliers() {
-    try {
-        showLoading(true);
-        const response = await apiRequest('/suppliers');
-        const suppliers = await response.json();
-        displaySuppliers(suppliers);
-    } catch (error) {
-        showToast('Failed to load suppliers', 'error');
-    } finally {
-        showLoading(false);
-    }
+function textColumn(value) {
+    return (cell, item) => {
+        cell.textContent = item === null ? '' : value(item) ?? '-';
+    };
 }
 
-function displaySuppliers(suppliers) {
-    const tbody = document.getElementById('suppliersTableBody');
-    tbody.innerHTML = '';
-    
-    suppliers.forEach(supplier => {
-        const row = document.createElement('tr');
-        row.innerHTML = `
-            <td>${supplier.id}</td>
-            <td>${supplier.name}</td>
-            <td>${supplier.contact}</td>
-            <td>${supplier.email || '-'}</td>
-            <td>${supplier.phone || '-'}</td>
-            <td>${supplier.address || '-'}</td>
-            <td>
+// Edit and delete buttons, created once per pooled row and pointed at its current item
+function actionsColumn(edit, remove) {
+    return (cell, item) => {
+        if (!cell.firstChild) {
+            cell.innerHTML = `
                 <div class="action-buttons">
-                    <button class="btn btn-primary" onclick="editSupplier(${supplier.id})">
-                        <i class="fas fa-edit"></i>
-                    </button>
-                    <button class="btn btn-danger" onclick="deleteSupplier(${supplier.id})">
-                        <i class="fas fa-trash"></i>
-                    </button>
+                    <button class="btn btn-primary"><i class="fas fa-edit"></i></button>
+                    <button class="btn btn-danger"><i class="fas fa-trash"></i></button>
                 </div>
-            </td>
-        `;
-        tbody.appendChild(row);
-    });
+            `;
+            const [editButton, removeButton] = cell.querySelectorAll('button');
+            editButton.addEventListener('click', () => cell.parentNode.item && edit(cell.parentNode.item.id));
+            removeButton.addEventListener('click', () => cell.parentNode.item && remove(cell.parentNode.item.id));
+        }
+        cell.firstElementChild.style.visibility = item === null ? 'hidden' : 'visible';
+    };
 }
 
-async function searchSuppliers() {
-    const searchTerm = document.getElementById('supplierSearch').value;
-    if (!searchTerm.trim()) {
-        loadSuppliers();
-        return;
+function transactionTypeColumn(cell, item) {
+    if (!cell.firstChild) {
+        cell.appendChild(document.createElement('span'));
     }
-    
-    try {
-        showLoading(true);
-        const response = await apiRequest(`/suppliers/search?name=${encodeURIComponent(searchTerm)}`);
-        const suppliers = await response.json();
-        displaySuppliers(suppliers);
-    } catch (error) {
-        showToast('Search failed', 'error');
-    } finally {
-        showLoading(false);
+    const type = item === null ? '' : item.type;
+    cell.firstChild.className = `transaction-type ${type.toLowerCase().replace('_', '-')}`;
+    cell.firstChild.textContent = type;
+}
+
+let productTable = null;
+let supplierTable = null;
+let transactionTable = null;
+let productSearchTimer = null;
+let supplierSearchTimer = null;
+let transactionRefreshTimer = null;
+
+// Product Management Functions
+function loadProducts() {
+    if (!productTable) {
+        productTable = createVirtualTable({
+            tbodyId: 'productsTableBody',
+            path: '/products',
+            changesPath: '/products/changes',
+            columns: [
+                textColumn(product => product.id),
+                textColumn(product => product.name),
+                textColumn(product => product.sku),
+                textColumn(product => product.category),
+                textColumn(product => `$${product.price}`),
+                textColumn(product => product.qty),
+                textColumn(product => product.description),
+                actionsColumn(editProduct, deleteProduct)
+            ]
+        });
     }
+    productTable.refresh();
+}
+
+// Typing waits until the user pauses; starting a search cancels the one still running
+function searchProducts() {
+    clearTimeout(productSearchTimer);
+    productSearchTimer = setTimeout(applyProductFilter, SEARCH_DEBOUNCE_MS);
+}
+
+function filterProductsByCategory() {
+    applyProductFilter();
+}
+
+// The search term and category narrow the same server-side list
+function applyProductFilter() {
+    clearTimeout(productSearchTimer);
+    productTable.setFilter({
+        name: document.getElementById('productSearch').value.trim(),
+        category: document.getElementById('categoryFilter').value
+    });
+}
+
+function refreshProducts() {
+    loadProducts();
+}
+
+// Supplier Management Functions
+function loadSuppliers() {
+    if (!supplierTable) {
+        supplierTable = createVirtualTable({
+            tbodyId: 'suppliersTableBody',
+            path: '/suppliers',
+            changesPath: '/suppliers/changes',
+            columns: [
+                textColumn(supplier => supplier.id),
+                textColumn(supplier => supplier.name),
+                textColumn(supplier => supplier.contact),
+                textColumn(supplier => supplier.email),
+                textColumn(supplier => supplier.phone),
+                textColumn(supplier => supplier.address),
+                actionsColumn(editSupplier, deleteSupplier)
+            ]
+        });
+    }
+    supplierTable.refresh();
+}
+
+function searchSuppliers() {
+    clearTimeout(supplierSearchTimer);
+    supplierSearchTimer = setTimeout(() => {
+        supplierTable.setFilter({ name: document.getElementById('supplierSearch').value.trim() });
+    }, SEARCH_DEBOUNCE_MS);
 }
 
 function refreshSuppliers() {
@@ -388,39 +699,25 @@ function refreshSuppliers() {
 }
 
 // Transaction Management Functions
-async function loadTransactions() {
-    try {
-        showLoading(true);
-        const response = await apiRequest('/transactions');
-        const transactions = await response.json();
-        displayTransactions(transactions);
-    } catch (error) {
-        showToast('Failed to load transactions', 'error');
-    } finally {
-        showLoading(false);
+function loadTransactions() {
+    if (!transactionTable) {
+        transactionTable = createVirtualTable({
+            tbodyId: 'transactionsTableBody',
+            path: '/transactions',
+            columns: [
+                textColumn(transaction => transaction.id),
+                textColumn(transaction => transaction.product.id),
+                textColumn(transaction => transaction.qty),
+                transactionTypeColumn,
+                textColumn(transaction => new Date(transaction.date).toLocaleString()),
+                textColumn(transaction => transaction.user.id),
+                textColumn(transaction => transaction.batchNumber),
+                textColumn(transaction => transaction.lotNumber),
+                textColumn(transaction => transaction.notes)
+            ]
+        });
     }
-}
-
-function displayTransactions(transactions) {
-    const tbody = document.getElementById('transactionsTableBody');
-    tbody.innerHTML = '';
-    
-    transactions.forEach(transaction => {
-        const row = document.createElement('tr');
-        const date = new Date(transaction.date).toLocaleString();
-        row.innerHTML = `
-            <td>${transaction.id}</td>
-            <td>${transaction.product.id}</td>
-            <td>${transaction.qty}</td>
-            <td><span class="transaction-type ${transaction.type.toLowerCase().replace('_', '-')}">${transaction.type}</span></td>
-            <td>${date}</td>
-            <td>${transaction.user.id}</td>
-            <td>${transaction.batchNumber || '-'}</td>
-            <td>${transaction.lotNumber || '-'}</td>
-            <td>${transaction.notes || '-'}</td>
-        `;
-        tbody.appendChild(row);
-    });
+    transactionTable.refresh();
 }
 
 function refreshTransactions() {
@@ -433,8 +730,7 @@ async function loadUsers() {
     
     try {
         showLoading(true);
-        const response = await apiRequest('/users');
-        const users = await response.json();
+        const users = await apiRequestAll('/users');
         displayUsers(users);
     } catch (error) {
         showToast('Failed to load users', 'error');
@@ -476,8 +772,7 @@ async function searchUsers() {
     }
     
     // Simple client-side search for now
-    const response = await apiRequest('/users');
-    const users = await response.json();
+    const users = await apiRequestAll('/users');
     const filteredUsers = users.filter(user => 
         user.username.toLowerCase().includes(searchTerm.toLowerCase())
     );
@@ -0,0 +1,131 @@
+package com.arya.inventory.controller;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.User;
+import com.arya.inventory.repository.ProductRepository;
+import com.arya.inventory.repository.UserRepository;
+import com.arya.inventory.service.IdempotencyStore;
+import com.arya.inventory.service.ProductService;
+import com.arya.inventory.service.TransactionService;
+import com.arya.inventory.util.JwtUtil;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyTest {
+    
+    private static final int CLIENTS = 32;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    // Every client sends the same key at once: one books, the rest get its response back
+    @Test
+    void concurrentRequestsWithOneKeyBookOnce() throws Exception {
+        Product product = product();
+        String body = stockIn(product);
+        String key = "same-" + System.nanoTime();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            responses.add(executor.submit(() -> {
+                start.await();
+                return send("/api/transactions", key, body, MediaType.APPLICATION_JSON);
+            }));
+        }
+        start.countDown();
+        
+        List<MockHttpServletResponse> results = new ArrayList<>();
+        for (Future<MockHttpServletResponse> response : responses) {
+            results.add(response.get());
+        }
+        executor.shutdown();
+        
+        byte[] first = results.get(0).getContentAsByteArray();
+        assertThat(results).allSatisfy(response -> {
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.getContentAsByteArray()).isEqualTo(first);
+        });
+        assertThat(results).filteredOn(response -> response.getHeader(IdempotencyStore.REPLAYED_HEADER) == null).hasSize(1);
+        assertThat(transactionService.getTransactionsByProduct(product.getId(), 0L, null).getItems()).hasSize(1);
+        assertThat(productRepository.findQtyById(product.getId())).isEqualTo(11);
+    }
+    
+    // The replay carries the negotiated CBOR body, not a JSON re-rendering of it
+    @Test
+    void replayKeepsTheNegotiatedContentType() throws Exception {
+        Product product = product();
+        String body = "[" + stockIn(product) + "]";
+        String key = "cbor-" + System.nanoTime();
+        
+        MockHttpServletResponse first = send("/api/transactions/batch", key, body, MediaType.APPLICATION_CBOR);
+        MockHttpServletResponse retry = send("/api/transactions/batch", key, body, MediaType.APPLICATION_CBOR);
+        
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getContentType()).isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        assertThat(retry.getHeader(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getContentType()).isEqualTo(first.getContentType());
+        assertThat(retry.getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+        assertThat(productRepository.findQtyById(product.getId())).isEqualTo(11);
+    }
+    
+    private MockHttpServletResponse send(String uri, String key, String body, MediaType accept) throws Exception {
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+        return mockMvc.perform(post(uri)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(admin))
+                        .header(IdempotencyStore.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(accept)
+                        .content(body))
+                .andReturn().getResponse();
+    }
+    
+    private Product product() {
+        return productService.createProduct(
+                new Product("Idempotent item", "IDEM-" + System.nanoTime(), "Test", BigDecimal.ONE, 10));
+    }
+    
+    private String stockIn(Product product) {
+        Long userId = userRepository.findByUsername("admin").orElseThrow().getId();
+        return "{\"product\":{\"id\":" + product.getId() + "},\"user\":{\"id\":" + userId
+                + "},\"qty\":1,\"type\":\"STOCK_IN\"}";
+    }
+}
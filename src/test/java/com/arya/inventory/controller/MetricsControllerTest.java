@@ -0,0 +1,108 @@
+package com.arya.inventory.controller;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.entity.User;
+import com.arya.inventory.repository.UserRepository;
+import com.arya.inventory.service.ProductService;
+import com.arya.inventory.service.TransactionService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MetricsControllerTest {
+    
+    private static final String SALE_SUCCESS = "inventory_transaction_create_seconds_count{type=\"SALE\",outcome=\"success\"}";
+    private static final String SALE_ERROR = "inventory_transaction_create_seconds_count{type=\"SALE\",outcome=\"error\"}";
+    private static final String SELECTS = "inventory_hibernate_statements_total{kind=\"select\"}";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    // A committed and a rolled-back sale are timed under their own outcome
+    @Test
+    @WithMockUser
+    void scrapeCountsTransactionsByTypeAndOutcome() throws Exception {
+        Product product = productService.createProduct(
+                new Product("Metered item", "MET-" + System.nanoTime(), "Test", BigDecimal.ONE, 1));
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+        String before = scrape();
+        
+        transactionService.createTransaction(sale(product, admin));
+        assertThatThrownBy(() -> transactionService.createTransaction(sale(product, admin)))
+                .hasMessageContaining("Insufficient stock");
+        String after = scrape();
+        
+        assertThat(sample(after, SALE_SUCCESS) - sample(before, SALE_SUCCESS)).isEqualTo(1);
+        assertThat(sample(after, SALE_ERROR) - sample(before, SALE_ERROR)).isEqualTo(1);
+        assertThat(sample(after, SELECTS)).isGreaterThan(sample(before, SELECTS));
+        assertThat(after).contains("# TYPE inventory_transaction_create_seconds summary",
+                "inventory_transaction_create_seconds{type=\"SALE\",outcome=\"success\",quantile=\"0.99\"}",
+                "inventory_repository_query_seconds_count{");
+    }
+    
+    @Test
+    void scrapeRequiresAuthentication() throws Exception {
+        mockMvc.perform(get("/api/metrics")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/metrics").header("Authorization", "Bearer wrong-token")).andExpect(status().isForbidden());
+    }
+    
+    // Prometheus authenticates with the static token, which opens no other endpoint
+    @Test
+    void scrapeTokenOnlyOpensTheMetricsEndpoint() throws Exception {
+        mockMvc.perform(get("/api/metrics").header("Authorization", "Bearer test-scrape-token"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products").header("Authorization", "Bearer test-scrape-token"))
+                .andExpect(status().isForbidden());
+    }
+    
+    private String scrape() throws Exception {
+        return mockMvc.perform(get("/api/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/plain;version=0.0.4;charset=utf-8"))
+                .andReturn().getResponse().getContentAsString();
+    }
+    
+    private static double sample(String scrape, String series) {
+        for (String line : scrape.split("\n")) {
+            if (line.startsWith(series + " ")) {
+                return Double.parseDouble(line.substring(series.length() + 1));
+            }
+        }
+        return 0;
+    }
+    
+    private static Transaction sale(Product product, User user) {
+        Transaction transaction = new Transaction();
+        transaction.setProduct(product);
+        transaction.setUser(user);
+        transaction.setQty(1);
+        transaction.setType(Transaction.TransactionType.SALE);
+        return transaction;
+    }
+}
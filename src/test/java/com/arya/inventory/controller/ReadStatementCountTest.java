@@ -0,0 +1,132 @@
+package com.arya.inventory.controller;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.Supplier;
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.entity.User;
+import com.arya.inventory.metrics.MetricsRegistry;
+import com.arya.inventory.repository.UserRepository;
+import com.arya.inventory.service.ProductService;
+import com.arya.inventory.service.SupplierService;
+import com.arya.inventory.service.TransactionService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(roles = "ADMIN")
+class ReadStatementCountTest {
+    
+    private static final int ROWS = 5;
+    private static final String[] KINDS = {"select", "insert", "update", "delete", "other"};
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private SupplierService supplierService;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    // Every row has its own supplier and product, so a lazy association walked during
+    // serialization would cost a statement per row and show up in the larger count
+    @Test
+    void listEndpointsIssueTheSameStatementsForTenTimesTheRows() throws Exception {
+        Map<String, Long> small = statementsPerEndpoint(ROWS);
+        Map<String, Long> large = statementsPerEndpoint(ROWS * 10);
+        
+        assertThat(large).isEqualTo(small);
+        assertThat(small.values()).allSatisfy(count -> assertThat(count).isPositive());
+    }
+    
+    private Map<String, Long> statementsPerEndpoint(int rows) throws Exception {
+        String token = "nq" + System.nanoTime();
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+        List<Long> supplierIds = new ArrayList<>();
+        List<Long> productIds = new ArrayList<>();
+        List<Long> transactionIds = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Supplier supplier = supplierService.createSupplier(new Supplier(token + " supplier " + i, "Contact"));
+            Product product = new Product(token + " product " + i, token + "-" + i, token, BigDecimal.ONE, 0);
+            product.setSupplier(supplier);
+            product = productService.createProduct(product);
+            Transaction transaction = new Transaction();
+            transaction.setProduct(product);
+            transaction.setUser(admin);
+            transaction.setQty(1);
+            transaction.setType(Transaction.TransactionType.STOCK_IN);
+            transaction.setBatchNumber(token);
+            transaction.setLotNumber(token);
+            supplierIds.add(supplier.getId());
+            productIds.add(product.getId());
+            transactionIds.add(transactionService.createTransaction(transaction).getId());
+        }
+        
+        String page = "?after=%d&limit=" + rows;
+        String filter = "?name=" + token + "&limit=" + rows;
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String uri : List.of(
+                "/api/products" + page.formatted(productIds.get(0) - 1),
+                "/api/products/table" + filter,
+                "/api/products/table?category=" + token + "&limit=" + rows,
+                "/api/products/category/" + token,
+                "/api/products/search" + filter,
+                "/api/products/low-stock" + page.formatted(productIds.get(0) - 1),
+                "/api/suppliers" + page.formatted(supplierIds.get(0) - 1),
+                "/api/suppliers/table" + filter,
+                "/api/suppliers/search" + filter,
+                "/api/transactions" + page.formatted(transactionIds.get(0) - 1),
+                "/api/transactions/user/" + admin.getId() + page.formatted(transactionIds.get(0) - 1),
+                "/api/transactions/type/STOCK_IN" + page.formatted(transactionIds.get(0) - 1),
+                "/api/transactions/batch/" + token,
+                "/api/transactions/lot/" + token)) {
+            counts.put(uri.replace(token, "{token}").replaceAll("\\d+", "#"), statements(uri));
+        }
+        return counts;
+    }
+    
+    // The first call may build a search index; only the steady state is counted
+    private long statements(String uri) throws Exception {
+        mockMvc.perform(get(uri)).andExpect(status().isOk());
+        long before = totalStatements();
+        mockMvc.perform(get(uri)).andExpect(status().isOk());
+        return totalStatements() - before;
+    }
+    
+    // Read through the counters HibernateStatementMetrics registers for its StatementInspector
+    private long totalStatements() {
+        long total = 0;
+        for (String kind : KINDS) {
+            total += metricsRegistry.counter("inventory_hibernate_statements_total",
+                    "SQL statements prepared by Hibernate", "kind", kind).getValue();
+        }
+        return total;
+    }
+}
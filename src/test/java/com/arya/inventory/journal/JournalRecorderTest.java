@@ -0,0 +1,208 @@
+package com.arya.inventory.journal;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.Supplier;
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.entity.User;
+import com.arya.inventory.repository.UserRepository;
+import com.arya.inventory.service.ProductService;
+import com.arya.inventory.service.SupplierService;
+import com.arya.inventory.service.TransactionService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Concurrent writers on the same rows: replaying the journal into an empty database must
+// leave every row as the database committed it, so records have to follow commit order
+@SpringBootTest(properties = {
+        "inventory.journal.enabled=true",
+        "inventory.journal.fsync=false",
+        "inventory.journal.segment-size-mb=1",
+        "spring.datasource.url=jdbc:h2:mem:journal_order"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class JournalRecorderTest {
+    
+    private static final int UPDATERS = 4;
+    private static final int UPDATES_PER_WRITER = 50;
+    private static final int TRANSACTIONS_PER_WRITER = 50;
+    
+    private static final String SUPPLIERS = "SELECT id, name, contact FROM suppliers ORDER BY id";
+    // Quantities are rebuilt from the ledger after replay, so only the journaled columns count
+    private static final String PRODUCTS = "SELECT id, name, sku, price, supplier_id FROM products ORDER BY id";
+    private static final String TRANSACTIONS = "SELECT id, product_id, qty, type FROM transactions ORDER BY id";
+    private static final String LEDGER = "SELECT id, product_id, delta, reason FROM stock_ledger ORDER BY id";
+    
+    @TempDir
+    private static Path directory;
+    
+    @TempDir
+    private Path copy;
+    
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        registry.add("inventory.journal.directory", () -> directory.toString());
+    }
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private SupplierService supplierService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Test
+    void replayMatchesTheDatabaseAfterConcurrentWritesToTheSameRows() throws Exception {
+        Supplier supplier = supplierService.createSupplier(new Supplier("Contended supplier", "Contact"));
+        Product product = new Product("Contended product", "JRN-" + System.nanoTime(), "Test", new BigDecimal("1.00"), 100_000);
+        product.setSupplier(supplier);
+        Long productId = productService.createProduct(product).getId();
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+        
+        // Updaters rewrite the supplier row; creators book transactions that deleters,
+        // on other threads, remove again as soon as they are committed
+        BlockingQueue<Long> created = new LinkedBlockingQueue<>();
+        AtomicInteger creatorsRunning = new AtomicInteger(2);
+        ExecutorService executor = Executors.newFixedThreadPool(UPDATERS + 4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < UPDATERS; w++) {
+            int writer = w;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < UPDATES_PER_WRITER; i++) {
+                    Supplier update = new Supplier("Writer " + writer + " update " + i, "Contact " + writer);
+                    update.setId(supplier.getId());
+                    supplierService.updateSupplier(update);
+                }
+                return null;
+            }));
+        }
+        for (int w = 0; w < 2; w++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    for (int i = 0; i < TRANSACTIONS_PER_WRITER; i++) {
+                        Transaction transaction = new Transaction();
+                        transaction.setProduct(new Product());
+                        transaction.getProduct().setId(productId);
+                        transaction.setUser(admin);
+                        transaction.setQty(1);
+                        transaction.setType(i % 2 == 0 ? Transaction.TransactionType.SALE : Transaction.TransactionType.PURCHASE);
+                        created.add(transactionService.createTransaction(transaction).getId());
+                    }
+                } finally {
+                    creatorsRunning.decrementAndGet();
+                }
+                return null;
+            }));
+            futures.add(executor.submit(() -> {
+                while (creatorsRunning.get() > 0 || !created.isEmpty()) {
+                    Long id = created.poll(10, TimeUnit.MILLISECONDS);
+                    if (id != null) {
+                        transactionService.deleteTransaction(id);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        
+        List<String> schema = new ArrayList<>();
+        List<List<Object>> suppliers;
+        List<List<Object>> products;
+        List<List<Object>> transactions;
+        List<List<Object>> ledger;
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SCRIPT NODATA")) {
+                while (rs.next()) {
+                    schema.add(rs.getString(1));
+                }
+            }
+            suppliers = rows(connection, SUPPLIERS);
+            products = rows(connection, PRODUCTS);
+            transactions = rows(connection, TRANSACTIONS);
+            ledger = rows(connection, LEDGER);
+        }
+        // The recorder still has the segments mapped, so replay a copy
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, copy.resolve(file.getFileName()));
+            }
+        }
+        
+        try (Connection restored = DriverManager.getConnection("jdbc:h2:mem:journal_replay" + System.nanoTime(), "sa", "")) {
+            try (Statement statement = restored.createStatement()) {
+                for (String ddl : schema) {
+                    statement.execute(ddl);
+                }
+            }
+            JournalReplayer replayer = new JournalReplayer(restored, 1000);
+            try (StockJournal journal = StockJournal.open(copy, 1024 * 1024, false, replayer)) {
+                replayer.finish();
+            }
+            
+            assertThat(rows(restored, SUPPLIERS)).isEqualTo(suppliers);
+            assertThat(rows(restored, PRODUCTS)).isEqualTo(products);
+            assertThat(rows(restored, TRANSACTIONS)).isEqualTo(transactions);
+            assertThat(rows(restored, LEDGER)).isEqualTo(ledger);
+        }
+        assertThat(suppliers).anySatisfy(row -> assertThat((String) row.get(1)).endsWith("update " + (UPDATES_PER_WRITER - 1)));
+        assertThat(ledger).hasSizeGreaterThanOrEqualTo(4 * TRANSACTIONS_PER_WRITER);
+    }
+    
+    private static List<List<Object>> rows(Connection connection, String sql) throws Exception {
+        List<List<Object>> rows = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet rs = statement.executeQuery()) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                List<Object> row = new ArrayList<>();
+                for (int i = 1; i <= columns; i++) {
+                    row.add(rs.getObject(i));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,163 @@
+package com.arya.inventory.journal;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.Supplier;
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.repository.UserRepository;
+import com.arya.inventory.service.ProductService;
+import com.arya.inventory.service.SupplierService;
+import com.arya.inventory.service.TransactionService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A snapshot of the running database, restored into a fresh H2 database with the same
+// schema, must come back row for row, with its indexes rebuilt and its sequences past the ids
+@SpringBootTest
+@ActiveProfiles("test")
+class SnapshotRestoreTest {
+    
+    @TempDir
+    private Path directory;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private SnapshotManager snapshotManager;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private SupplierService supplierService;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Test
+    void restoredDatabaseMatchesTheSnapshottedOne() throws Exception {
+        String token = "SNAP-" + System.nanoTime();
+        Supplier supplier = supplierService.createSupplier(new Supplier(token + " supplier", "Contact"));
+        for (int i = 0; i < 20; i++) {
+            Product product = new Product(token + " product " + i, token + "-" + i, token, new BigDecimal("3.50"), 10 + i);
+            product.setSupplier(supplier);
+            product = productService.createProduct(product);
+            Transaction transaction = new Transaction();
+            transaction.setProduct(product);
+            transaction.setUser(userRepository.findByUsername("admin").orElseThrow());
+            transaction.setQty(i + 1);
+            transaction.setType(i % 2 == 0 ? Transaction.TransactionType.SALE : Transaction.TransactionType.PURCHASE);
+            transaction.setNotes("Ünïcode note " + i);
+            transactionService.createTransaction(transaction);
+        }
+        
+        Path file = directory.resolve("snapshot.bin");
+        List<String> schema;
+        Map<String, List<List<Object>>> source;
+        long written;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            connection.setAutoCommit(false);
+            try {
+                written = DatabaseSnapshot.write(connection, file);
+                source = contents(connection);
+                schema = schema(connection);
+            } finally {
+                connection.rollback();
+            }
+        }
+        
+        try (Connection restored = DriverManager.getConnection("jdbc:h2:mem:restore" + System.nanoTime(), "sa", "")) {
+            try (Statement statement = restored.createStatement()) {
+                for (String ddl : schema) {
+                    statement.execute(ddl);
+                }
+            }
+            long rows = snapshotManager.restore(restored, file);
+            
+            assertThat(rows).isEqualTo(written);
+            assertThat(source.values().stream().mapToLong(List::size).sum()).isEqualTo(written);
+            assertThat(contents(restored)).isEqualTo(source);
+            for (JournalCodec.Table table : JournalCodec.Table.values()) {
+                long maxId = source.get(table.name).stream().mapToLong(row -> ((Number) row.get(0)).longValue()).max().orElse(0);
+                try (Statement statement = restored.createStatement();
+                     ResultSet rs = statement.executeQuery("SELECT NEXT VALUE FOR " + table.name + "_seq")) {
+                    rs.next();
+                    assertThat(rs.getLong(1)).as(table.name + "_seq").isGreaterThan(maxId);
+                }
+            }
+            try (Connection connection = dataSource.getConnection()) {
+                assertThat(indexes(restored)).isEqualTo(indexes(connection)).contains("IDX_PRODUCTS_QTY");
+            }
+        }
+    }
+    
+    // Every journaled table, row by row in id order
+    private static Map<String, List<List<Object>>> contents(Connection connection) throws Exception {
+        Map<String, List<List<Object>>> contents = new LinkedHashMap<>();
+        for (JournalCodec.Table table : JournalCodec.Table.values()) {
+            List<List<Object>> rows = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT " + String.join(", ", table.columns) + " FROM " + table.name + " ORDER BY id");
+                 ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    List<Object> row = new ArrayList<>();
+                    for (int i = 1; i <= table.columns.length; i++) {
+                        row.add(rs.getObject(i));
+                    }
+                    rows.add(row);
+                }
+            }
+            contents.put(table.name, rows);
+        }
+        return contents;
+    }
+    
+    // The DDL of the running database, one statement per entry
+    private static List<String> schema(Connection connection) throws Exception {
+        List<String> script = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SCRIPT NODATA")) {
+            while (rs.next()) {
+                script.add(rs.getString(1));
+            }
+        }
+        return script;
+    }
+    
+    // The secondary indexes restore drops and rebuilds; constraint indexes are named by H2
+    private static List<String> indexes(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES"
+                     + " WHERE TABLE_SCHEMA = 'PUBLIC' AND INDEX_NAME LIKE 'IDX\\_%' ORDER BY INDEX_NAME")) {
+            List<String> names = new ArrayList<>();
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+            return names;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.arya.inventory.journal;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockJournalTest {
+    
+    private static final int SEGMENT_SIZE = 256;
+    
+    @TempDir
+    private Path directory;
+    
+    // Records come back in order across segment rolls, and appends after a reopen follow them.
+    // Fourteen 18-byte records leave exactly the end-of-segment marker's four bytes free.
+    @Test
+    void reopenReplaysEveryRecordAcrossSegments() throws IOException {
+        try (StockJournal journal = StockJournal.open(directory, SEGMENT_SIZE, false, payload -> {})) {
+            for (int i = 0; i < 40; i++) {
+                journal.append(record(i));
+            }
+        }
+        try (StockJournal journal = StockJournal.open(directory, SEGMENT_SIZE, false, payload -> {})) {
+            journal.append(record(40));
+        }
+        
+        assertThat(replay()).containsExactlyElementsOf(records(0, 41));
+        assertThat(directory.toFile().list()).hasSizeGreaterThan(2);
+    }
+    
+    // A record whose bytes no longer match its checksum ends the log; it and anything after
+    // it are cut off, and never reappear once new records are appended over them
+    @Test
+    void corruptTailIsTruncated() throws IOException {
+        try (StockJournal journal = StockJournal.open(directory, SEGMENT_SIZE, false, payload -> {})) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(record(i));
+            }
+        }
+        int recordSize = 8 + record(0).remaining();
+        try (FileChannel channel = FileChannel.open(directory.resolve("journal-00000001.log"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), 2L * recordSize + 8);
+        }
+        
+        try (StockJournal journal = StockJournal.open(directory, SEGMENT_SIZE, false, payload -> {})) {
+            journal.append(record(7));
+        }
+        
+        assertThat(replay()).containsExactly("record-000", "record-001", "record-007");
+    }
+    
+    // Concurrent committers waiting on the group-committed fsync all get through
+    @Test
+    void awaitDurableReturnsForConcurrentAppenders() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (StockJournal journal = StockJournal.open(directory, 64 * 1024, true, payload -> {})) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 8; w++) {
+                int writer = w;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        journal.awaitDurable(journal.append(record(writer * 50 + i)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        assertThat(replay()).containsExactlyInAnyOrderElementsOf(records(0, 400));
+    }
+    
+    @Test
+    void codecRoundTripsEveryValueType() {
+        Object[] row = {42L, 7L, -3, "SALE", LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123456789)};
+        Object[] supplier = {9L, "Ünïcode supplier", null, null, null, "a@b.c", "555"};
+        Object[] product = {5L, "Widget", "W-1", "Tools", new BigDecimal("12.50"), 3, null, 9L};
+        
+        assertThat(JournalCodec.decode(JournalCodec.encode(JournalCodec.INSERT, JournalCodec.Table.STOCK_LEDGER, row)))
+                .containsExactly(row);
+        assertThat(JournalCodec.decode(JournalCodec.encode(JournalCodec.UPDATE, JournalCodec.Table.SUPPLIERS, supplier)))
+                .containsExactly(supplier);
+        assertThat(JournalCodec.decode(JournalCodec.encode(JournalCodec.INSERT, JournalCodec.Table.PRODUCTS, product)))
+                .containsExactly(product);
+        assertThat(JournalCodec.decode(JournalCodec.encodeDelete(JournalCodec.Table.PRODUCTS, 5L)))
+                .containsExactly(5L);
+    }
+    
+    private List<String> replay() throws IOException {
+        List<String> records = new ArrayList<>();
+        StockJournal.open(directory, SEGMENT_SIZE, false, payload -> {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            records.add(new String(bytes, StandardCharsets.US_ASCII));
+        }).close();
+        return records;
+    }
+    
+    private static ByteBuffer record(int i) {
+        return ByteBuffer.wrap(String.format("record-%03d", i).getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    private static List<String> records(int from, int to) {
+        List<String> records = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            records.add(String.format("record-%03d", i));
+        }
+        return records;
+    }
+}
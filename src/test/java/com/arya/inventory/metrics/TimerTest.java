@@ -0,0 +1,58 @@
+package com.arya.inventory.metrics;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TimerTest {
+    
+    private static final double[] QUANTILES = {0.5, 0.99, 1.0};
+    
+    // Every bucket's upper bound covers the value and overshoots it by at most 1/32
+    @Test
+    void bucketsBoundValuesWithinThreePercent() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong(Long.MAX_VALUE >>> random.nextInt(63));
+            long bound = Timer.highestValue(Timer.index(value));
+            assertThat(bound).isGreaterThanOrEqualTo(value);
+            assertThat((double) (bound - value)).isLessThanOrEqualTo(value / 32.0 + 1);
+        }
+    }
+    
+    @Test
+    void snapshotReportsPercentilesOfRecordedValues() {
+        Timer timer = new Timer(TimeUnit.SECONDS.toNanos(60));
+        for (long micros = 1; micros <= 10_000; micros++) {
+            timer.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+        timer.record(-1);
+        
+        Timer.Snapshot snapshot = timer.snapshot(QUANTILES);
+        
+        assertThat(timer.getCount()).isEqualTo(10_000);
+        assertThat(timer.getTotalNanos()).isEqualTo(TimeUnit.MICROSECONDS.toNanos(10_000L * 10_001 / 2));
+        assertThat((double) snapshot.quantileNanos[0]).isCloseTo(5_000_000, within(5_000_000 / 32.0));
+        assertThat((double) snapshot.quantileNanos[1]).isCloseTo(9_900_000, within(9_900_000 / 32.0));
+        assertThat(snapshot.quantileNanos[2]).isEqualTo(10_000_000);
+        assertThat(snapshot.maxNanos).isEqualTo(10_000_000);
+    }
+    
+    // Percentiles follow the last one to two windows, while count and sum keep growing
+    @Test
+    void oldWindowsAgeOutOfPercentiles() throws InterruptedException {
+        Timer timer = new Timer(TimeUnit.MILLISECONDS.toNanos(20));
+        timer.record(TimeUnit.SECONDS.toNanos(1));
+        Thread.sleep(60);
+        timer.record(TimeUnit.MILLISECONDS.toNanos(1));
+        
+        Timer.Snapshot snapshot = timer.snapshot(QUANTILES);
+        
+        assertThat(timer.getCount()).isEqualTo(2);
+        assertThat(snapshot.maxNanos).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,83 @@
+package com.arya.inventory.repository;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+// The repositories' keyset, filter and search queries in the parameterized form Hibernate
+// sends them, explained by H2 against the schema generated from the entities
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryPlanTest {
+    
+    private static final String KEYSET = " AND t.id > ? ORDER BY t.id FETCH FIRST ? ROWS ONLY";
+    private static final String OPTIONAL_KEYSET = " AND (? = 0 OR t.id > ?) ORDER BY t.id FETCH FIRST ? ROWS ONLY";
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusMonths(1);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    static Stream<Arguments> queries() {
+        return Stream.of(
+                arguments("IDX_TRANSACTIONS_PRODUCT_ID",
+                        "SELECT * FROM transactions t WHERE t.product_id = ?" + KEYSET, new Object[] {1L, 0L, 51}),
+                arguments("IDX_TRANSACTIONS_USER_ID",
+                        "SELECT * FROM transactions t WHERE t.user_id = ?" + KEYSET, new Object[] {1L, 0L, 51}),
+                arguments("IDX_TRANSACTIONS_TYPE_ID",
+                        "SELECT * FROM transactions t WHERE t.type = ?" + KEYSET, new Object[] {"SALE", 0L, 51}),
+                arguments("IDX_TRANSACTIONS_DATE_ID",
+                        "SELECT * FROM transactions t WHERE t.date BETWEEN ? AND ?" + OPTIONAL_KEYSET,
+                        new Object[] {FROM, TO, 0L, 0L, 51}),
+                arguments("IDX_TRANSACTIONS_DATE_ID",
+                        "SELECT * FROM transactions t WHERE t.date BETWEEN ? AND ? ORDER BY t.date, t.id",
+                        new Object[] {FROM, TO}),
+                arguments("IDX_TRANSACTIONS_PRODUCT_DATE_ID",
+                        "SELECT * FROM transactions t WHERE t.product_id = ? AND t.date BETWEEN ? AND ?" + KEYSET,
+                        new Object[] {1L, FROM, TO, 0L, 51}),
+                arguments("IDX_TRANSACTIONS_BATCH_NUMBER_ID",
+                        "SELECT * FROM transactions t WHERE t.batch_number = ?" + KEYSET, new Object[] {"B1", 0L, 51}),
+                arguments("IDX_TRANSACTIONS_LOT_NUMBER_ID",
+                        "SELECT * FROM transactions t WHERE t.lot_number = ?" + KEYSET, new Object[] {"L1", 0L, 51}),
+                arguments("IDX_PRODUCTS_CATEGORY_ID",
+                        "SELECT * FROM products t WHERE t.category = ?" + KEYSET, new Object[] {"Tools", 0L, 51}),
+                arguments("IDX_PRODUCTS_SUPPLIER_ID",
+                        "SELECT * FROM products t WHERE t.supplier_id = ?" + KEYSET, new Object[] {1L, 0L, 51}),
+                arguments("IDX_PRODUCTS_QTY",
+                        "SELECT * FROM products t WHERE t.qty < ?" + OPTIONAL_KEYSET, new Object[] {10, 0L, 0L, 51}),
+                arguments("IDX_PRODUCTS_CHANGE_VERSION",
+                        "SELECT * FROM products t WHERE t.change_version > ? ORDER BY t.change_version FETCH FIRST ? ROWS ONLY",
+                        new Object[] {0L, 51}),
+                arguments("PRIMARY_KEY",
+                        "SELECT * FROM products t WHERE t.id IN (?, ?, ?)", new Object[] {1L, 2L, 3L}),
+                arguments("IDX_SUPPLIERS_NAME",
+                        "SELECT * FROM suppliers t WHERE t.name = ?", new Object[] {"Acme"}),
+                arguments("IDX_SUPPLIERS_EMAIL",
+                        "SELECT * FROM suppliers t WHERE t.email = ?", new Object[] {"sales@example.com"}),
+                arguments("IDX_SUPPLIERS_PHONE",
+                        "SELECT * FROM suppliers t WHERE t.phone = ?", new Object[] {"555-0100"}),
+                arguments("IDX_SUPPLIERS_CHANGE_VERSION",
+                        "SELECT * FROM suppliers t WHERE t.change_version > ? ORDER BY t.change_version FETCH FIRST ? ROWS ONLY",
+                        new Object[] {0L, 51}),
+                arguments("PRIMARY_KEY",
+                        "SELECT * FROM suppliers t WHERE t.id IN (?, ?, ?)", new Object[] {1L, 2L, 3L}));
+    }
+    
+    @ParameterizedTest(name = "{0}: {1}")
+    @MethodSource("queries")
+    void queryUsesItsIndex(String index, String sql, Object[] parameters) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+        
+        assertThat(plan).contains("PUBLIC." + index).doesNotContain("tableScan");
+    }
+}
@@ -0,0 +1,85 @@
+package com.arya.inventory.service;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.arya.inventory.dto.ProductResponse;
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.metrics.MetricsRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheTest {
+    
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry(60);
+    private final ProductCache cache = new ProductCache(100_000, 300, metricsRegistry);
+    
+    // Write tracking is dropped once a product's writes have completed
+    @Test
+    void completedWritesLeaveNoTrackingBehind() {
+        for (long id = 1; id <= 10_000; id++) {
+            cache.update(product(id, "P" + id));
+            cache.invalidate(id);
+        }
+        
+        assertThat(pendingWrites()).isZero();
+    }
+    
+    @Test
+    void writeStaysTrackedUntilItsTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.update(product(1L, "Committed"));
+            assertThat(pendingWrites()).isEqualTo(1);
+            
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        
+        assertThat(pendingWrites()).isZero();
+        AtomicInteger loads = new AtomicInteger();
+        assertThat(cache.getById(1L, () -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        })).map(ProductResponse::getName).contains("Committed");
+        assertThat(loads).hasValue(0);
+    }
+    
+    // A read that loaded the old row while a write completed must not cache it, even
+    // though the write is no longer tracked by the time the read finishes
+    @Test
+    void readRacingACompletedWriteIsNotCached() {
+        cache.getById(2L, () -> {
+            cache.update(product(2L, "New"));
+            return Optional.of(product(2L, "Old"));
+        });
+        
+        assertThat(pendingWrites()).isZero();
+        assertThat(cache.getById(2L, Optional::empty)).map(ProductResponse::getName).contains("New");
+    }
+    
+    private long pendingWrites() {
+        StringBuilder scrape = new StringBuilder();
+        metricsRegistry.writePrometheus(scrape);
+        for (String line : scrape.toString().split("\n")) {
+            if (line.startsWith("inventory_product_cache_pending_writes ")) {
+                return (long) Double.parseDouble(line.substring(line.indexOf(' ') + 1));
+            }
+        }
+        throw new AssertionError("No pending writes gauge in " + scrape);
+    }
+    
+    private static Product product(Long id, String name) {
+        Product product = new Product(name, "SKU-" + id, "Test", BigDecimal.ONE, 1);
+        product.setId(id);
+        return product;
+    }
+}
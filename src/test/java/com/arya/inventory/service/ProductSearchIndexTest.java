@@ -0,0 +1,73 @@
+package com.arya.inventory.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.Supplier;
+import com.arya.inventory.repository.ProductRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSearchIndexTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private SupplierService supplierService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    // A rename that rolls back must leave the product findable under its old name only
+    @Test
+    void rolledBackUpdateLeavesIndexUntouched() {
+        String token = "rb" + System.nanoTime();
+        Product saved = productService.createProduct(product("Before " + token, null));
+        productService.searchProductsByName(token, 10);
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            Product renamed = productRepository.findById(saved.getId()).orElseThrow();
+            renamed.setName("After " + token);
+            productService.updateProduct(renamed);
+            status.setRollbackOnly();
+        });
+        
+        assertThat(productService.searchProductsByName("before " + token, 10))
+                .extracting(Product::getId).containsExactly(saved.getId());
+        assertThat(productService.searchProductsByName("after " + token, 10)).isEmpty();
+    }
+    
+    // Products deleted along with their supplier must not hold on to search slots
+    @Test
+    void supplierDeleteEvictsItsProducts() {
+        String token = "sd" + System.nanoTime();
+        Supplier supplier = supplierService.createSupplier(new Supplier("Supplier " + token, "Contact"));
+        productService.createProduct(product("Gone " + token, supplier));
+        Product kept = productService.createProduct(product("Kept " + token, null));
+        productService.searchProductsByName(token, 10);
+        
+        supplierService.deleteSupplier(supplier.getId());
+        
+        List<Product> found = productService.searchProductsByName(token, 1);
+        assertThat(found).extracting(Product::getId).containsExactly(kept.getId());
+    }
+    
+    private static Product product(String name, Supplier supplier) {
+        Product product = new Product(name, "IDX-" + System.nanoTime(), "Test", BigDecimal.ONE, 0);
+        product.setSupplier(supplier);
+        return product;
+    }
+}
@@ -0,0 +1,94 @@
+package com.arya.inventory.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.entity.User;
+import com.arya.inventory.repository.UserRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockFlowServiceTest {
+    
+    private static final int WRITERS = 16;
+    private static final int TRANSACTIONS_PER_WRITER = 50;
+    
+    @Autowired
+    private StockFlowService stockFlowService;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    // Rebuilds running alongside writers must neither drop nor double count their flow
+    @Test
+    void rebuildDuringConcurrentWritesKeepsEveryTransactionOnce() throws Exception {
+        Product product = new Product();
+        product.setName("Flow item");
+        product.setSku("FLOW-" + System.nanoTime());
+        product.setCategory("Test");
+        product.setPrice(BigDecimal.TEN);
+        product.setQty(0);
+        Long productId = productService.createProduct(product).getId();
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+        
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSACTIONS_PER_WRITER; i++) {
+                    Transaction transaction = new Transaction();
+                    transaction.setProduct(productRef(productId));
+                    transaction.setUser(admin);
+                    transaction.setQty(1);
+                    transaction.setType(Transaction.TransactionType.STOCK_IN);
+                    transactionService.createTransaction(transaction);
+                }
+                return null;
+            }));
+        }
+        Future<Integer> rebuilds = Executors.newSingleThreadExecutor().submit(() -> {
+            int count = 0;
+            while (writing.get()) {
+                stockFlowService.rebuild();
+                count++;
+            }
+            return count;
+        });
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        writing.set(false);
+        executor.shutdown();
+        
+        assertThat(rebuilds.get()).isPositive();
+        assertThat(stockFlowService.getTotalQuantity(productId, Transaction.TransactionType.STOCK_IN))
+                .isEqualTo(WRITERS * TRANSACTIONS_PER_WRITER);
+    }
+    
+    private static Product productRef(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,135 @@
+package com.arya.inventory.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.arya.inventory.dto.LedgerDiscrepancy;
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.StockLedgerEntry;
+import com.arya.inventory.entity.Transaction;
+import com.arya.inventory.repository.ProductRepository;
+import com.arya.inventory.repository.StockLedgerRepository;
+import com.arya.inventory.repository.UserRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockLedgerServiceTest {
+    
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private StockLedgerRepository stockLedgerRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Past quantities come out the same whether they sit before or after a snapshot
+    @Test
+    void quantityAtReadsThroughSnapshots() throws Exception {
+        Long productId = product(10);
+        LocalDateTime opened = moment();
+        sell(productId, 3);
+        assertThat(stockLedgerService.takeSnapshots(1)).isPositive();
+        LocalDateTime sold = moment();
+        stockService.applyDelta(productId, 5, StockLedgerEntry.Reason.ADJUSTMENT);
+        LocalDateTime adjusted = moment();
+        
+        assertThat(stockLedgerService.getQuantityAt(productId, opened)).isEqualTo(10);
+        assertThat(stockLedgerService.getQuantityAt(productId, sold)).isEqualTo(7);
+        assertThat(stockLedgerService.getQuantityAt(productId, adjusted)).isEqualTo(12);
+        assertThat(discrepancy(productId)).isNull();
+    }
+    
+    // A deleted transaction is undone by a reversal entry, never by editing the ledger
+    @Test
+    void deletedTransactionIsReversedInTheLedger() {
+        Long productId = product(10);
+        Long transactionId = sell(productId, 4);
+        
+        transactionService.deleteTransaction(transactionId);
+        
+        assertThat(productRepository.findQtyById(productId)).isEqualTo(10);
+        assertThat(stockLedgerRepository.findByProductIdAndIdGreaterThanOrderByIdAsc(productId, 0L, PageRequest.of(0, 10)))
+                .extracting(StockLedgerEntry::getReason, StockLedgerEntry::getDelta)
+                .containsExactly(
+                        tuple(StockLedgerEntry.Reason.OPENING, 10),
+                        tuple(StockLedgerEntry.Reason.TRANSACTION, -4),
+                        tuple(StockLedgerEntry.Reason.REVERSAL, 4));
+        assertThat(discrepancy(productId)).isNull();
+    }
+    
+    // A quantity written behind the ledger's back is reported, then put back by replay
+    @Test
+    void replayRestoresQuantityFromTheLedger() {
+        Long productId = product(10);
+        sell(productId, 2);
+        stockLedgerService.takeSnapshots(1);
+        stockService.applyDelta(productId, 6, StockLedgerEntry.Reason.ADJUSTMENT);
+        jdbcTemplate.update("UPDATE products SET qty = ? WHERE id = ?", 99, productId);
+        
+        LedgerDiscrepancy discrepancy = discrepancy(productId);
+        assertThat(discrepancy).isNotNull();
+        assertThat(discrepancy.getStoredQty()).isEqualTo(99);
+        assertThat(discrepancy.getLedgerQty()).isEqualTo(14);
+        
+        assertThat(stockLedgerService.replay()).isPositive();
+        
+        assertThat(productRepository.findQtyById(productId)).isEqualTo(14);
+        assertThat(discrepancy(productId)).isNull();
+    }
+    
+    private Long product(int qty) {
+        return productService.createProduct(
+                new Product("Ledger item", "LEDGER-" + System.nanoTime(), "Test", BigDecimal.ONE, qty)).getId();
+    }
+    
+    private Long sell(Long productId, int qty) {
+        Transaction transaction = new Transaction();
+        transaction.setProduct(productRepository.findById(productId).orElseThrow());
+        transaction.setUser(userRepository.findByUsername("admin").orElseThrow());
+        transaction.setQty(qty);
+        transaction.setType(Transaction.TransactionType.SALE);
+        return transactionService.createTransaction(transaction).getId();
+    }
+    
+    private LedgerDiscrepancy discrepancy(Long productId) {
+        return stockLedgerService.check().getDiscrepancies().stream()
+                .filter(discrepancy -> discrepancy.getProductId().equals(productId))
+                .findFirst()
+                .orElse(null);
+    }
+    
+    // A point in time strictly between the entries recorded before and after it
+    private static LocalDateTime moment() throws InterruptedException {
+        Thread.sleep(5);
+        LocalDateTime now = LocalDateTime.now();
+        Thread.sleep(5);
+        return now;
+    }
+}
@@ -0,0 +1,109 @@
+package com.arya.inventory.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.arya.inventory.entity.Product;
+import com.arya.inventory.entity.StockLedgerEntry;
+import com.arya.inventory.repository.ProductRepository;
+import com.arya.inventory.repository.StockLedgerRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Many writers on one hot product: every applied delta must land exactly once, and sales
+// beyond the stock on hand must be refused rather than drive it negative
+@SpringBootTest
+@ActiveProfiles("test")
+class StockServiceConcurrencyTest {
+    
+    private static final int WRITERS = 64;
+    private static final int OPERATIONS_PER_WRITER = 200;
+    private static final int INITIAL_STOCK = 50;
+    
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private StockLedgerRepository stockLedgerRepository;
+    
+    @Test
+    void concurrentSalesAndRestocksLoseNoUpdatesAndNeverOversell() throws Exception {
+        Product product = new Product();
+        product.setName("Hot item");
+        product.setSku("HOT-" + System.nanoTime());
+        product.setCategory("Test");
+        product.setPrice(new BigDecimal("9.99"));
+        product.setQty(INITIAL_STOCK);
+        Long productId = productService.createProduct(product).getId();
+        
+        AtomicLong applied = new AtomicLong();
+        AtomicInteger refusedSales = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                    // Three sales per restock, so stock runs out and sales start being refused
+                    int delta = i % 4 == 3 ? 3 : -2;
+                    if (stockService.tryApplyDelta(productId, delta, StockLedgerEntry.Reason.TRANSACTION)) {
+                        applied.addAndGet(delta);
+                    } else {
+                        assertThat(delta).isNegative();
+                        refusedSales.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+        
+        int finalQty = productRepository.findQtyById(productId);
+        assertThat(refusedSales.get()).isPositive();
+        assertThat(finalQty).isGreaterThanOrEqualTo(0);
+        assertThat(finalQty).isEqualTo(INITIAL_STOCK + applied.get());
+        assertThat(stockLedgerRepository.sumDeltas(productId, 0L, LocalDateTime.now())).isEqualTo(finalQty);
+    }
+    
+    @Test
+    void applyDeltaRefusesASaleLargerThanTheStockOnHand() {
+        Product product = new Product();
+        product.setName("Scarce item");
+        product.setSku("SCARCE-" + System.nanoTime());
+        product.setCategory("Test");
+        product.setPrice(BigDecimal.ONE);
+        product.setQty(1);
+        Long productId = productService.createProduct(product).getId();
+        
+        stockService.applyDelta(productId, -1, StockLedgerEntry.Reason.TRANSACTION);
+        
+        assertThatThrownBy(() -> stockService.applyDelta(productId, -1, StockLedgerEntry.Reason.TRANSACTION))
+                .hasMessageContaining("Insufficient stock");
+        assertThat(productRepository.findQtyById(productId)).isZero();
+    }
+}
@@ -0,0 +1,132 @@
+package com.arya.inventory.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CborTest {
+    
+    private final ObjectMapper mapper = new ObjectMapper();
+    
+    // Every head length, both signs, and the ends of the long range
+    @Test
+    void longsRoundTrip() throws IOException {
+        long[] values = {0, 1, 23, 24, 255, 256, 65535, 65536, 0xFFFFFFFFL, 0x100000000L, Long.MAX_VALUE,
+                -1, -24, -25, -256, -257, -65537, Integer.MIN_VALUE, Long.MIN_VALUE};
+        
+        assertThat(roundTrip(values, long[].class)).containsExactly(values);
+    }
+    
+    @Test
+    void bignumsRoundTrip() throws IOException {
+        List<BigInteger> values = List.of(BigInteger.ONE.shiftLeft(63), BigInteger.ONE.shiftLeft(64),
+                BigInteger.ONE.shiftLeft(200).negate(), BigInteger.valueOf(Long.MIN_VALUE).subtract(BigInteger.ONE),
+                BigInteger.valueOf(42));
+        
+        assertThat(roundTrip(values, new TypeReference<List<BigInteger>>() {})).isEqualTo(values);
+    }
+    
+    // Integer heads with arguments of 2^63 and over, which no long holds
+    @Test
+    void integerArgumentsBeyondLongAreBigIntegers() throws IOException {
+        byte[] max = {0x1B, -1, -1, -1, -1, -1, -1, -1, -1};
+        byte[] min = {0x3B, -1, -1, -1, -1, -1, -1, -1, -1};
+        
+        assertThat(Cbor.readValue(mapper, new ByteArrayInputStream(max), BigInteger.class))
+                .isEqualTo(BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE));
+        assertThat(Cbor.readValue(mapper, new ByteArrayInputStream(min), BigInteger.class))
+                .isEqualTo(BigInteger.ONE.shiftLeft(64).negate());
+    }
+    
+    // Scale is kept, so 12.50 does not come back as 12.5
+    @Test
+    void decimalsRoundTrip() throws IOException {
+        List<BigDecimal> values = List.of(new BigDecimal("12.50"), new BigDecimal("-0.001"), new BigDecimal("1E+400"),
+                new BigDecimal("123456789012345678901234567890.123456789"), BigDecimal.ZERO);
+        
+        assertThat(roundTrip(values, new TypeReference<List<BigDecimal>>() {})).isEqualTo(values);
+    }
+    
+    // A decimal fraction whose exponent is a bignum (here 2^64) has no int exponent
+    @Test
+    void decimalWithBignumExponentIsRejected() {
+        byte[] bytes = {(byte) 0xC4, (byte) 0x82, (byte) 0xC2, 0x49, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0x01};
+        
+        assertThatThrownBy(() -> Cbor.readValue(mapper, new ByteArrayInputStream(bytes), BigDecimal.class))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageContaining("exponent out of range");
+    }
+    
+    @Test
+    void decimalWithExponentBeyondIntIsRejected() {
+        byte[] bytes = {(byte) 0xC4, (byte) 0x82, 0x1B, 0, 0, 0, 1, 0, 0, 0, 0, 0x01};
+        
+        assertThatThrownBy(() -> Cbor.readValue(mapper, new ByteArrayInputStream(bytes), BigDecimal.class))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageContaining("exponent out of range");
+    }
+    
+    // Longer than the parser's and generator's buffers, with multi-byte characters split
+    // across their edges, read from a stream that never returns more than a few bytes
+    @Test
+    void longStringRoundTripsThroughShortReads() throws IOException {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 20_000) {
+            text.append("añ€😀x");
+        }
+        List<Object> value = List.of(text.substring(0, 20_000), Long.MIN_VALUE, new BigDecimal("-7.25"), "tail");
+        
+        byte[] bytes = Cbor.writeValueAsBytes(mapper, value);
+        List<Object> read = Cbor.readValue(mapper, new ShortReads(bytes), mapper.getTypeFactory()
+                .constructCollectionType(List.class, Object.class));
+        
+        assertThat(read.get(0)).isEqualTo(value.get(0));
+        assertThat(((Number) read.get(1)).longValue()).isEqualTo(Long.MIN_VALUE);
+        assertThat(((Number) read.get(2)).doubleValue()).isEqualTo(-7.25);
+        assertThat(read.get(3)).isEqualTo("tail");
+    }
+    
+    @Test
+    void rawContentIsAGenerationError() throws IOException {
+        try (JsonGenerator generator = new CborGenerator(mapper, new ByteArrayOutputStream())) {
+            assertThatThrownBy(() -> generator.writeRaw("{}")).isInstanceOf(JsonGenerationException.class);
+            assertThatThrownBy(() -> generator.writeRaw('x')).isInstanceOf(JsonGenerationException.class);
+        }
+    }
+    
+    private <T> T roundTrip(Object value, Class<T> type) throws IOException {
+        return Cbor.readValue(mapper, new ShortReads(Cbor.writeValueAsBytes(mapper, value)), type);
+    }
+    
+    private <T> T roundTrip(Object value, TypeReference<T> type) throws IOException {
+        return Cbor.readValue(mapper, new ShortReads(Cbor.writeValueAsBytes(mapper, value)), mapper.constructType(type));
+    }
+    
+    // Hands out at most three bytes per read, as a slow socket might
+    private static final class ShortReads extends FilterInputStream {
+        
+        ShortReads(byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return super.read(buffer, offset, Math.min(length, 3));
+        }
+    }
+}